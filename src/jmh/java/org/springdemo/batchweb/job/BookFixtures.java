@@ -0,0 +1,107 @@
+package org.springdemo.batchweb.job;
+
+import org.springdemo.batchweb.entity.BookEntity;
+import org.springdemo.batchweb.model.Book;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Generates the same pseudo random books for a given size, so runs of the benchmarks are comparable. About one
+ * title in four is quoted with an embedded delimiter and authors are always a quoted list, like real exports.
+ */
+final class BookFixtures {
+
+    static final String HEADER = "ISBN,TITLE,AUTHORS,YEAR PUBLISHED";
+
+    private static final long SEED = 20241018L;
+    private static final long FIRST_ISBN = 9780000000000L;
+    private static final String[] WORDS = {"Spring", "Batch", "in", "Action", "Java", "Persistence", "Patterns",
+            "Concurrency", "Practice", "Effective", "Modern", "Systems", "Design", "Data", "Intensive", "Applications"};
+    private static final String[] NAMES = {"Templier", "Cogolu\u00e8gnes", "Gregory", "Bazoud", "Carnell",
+            "S\u00e1nchez", "Goetz", "Bloch", "Kleppmann", "Fowler", "Evans", "Vernon"};
+
+    private BookFixtures() {
+    }
+
+    static List<Book> books(int rows) {
+        var random = new SplittableRandom(SEED);
+        var books = new ArrayList<Book>(rows);
+        for (int i = 0; i < rows; i++) {
+            books.add(new Book(null, String.valueOf(FIRST_ISBN + i), title(random), authors(random),
+                    1900 + random.nextInt(125)));
+        }
+        return books;
+    }
+
+    static List<BookEntity> entities(long firstIsbn, int rows) {
+        var random = new SplittableRandom(SEED);
+        var entities = new ArrayList<BookEntity>(rows);
+        for (int i = 0; i < rows; i++) {
+            entities.add(new BookEntity(null, String.valueOf(firstIsbn + i), title(random), authors(random),
+                    1900 + random.nextInt(125)));
+        }
+        return entities;
+    }
+
+    /**
+     * CSV lines without the header, as the line tokenizer receives them.
+     */
+    static List<String> lines(int rows) {
+        return books(rows).stream().map(BookFixtures::line).toList();
+    }
+
+    static Path csvFile(Path directory, int rows) throws IOException {
+        var file = directory.resolve("books-%d.csv".formatted(rows));
+        try (var writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write(HEADER);
+            writer.newLine();
+            for (var book : books(rows)) {
+                writer.write(line(book));
+                writer.newLine();
+            }
+        }
+        return file;
+    }
+
+    private static String line(Book book) {
+        return String.join(",", book.isbn(), quote(book.title()), quote(book.authors()),
+                String.valueOf(book.yearPublished()));
+    }
+
+    private static String quote(String field) {
+        return field.indexOf(',') < 0 && field.indexOf('"') < 0 ? field : '"' + field.replace("\"", "\"\"") + '"';
+    }
+
+    private static String title(SplittableRandom random) {
+        var title = new StringBuilder();
+        int words = 2 + random.nextInt(5);
+        for (int w = 0; w < words; w++) {
+            if (w > 0) {
+                title.append(' ');
+            }
+            title.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        if (random.nextInt(4) == 0) {
+            title.append(", Second Edition");
+        }
+        return title.toString();
+    }
+
+    private static String authors(SplittableRandom random) {
+        var authors = new StringBuilder();
+        int count = 1 + random.nextInt(4);
+        for (int a = 0; a < count; a++) {
+            if (a > 0) {
+                authors.append(", ");
+            }
+            authors.append(NAMES[random.nextInt(NAMES.length)]);
+        }
+        return authors.toString();
+    }
+}
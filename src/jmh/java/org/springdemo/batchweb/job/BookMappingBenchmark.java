@@ -0,0 +1,64 @@
+package org.springdemo.batchweb.job;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springdemo.batchweb.entity.BookEntity;
+import org.springdemo.batchweb.mappers.BookMappers;
+import org.springdemo.batchweb.mappers.BookMappersImpl;
+import org.springdemo.batchweb.model.Book;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * The {@code bookMapper} function used by the import processor against the MapStruct {@link BookMappers},
+ * one invocation maps the whole fixture.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BookMappingBenchmark {
+
+    @Param({"10000"})
+    int rows;
+
+    private List<Book> books;
+
+    private Function<Book, BookEntity> bookMapper;
+
+    private BookMappers bookMappers;
+
+    @Setup
+    public void setUp() {
+        books = BookFixtures.books(rows);
+        bookMapper = new ImportBooksJobConfig().bookMapper();
+        bookMappers = new BookMappersImpl();
+    }
+
+    @Benchmark
+    public void bookMapperFunction(Blackhole blackhole) {
+        for (var book : books) {
+            blackhole.consume(bookMapper.apply(book));
+        }
+    }
+
+    @Benchmark
+    public void mapStructModelToEntity(Blackhole blackhole) {
+        for (var book : books) {
+            blackhole.consume(bookMappers.mapModelToEntity(book));
+        }
+    }
+
+    @Benchmark
+    public Object mapStructModelsToEntities() {
+        return bookMappers.mapModelsToEntities(books);
+    }
+}
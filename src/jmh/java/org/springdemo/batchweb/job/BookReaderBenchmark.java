@@ -0,0 +1,85 @@
+package org.springdemo.batchweb.job;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springdemo.batchweb.job.reader.MappedBookItemReader;
+import org.springdemo.batchweb.model.Book;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.file.builder.FlatFileItemReaderBuilder;
+import org.springframework.core.io.PathResource;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Both readers of the chunk step reading a generated CSV file from start to end, one invocation reads the
+ * whole file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BookReaderBenchmark {
+
+    @Param({"100000"})
+    int rows;
+
+    private Path directory;
+
+    private Path file;
+
+    private ImportBooksJobConfig config;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("book-reader-benchmark");
+        file = BookFixtures.csvFile(directory, rows);
+        config = new ImportBooksJobConfig();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public void mapped(Blackhole blackhole) throws Exception {
+        var reader = new MappedBookItemReader(file, 0, -1, true);
+        reader.setName("benchmark");
+        readAll(reader, blackhole);
+    }
+
+    @Benchmark
+    public void flatFile(Blackhole blackhole) throws Exception {
+        var reader = new FlatFileItemReaderBuilder<Book>()
+                .name("benchmark")
+                .linesToSkip(1)
+                .resource(new PathResource(file))
+                .strict(true)
+                .lineMapper(config.bookLineMapper(config.lineTokenizer(), config.fieldSetMapper()))
+                .build();
+        readAll(reader, blackhole);
+    }
+
+    private static void readAll(ItemStreamReader<Book> reader, Blackhole blackhole) throws Exception {
+        reader.open(new ExecutionContext());
+        try {
+            for (Book book = reader.read(); book != null; book = reader.read()) {
+                blackhole.consume(book);
+            }
+        } finally {
+            reader.close();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package org.springdemo.batchweb.job;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springdemo.batchweb.BatchWEBApplication;
+import org.springdemo.batchweb.entity.BookEntity;
+import org.springdemo.batchweb.job.writer.BookWriterMode;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@code bookWriter} bean of every {@link BookWriterMode} writing one chunk per invocation into the embedded
+ * H2 database, inside a transaction like the chunk step does. The table is emptied before each iteration and the
+ * chunk of new ISBNs is generated before each invocation, outside the measured time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BookWriterBenchmark {
+
+    private static final long FIRST_ISBN = 9780000000000L;
+
+    @Param({"JPA", "JDBC_BATCH", "JDBC_MULTI_ROW"})
+    BookWriterMode mode;
+
+    @Param({"100"})
+    int chunkSize;
+
+    private ConfigurableApplicationContext context;
+
+    private ItemWriter<BookEntity> bookWriter;
+
+    private TransactionTemplate transactionTemplate;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private long nextIsbn;
+
+    private Chunk<BookEntity> chunk;
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void startContext() {
+        context = new SpringApplicationBuilder(BatchWEBApplication.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .run("--batchweb.import.writer.mode=" + mode,
+                        "--batchweb.import.writer.rows-per-statement=" + chunkSize,
+                        "--logging.level.root=warn");
+        bookWriter = context.getBean("bookWriter", ItemWriter.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+    }
+
+    @Setup(Level.Iteration)
+    public void emptyTable() {
+        jdbcTemplate.update("DELETE FROM BOOK_ENTITY");
+        nextIsbn = FIRST_ISBN;
+    }
+
+    @Setup(Level.Invocation)
+    public void nextChunk() {
+        // ISBNs are unique, every invocation writes new ones
+        chunk = new Chunk<>(BookFixtures.entities(nextIsbn, chunkSize));
+        nextIsbn += chunkSize;
+    }
+
+    @TearDown(Level.Trial)
+    public void closeContext() {
+        context.close();
+    }
+
+    @Benchmark
+    public void writeChunk() {
+        transactionTemplate.executeWithoutResult(status -> {
+            try {
+                bookWriter.write(chunk);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+}
@@ -0,0 +1,102 @@
+package org.springdemo.batchweb.job;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springdemo.batchweb.BatchWEBApplication;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.launch.support.TaskExecutorJobLauncher;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.FileSystemUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.springdemo.batchweb.job.ImportBooksJobConfig.IMPORT_BOOKS_CORRELATION_ID_PARAMETER;
+import static org.springdemo.batchweb.job.ImportBooksJobConfig.IMPORT_BOOKS_FILE_PATH_PARAMETER;
+import static org.springdemo.batchweb.job.ImportBooksJobConfig.IMPORT_BOOKS_STRATEGY_PARAMETER;
+
+/**
+ * The whole import job run on a generated file with the chunk step and with the database bulk load, one
+ * invocation imports the file into an empty books table. Comparing both strategies over {@code rows} locates the
+ * file size from which the bulk load's fixed costs pay off.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ImportStrategyBenchmark {
+
+    @Param({"100", "1000", "10000", "100000", "1000000"})
+    int rows;
+
+    @Param({"CHUNK", "BULK_LOAD"})
+    ImportStrategy strategy;
+
+    private ConfigurableApplicationContext context;
+
+    private Path directory;
+
+    private Path file;
+
+    private TaskExecutorJobLauncher jobLauncher;
+
+    private Job job;
+
+    private JdbcTemplate jdbcTemplate;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        directory = Files.createTempDirectory("import-strategy-benchmark");
+        file = BookFixtures.csvFile(directory, rows);
+        context = new SpringApplicationBuilder(BatchWEBApplication.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .run("--logging.level.root=warn");
+        // runs the job on the benchmark thread, the application launcher hands it to a task executor
+        jobLauncher = new TaskExecutorJobLauncher();
+        jobLauncher.setJobRepository(context.getBean(JobRepository.class));
+        jobLauncher.afterPropertiesSet();
+        job = context.getBean(ImportBooksJobConfig.IMPORT_BOOKS_JOB_NAME, Job.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+    }
+
+    @Setup(Level.Invocation)
+    public void emptyTable() {
+        jdbcTemplate.update("DELETE FROM BOOK_ENTITY");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        context.close();
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public BatchStatus importFile() throws Exception {
+        var jobParameters = new JobParametersBuilder()
+                .addString(IMPORT_BOOKS_CORRELATION_ID_PARAMETER, UUID.randomUUID().toString(), true)
+                .addString(IMPORT_BOOKS_FILE_PATH_PARAMETER, file.toString(), false)
+                .addString(IMPORT_BOOKS_STRATEGY_PARAMETER, strategy.name(), false)
+                .toJobParameters();
+        var status = jobLauncher.run(job, jobParameters).getStatus();
+        if (status != BatchStatus.COMPLETED) {
+            throw new IllegalStateException("Import ended " + status);
+        }
+        return status;
+    }
+}
@@ -0,0 +1,59 @@
+package org.springdemo.batchweb.job;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springdemo.batchweb.model.Book;
+import org.springframework.batch.item.file.mapping.FieldSetMapper;
+import org.springframework.batch.item.file.transform.LineTokenizer;
+import org.springframework.validation.BindException;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tokenizing and mapping of the CSV lines with the tokenizer and field set mapper of {@link ImportBooksJobConfig},
+ * one invocation parses the whole fixture.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class LineParsingBenchmark {
+
+    @Param({"10000"})
+    int rows;
+
+    private List<String> lines;
+
+    private LineTokenizer lineTokenizer;
+
+    private FieldSetMapper<Book> fieldSetMapper;
+
+    @Setup
+    public void setUp() throws Exception {
+        var config = new ImportBooksJobConfig();
+        lines = BookFixtures.lines(rows);
+        lineTokenizer = config.lineTokenizer();
+        fieldSetMapper = config.fieldSetMapper();
+    }
+
+    @Benchmark
+    public void tokenize(Blackhole blackhole) {
+        for (var line : lines) {
+            blackhole.consume(lineTokenizer.tokenize(line));
+        }
+    }
+
+    @Benchmark
+    public void tokenizeAndMap(Blackhole blackhole) throws BindException {
+        for (var line : lines) {
+            blackhole.consume(fieldSetMapper.mapFieldSet(lineTokenizer.tokenize(line)));
+        }
+    }
+}
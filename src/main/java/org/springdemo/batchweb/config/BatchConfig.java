@@ -5,6 +5,7 @@ import org.springframework.batch.core.configuration.support.DefaultBatchConfigur
 import org.springframework.batch.core.launch.JobLauncher;
 import org.springframework.batch.core.launch.support.TaskExecutorJobLauncher;
 import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
@@ -24,15 +25,19 @@ public class BatchConfig extends DefaultBatchConfiguration {
         return jobLauncher;
     }
 
+    /**
+     * Runs the launched jobs, on virtual threads when spring.threads.virtual.enabled is set. At most
+     * {@code concurrencyLimit} jobs run at once whatever the kind of thread, further launches wait for a slot so a
+     * burst of imports can not exhaust the connection pool. Imports are admitted below that limit by
+     * {@link org.springdemo.batchweb.job.admission.ImportAdmissionQueue}, leaving slots to exports and stats rebuilds.
+     */
     @Bean
     @Primary
-    public TaskExecutor taskExecutor() {
-        return new SimpleAsyncTaskExecutor();
-        /*
-        // Once we are using Java 21+ we may start using Virtual Threads with the setting bellow
-        //
-        // var taskExecutor = new SimpleAsyncTaskExecutor();
-        // taskExecutor.setVirtualThreads(true); // For Java Version >= 21
-        */
+    public TaskExecutor taskExecutor(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+                                     @Value("${batchweb.jobs.concurrency-limit:8}") int concurrencyLimit) {
+        var taskExecutor = new SimpleAsyncTaskExecutor("batch-");
+        taskExecutor.setVirtualThreads(virtualThreads);
+        taskExecutor.setConcurrencyLimit(concurrencyLimit);
+        return taskExecutor;
     }
 }
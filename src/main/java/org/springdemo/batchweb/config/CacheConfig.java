@@ -0,0 +1,53 @@
+package org.springdemo.batchweb.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springdemo.batchweb.model.Book;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class CacheConfig {
+
+    public static final String BOOK_ISBN_CACHE_NAME = "books.isbn";
+    public static final String IMPORT_CORRELATION_CACHE_NAME = "import.correlation";
+
+    /**
+     * Read-through cache of books by ISBN, bounded by size and expiring entries after {@code ttl} so writes made
+     * outside the import job show up eventually. Hit, miss and eviction counts are published to the meter registry.
+     */
+    @Bean
+    public Cache<String, Book> bookIsbnCache(MeterRegistry meterRegistry,
+                                             @Value("${batchweb.cache.isbn.maximum-size:100000}") long maximumSize,
+                                             @Value("${batchweb.cache.isbn.ttl:PT10M}") Duration ttl) {
+        Cache<String, Book> cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        return CaffeineCacheMetrics.monitor(meterRegistry, cache, BOOK_ISBN_CACHE_NAME);
+    }
+
+    /**
+     * Recent job executions by job name and correlation id, polled by the status endpoints. Bounded by size and
+     * expiring entries {@code ttl} after they were cached.
+     */
+    @Bean(name = IMPORT_CORRELATION_CACHE_NAME)
+    public Cache<String, JobExecution> importCorrelationCache(
+            MeterRegistry meterRegistry,
+            @Value("${batchweb.cache.correlation.maximum-size:10000}") long maximumSize,
+            @Value("${batchweb.cache.correlation.ttl:PT1H}") Duration ttl) {
+        Cache<String, JobExecution> cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        return CaffeineCacheMetrics.monitor(meterRegistry, cache, IMPORT_CORRELATION_CACHE_NAME);
+    }
+}
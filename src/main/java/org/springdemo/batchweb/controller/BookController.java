@@ -1,5 +1,7 @@
 package org.springdemo.batchweb.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.Parameters;
@@ -12,19 +14,40 @@ import org.apache.logging.log4j.util.Strings;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springdemo.batchweb.controller.dto.ImportBookResponse;
+import org.springdemo.batchweb.controller.dto.ImportProgressResponse;
+import org.springdemo.batchweb.exception.BookNotFoundException;
+import org.springdemo.batchweb.exception.InvalidRequestException;
 import org.springdemo.batchweb.exception.JobNotFoundException;
+import org.springdemo.batchweb.exception.RejectFileNotFoundException;
+import org.springdemo.batchweb.job.ImportStrategy;
+import org.springdemo.batchweb.job.admission.ImportAdmissionQueue;
+import org.springdemo.batchweb.job.correlation.ImportCorrelationIndex;
+import org.springdemo.batchweb.job.distributed.ImportPartition;
+import org.springdemo.batchweb.job.distributed.ImportPartitionQueue;
+import org.springdemo.batchweb.job.progress.ImportProgress;
+import org.springdemo.batchweb.job.progress.ImportProgressRegistry;
+import org.springdemo.batchweb.job.reader.Compression;
+import org.springdemo.batchweb.job.reject.ImportRejectFiles;
+import org.springdemo.batchweb.job.stream.StreamingImportRegistry;
+import org.springdemo.batchweb.job.writer.BookImportMode;
 import org.springdemo.batchweb.model.Book;
 import org.springdemo.batchweb.service.BookService;
+import org.springdemo.batchweb.util.LineCountingCopy;
+import org.springframework.batch.core.BatchStatus;
 import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionException;
+import org.springframework.batch.core.JobParameters;
 import org.springframework.batch.core.JobParametersBuilder;
-import org.springframework.batch.core.JobParametersInvalidException;
-import org.springframework.batch.core.explore.JobExplorer;
 import org.springframework.batch.core.launch.JobLauncher;
-import org.springframework.batch.core.repository.JobExecutionAlreadyRunningException;
-import org.springframework.batch.core.repository.JobInstanceAlreadyCompleteException;
-import org.springframework.batch.core.repository.JobRestartException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.PathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -34,15 +57,27 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Base64;
 import java.util.List;
 import java.util.UUID;
 
 import static org.springdemo.batchweb.job.ImportBooksJobConfig.IMPORT_BOOKS_CORRELATION_ID_PARAMETER;
 import static org.springdemo.batchweb.job.ImportBooksJobConfig.IMPORT_BOOKS_FILE_PATH_PARAMETER;
 import static org.springdemo.batchweb.job.ImportBooksJobConfig.IMPORT_BOOKS_JOB_NAME;
+import static org.springdemo.batchweb.job.ImportBooksJobConfig.IMPORT_BOOKS_MODE_PARAMETER;
+import static org.springdemo.batchweb.job.ImportBooksJobConfig.IMPORT_BOOKS_SKIP_LIMIT_PARAMETER;
+import static org.springdemo.batchweb.job.ImportBooksJobConfig.IMPORT_BOOKS_SOURCE_PARAMETER;
+import static org.springdemo.batchweb.job.ImportBooksJobConfig.IMPORT_BOOKS_SOURCE_STREAM;
+import static org.springdemo.batchweb.job.ImportBooksJobConfig.IMPORT_BOOKS_STRATEGY_PARAMETER;
 
 @RestController
 @RequestMapping(path = "/api/v1/books")
@@ -50,29 +85,67 @@ public class BookController {
 
     private static final Logger log = LoggerFactory.getLogger(BookController.class);
     public static final String X_CORRELATION_ID = "X-Correlation-ID";
+    public static final String X_NEXT_CURSOR = "X-Next-Cursor";
+    static final int DEFAULT_PAGE_SIZE = 100;
+    static final int MAX_PAGE_SIZE = 1000;
 
     private final JobLauncher jobLauncher;
 
-    private final JobExplorer jobExplorer;
+    private final ImportCorrelationIndex importCorrelationIndex;
 
     private final Job job;
 
     private final BookService bookService;
 
+    private final StreamingImportRegistry streamingImportRegistry;
+
+    private final ImportAdmissionQueue importAdmissionQueue;
+
+    private final ImportProgressRegistry importProgressRegistry;
+
+    private final ImportProgressPublisher importProgressPublisher;
+
+    private final ImportRejectFiles importRejectFiles;
+
+    private final ImportPartitionQueue importPartitionQueue;
+
+    private final ObjectMapper objectMapper;
+
+    private final ImportStrategy defaultImportStrategy;
+
+    private final BookImportMode defaultImportMode;
+
     @Autowired
-    public BookController(JobLauncher jobLauncher, JobExplorer jobExplorer, @Qualifier(IMPORT_BOOKS_JOB_NAME) Job job,
-                          BookService bookService) {
+    public BookController(JobLauncher jobLauncher, ImportCorrelationIndex importCorrelationIndex,
+                          @Qualifier(IMPORT_BOOKS_JOB_NAME) Job job,
+                          BookService bookService, StreamingImportRegistry streamingImportRegistry,
+                          ImportAdmissionQueue importAdmissionQueue, ImportProgressRegistry importProgressRegistry,
+                          ImportProgressPublisher importProgressPublisher, ImportRejectFiles importRejectFiles,
+                          ImportPartitionQueue importPartitionQueue, ObjectMapper objectMapper,
+                          @Value("${batchweb.import.strategy:CHUNK}") ImportStrategy defaultImportStrategy,
+                          @Value("${batchweb.import.mode:INSERT}") BookImportMode defaultImportMode) {
         this.jobLauncher = jobLauncher;
-        this.jobExplorer = jobExplorer;
+        this.importCorrelationIndex = importCorrelationIndex;
         this.job = job;
         this.bookService = bookService;
+        this.streamingImportRegistry = streamingImportRegistry;
+        this.importAdmissionQueue = importAdmissionQueue;
+        this.importProgressRegistry = importProgressRegistry;
+        this.importProgressPublisher = importProgressPublisher;
+        this.importRejectFiles = importRejectFiles;
+        this.importPartitionQueue = importPartitionQueue;
+        this.objectMapper = objectMapper;
+        this.defaultImportStrategy = defaultImportStrategy;
+        this.defaultImportMode = defaultImportMode;
     }
 
     @Operation(method = "POST",
             operationId = "import-book-start",
             summary = "Launches a JOB to import the specified file",
             description = """
-                    Launches the job to import the specified file into the books table
+                    Launches the job to import the specified file into the books table. When every import slot is
+                    busy the job is queued and the response status is QUEUED with its queue position, when the
+                    queue is full the request is rejected with 429 and a Retry-After header.
                     """
     )
     @Parameters({
@@ -85,52 +158,164 @@ public class BookController {
                     TITLE
                     AUTHORS
                     PUBLISHING YEAR
+                
+                The file may be gzip or zstd compressed, it is stored as uploaded and inflated while it is imported.
                 """,
                 allowEmptyValue = true,
                 schema = @Schema(implementation = MultipartFile.class)),
+        @Parameter(name = "strategy", description = """
+                Import strategy, CHUNK reads the file in a single step, PARTITIONED splits it in byte ranges
+                imported in parallel, PIPELINED reads ahead on another thread while chunks are written.
+                BULK_LOAD has the database load the file in one transaction, for trusted feeds only: the header
+                must be ISBN,TITLE,AUTHORS,YEAR PUBLISHED, the first bad row fails the whole import and skipLimit
+                does not apply.
+                DISTRIBUTED queues the byte ranges in the database for every node sharing it to import, the file must
+                be readable by all of them at the same path.
+                Defaults to batchweb.import.strategy.
+                """),
+        @Parameter(name = "mode", description = """
+                What to do with books already imported, INSERT fails the chunk on an existing ISBN, UPSERT overwrites
+                the existing books and UPSERT_CHANGED only updates the ones that differ. DELTA compares content
+                hashes and skips unchanged books before they are written. Defaults to batchweb.import.mode.
+                """),
+        @Parameter(name = "skipLimit", description = """
+                Number of rows the import may reject before it fails, malformed lines and books violating a
+                constraint are skipped and listed in the file served by /import/rejects. 0 fails the import on the
+                first bad row. Defaults to batchweb.import.skip.limit.
+                """),
     })
     @ApiResponses({
             @ApiResponse(responseCode = "202", description = "Accepted",
-                    content = @Content(schema = @Schema(implementation = ImportBookResponse.class)))
+                    content = @Content(schema = @Schema(implementation = ImportBookResponse.class))),
+            @ApiResponse(responseCode = "429", description = "Import queue is full, retry after Retry-After seconds")
     })
     @SuppressWarnings("ReassignedVariable")
     @PostMapping(path = "/import/start")
     public ResponseEntity<ImportBookResponse> importBook(
             @RequestParam("file") MultipartFile file,
+            @RequestParam(value = "strategy", required = false) ImportStrategy strategy,
+            @RequestParam(value = "mode", required = false) BookImportMode mode,
+            @RequestParam(value = "skipLimit", required = false) Long skipLimit,
             @RequestHeader(value = X_CORRELATION_ID, defaultValue = "") String correlationId)
-            throws JobInstanceAlreadyCompleteException, JobExecutionAlreadyRunningException,
-            JobParametersInvalidException, JobRestartException, IOException {
+            throws JobExecutionException, IOException {
         log.info("Import book started");
         if (Strings.isEmpty(correlationId)) {
             correlationId = UUID.randomUUID().toString();
             log.info("Generated Correlation ID: {}", correlationId);
         }
+        // refuse before the upload is staged on disk
+        importAdmissionQueue.checkCapacity(correlationId);
         var tempFile = File.createTempFile(IMPORT_BOOKS_JOB_NAME + "-" + correlationId, ".tmp");
         log.info("Generated temp file: {}, transferring uploaded file", tempFile.getAbsolutePath());
-        file.transferTo(tempFile);
-        log.info("Uploaded file is onboard");
+        LineCountingCopy.Result copied;
+        try (var in = file.getInputStream(); var out = Files.newOutputStream(tempFile.toPath())) {
+            copied = LineCountingCopy.copy(in, out);
+        }
+        log.info("Uploaded file is onboard, {} bytes", copied.bytes());
+        // lines of a compressed upload say nothing about its rows, the header line is not a row
+        var totalRows = Compression.detect(tempFile.toPath()).isCompressed()
+                ? ImportProgress.UNKNOWN
+                : Math.max(0, copied.lines() - 1);
+        importProgressRegistry.register(correlationId, copied.bytes(), totalRows);
         final var jobParameters = new JobParametersBuilder()
             .addString(IMPORT_BOOKS_CORRELATION_ID_PARAMETER, correlationId, true)
             .addString(IMPORT_BOOKS_FILE_PATH_PARAMETER, tempFile.getAbsolutePath(), false)
+            .addString(IMPORT_BOOKS_STRATEGY_PARAMETER,
+                    (strategy == null ? defaultImportStrategy : strategy).name(), false)
+            .addString(IMPORT_BOOKS_MODE_PARAMETER, (mode == null ? defaultImportMode : mode).name(), false)
+            .addJobParameters(skipLimitParameter(skipLimit))
             .toJobParameters();
-        final var jobExecution = jobLauncher.run(job, jobParameters);
-        final var importBookResponse = new ImportBookResponse(
-                correlationId,
-                jobExecution.getJobId(),
-                jobExecution.getId(),
-                jobExecution.getCreateTime(),
-                jobExecution.getStartTime(),
-                jobExecution.getEndTime(),
-                jobExecution.getStatus().name(),
-                jobExecution.getExitStatus().getExitDescription());
-        return ResponseEntity.accepted().header(X_CORRELATION_ID, correlationId).body(importBookResponse);
+        final var id = correlationId;
+        final ImportAdmissionQueue.Admission admission;
+        try {
+            admission = importAdmissionQueue.submit(correlationId,
+                    () -> importCorrelationIndex.register(id, jobLauncher.run(job, jobParameters)),
+                    e -> {
+                        importProgressRegistry.finished(id, BatchStatus.FAILED.name());
+                        deleteTempFile(tempFile);
+                    });
+        } catch (Exception e) {
+            deleteTempFile(tempFile);
+            throw e;
+        }
+        return ResponseEntity.accepted().header(X_CORRELATION_ID, correlationId)
+                .body(admission.isQueued()
+                        ? ImportBookResponse.queued(correlationId, admission.queuePosition())
+                        : toResponse(correlationId, admission.jobExecution()));
+    }
+
+    @Operation(method = "POST",
+            operationId = "import-book-stream",
+            summary = "Imports the request body while it is being uploaded",
+            description = """
+                    Launches the import job on the raw CSV body of the request and feeds it the bytes as they arrive,
+                    without staging the upload on disk first. The upload is throttled to the pace of the import.
+                    The body may be gzip or zstd compressed, it is inflated on the fly.
+                    Streaming imports can not be restarted nor queued, the request is rejected with 429 and a
+                    Retry-After header unless an import slot is free right away.
+                    """
+    )
+    @Parameters({
+            @Parameter(name = X_CORRELATION_ID, in = ParameterIn.HEADER),
+            @Parameter(name = "mode", description = "INSERT, UPSERT, UPSERT_CHANGED or DELTA, see /import/start"),
+            @Parameter(name = "skipLimit", description = "Rows the import may reject, see /import/start"),
+    })
+    @ApiResponses({
+            @ApiResponse(responseCode = "202", description = "Accepted",
+                    content = @Content(schema = @Schema(implementation = ImportBookResponse.class))),
+            @ApiResponse(responseCode = "429", description = "No import slot free, retry after Retry-After seconds")
+    })
+    @SuppressWarnings("ReassignedVariable")
+    @PostMapping(path = "/import/stream",
+            consumes = {"text/csv", MediaType.TEXT_PLAIN_VALUE, MediaType.APPLICATION_OCTET_STREAM_VALUE,
+                    "application/gzip", "application/zstd"})
+    public ResponseEntity<ImportBookResponse> importBookStream(
+            InputStream body,
+            @RequestParam(value = "mode", required = false) BookImportMode mode,
+            @RequestParam(value = "skipLimit", required = false) Long skipLimit,
+            @RequestHeader(value = X_CORRELATION_ID, defaultValue = "") String correlationId)
+            throws JobExecutionException, IOException {
+        log.info("Streaming import started");
+        if (Strings.isEmpty(correlationId)) {
+            correlationId = UUID.randomUUID().toString();
+            log.info("Generated Correlation ID: {}", correlationId);
+        }
+        final var pipe = streamingImportRegistry.open(correlationId);
+        importProgressRegistry.register(correlationId, ImportProgress.UNKNOWN, ImportProgress.UNKNOWN);
+        final var jobParameters = new JobParametersBuilder()
+                .addString(IMPORT_BOOKS_CORRELATION_ID_PARAMETER, correlationId, true)
+                .addString(IMPORT_BOOKS_SOURCE_PARAMETER, IMPORT_BOOKS_SOURCE_STREAM, false)
+                .addString(IMPORT_BOOKS_STRATEGY_PARAMETER, ImportStrategy.CHUNK.name(), false)
+                .addString(IMPORT_BOOKS_MODE_PARAMETER, (mode == null ? defaultImportMode : mode).name(), false)
+                .addJobParameters(skipLimitParameter(skipLimit))
+                .toJobParameters();
+        final JobExecution jobExecution;
+        try {
+            final var id = correlationId;
+            jobExecution = importAdmissionQueue.launchNow(correlationId,
+                    () -> importCorrelationIndex.register(id, jobLauncher.run(job, jobParameters)));
+        } catch (Exception e) {
+            streamingImportRegistry.close(correlationId);
+            throw e;
+        }
+        try {
+            body.transferTo(pipe.sink());
+            pipe.sink().close();
+        } catch (IOException e) {
+            pipe.abort(e);
+            throw e;
+        }
+        log.info("Streamed upload handed over to the import");
+        return ResponseEntity.accepted().header(X_CORRELATION_ID, correlationId)
+                .body(toResponse(correlationId, jobExecution));
     }
 
     @Operation(method = "GET",
         operationId = "import-books-status",
         summary = "Gets status of the import job with the assigned correlation id",
         description = """
-                Retrieves status of the given jon
+                Retrieves status of the given jon, QUEUED with the queue position while it waits for a slot, FAILED
+                with the error when the queued import could not be launched
                 """
     )
     @Parameters({
@@ -138,15 +323,253 @@ public class BookController {
     })
     @GetMapping(path = "/import/status/{correlationId}")
     public ResponseEntity<ImportBookResponse> getBook(@PathVariable("correlationId") final String correlationId) {
-        var jobParameters = new JobParametersBuilder()
-                .addString(IMPORT_BOOKS_CORRELATION_ID_PARAMETER, correlationId, true)
+        var queuePosition = importAdmissionQueue.position(correlationId);
+        if (queuePosition.isPresent()) {
+            return ResponseEntity.ok(ImportBookResponse.queued(correlationId, queuePosition.getAsInt()));
+        }
+        var launchFailure = importAdmissionQueue.launchFailure(correlationId);
+        if (launchFailure.isPresent()) {
+            return ResponseEntity.ok(ImportBookResponse.failed(correlationId, launchFailure.get()));
+        }
+        var jobExecution = importCorrelationIndex.find(IMPORT_BOOKS_JOB_NAME, correlationId).orElseThrow(() ->
+                new JobNotFoundException("Job with correlation id (%s) not found".formatted(correlationId)));
+        return ResponseEntity.ok(toResponse(correlationId, jobExecution));
+    }
+
+    @Operation(method = "GET",
+            operationId = "import-books-progress",
+            summary = "Gets the live progress of the import with the assigned correlation id",
+            description = """
+                    Rows read and written so far, current throughput in rows per second and the estimated time
+                    left. Served from counters kept in memory by the node running the import, the job repository
+                    is not queried. Total rows, percentage and ETA are null for streamed and compressed uploads.
+                    """
+    )
+    @Parameters({
+            @Parameter(name = "correlationId", in = ParameterIn.PATH, required = true),
+    })
+    @GetMapping(path = "/import/progress/{correlationId}")
+    public ResponseEntity<ImportProgressResponse> getProgress(
+            @PathVariable("correlationId") final String correlationId) {
+        return ResponseEntity.ok(toProgressResponse(progressOf(correlationId)));
+    }
+
+    @Operation(method = "GET",
+            operationId = "import-books-progress-stream",
+            summary = "Streams the progress of the import as Server-Sent Events",
+            description = """
+                    Sends a progress event with the body of /import/progress every
+                    batchweb.import.progress.sse-interval, the stream completes when the import ends
+                    """
+    )
+    @Parameters({
+            @Parameter(name = "correlationId", in = ParameterIn.PATH, required = true),
+    })
+    @GetMapping(path = "/import/progress/{correlationId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamProgress(@PathVariable("correlationId") final String correlationId) {
+        return importProgressPublisher.subscribe(progressOf(correlationId), this::toProgressResponse);
+    }
+
+    @Operation(method = "GET",
+            operationId = "import-books-partitions",
+            summary = "Gets the partitions of the distributed import with the assigned correlation id",
+            description = """
+                    State of every partition of the latest DISTRIBUTED execution of the import: the node holding
+                    it, its lease and attempts, and the counts of its worker step. Empty for other strategies.
+                    """
+    )
+    @Parameters({
+            @Parameter(name = "correlationId", in = ParameterIn.PATH, required = true),
+    })
+    @GetMapping(path = "/import/partitions/{correlationId}")
+    public ResponseEntity<List<ImportPartition>> getPartitions(
+            @PathVariable("correlationId") final String correlationId) {
+        return ResponseEntity.ok(importPartitionQueue.find(correlationId));
+    }
+
+    @Operation(method = "GET",
+            operationId = "import-books-rejects",
+            summary = "Downloads the rows rejected by the import with the assigned correlation id",
+            description = """
+                    CSV file with the line number, the reason and the record of every row the import skipped,
+                    appended to as the import runs and kept across restarts. Not found while nothing was rejected.
+                    """
+    )
+    @Parameters({
+            @Parameter(name = "correlationId", in = ParameterIn.PATH, required = true),
+    })
+    @GetMapping(path = "/import/rejects/{correlationId}", produces = "text/csv")
+    public ResponseEntity<Resource> getRejects(@PathVariable("correlationId") final String correlationId) {
+        var path = importRejectFiles.find(correlationId).orElseThrow(() -> new RejectFileNotFoundException(
+                "No rows rejected by import with correlation id (%s)".formatted(correlationId)));
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(path.getFileName().toString()).build().toString())
+                .contentType(MediaType.parseMediaType("text/csv"))
+                .body(new PathResource(path));
+    }
+
+    @Operation(method = "GET", operationId = "book-index", description = """
+            Gets every book in id order as a JSON array, written as the books are read from the database. Pass a
+            limit or a cursor to get one page at a time instead.
+            """)
+    @GetMapping(params = {"!cursor", "!limit"})
+    public ResponseEntity<StreamingResponseBody> index() {
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(writeBooks(true));
+    }
+
+    @Operation(method = "GET", operationId = "book-page", description = """
+            Gets a page of books in id order. When more books follow, the X-Next-Cursor response header carries
+            the cursor to pass to get the next page.
+            """)
+    @Parameters({
+            @Parameter(name = "cursor", in = ParameterIn.QUERY, description = "X-Next-Cursor of the previous page"),
+            @Parameter(name = "limit", in = ParameterIn.QUERY,
+                    description = "Page size, up to " + MAX_PAGE_SIZE + ", " + DEFAULT_PAGE_SIZE + " by default"),
+    })
+    @GetMapping
+    public ResponseEntity<List<Book>> page(@RequestParam(value = "cursor", required = false) String cursor,
+                                           @RequestParam(value = "limit", required = false) Integer limit) {
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : limit;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new InvalidRequestException("limit must be between 1 and %d".formatted(MAX_PAGE_SIZE));
+        }
+        var books = bookService.findAfter(decodeCursor(cursor), pageSize + 1);
+        if (books.size() <= pageSize) {
+            return ResponseEntity.ok(books);
+        }
+        var page = books.subList(0, pageSize);
+        return ResponseEntity.ok()
+                .header(X_NEXT_CURSOR, encodeCursor(page.get(pageSize - 1).id()))
+                .body(page);
+    }
+
+    @Operation(method = "GET", operationId = "book-by-isbn", description = """
+            Gets the book with the given ISBN
+            """)
+    @Parameters({
+            @Parameter(name = "isbn", in = ParameterIn.PATH, required = true),
+    })
+    @GetMapping(path = "/isbn/{isbn}")
+    public ResponseEntity<Book> findByIsbn(@PathVariable("isbn") final String isbn) {
+        var book = bookService.findByIsbn(isbn)
+                .orElseThrow(() -> new BookNotFoundException("Book with ISBN (%s) not found".formatted(isbn)));
+        return ResponseEntity.ok(book);
+    }
+
+    @Operation(method = "GET", operationId = "book-search", description = """
+            Searches books by title and authors. Books holding every word of the query are returned, case and accents
+            are ignored: "sanchez" finds "S\u00e1nchez".
+            """)
+    @Parameters({
+            @Parameter(name = "q", in = ParameterIn.QUERY, required = true, description = "Words to search for"),
+            @Parameter(name = "limit", in = ParameterIn.QUERY, description = "Maximum books, up to " + MAX_PAGE_SIZE),
+    })
+    @GetMapping(path = "/search")
+    public ResponseEntity<List<Book>> search(@RequestParam("q") String query,
+                                             @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new InvalidRequestException("limit must be between 1 and %d".formatted(MAX_PAGE_SIZE));
+        }
+        return ResponseEntity.ok(bookService.search(query, limit));
+    }
+
+    @Operation(method = "GET", operationId = "book-stream", description = """
+            Streams every book as newline delimited JSON, rows are written as they are read from the database
+            """)
+    @GetMapping(path = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> stream() {
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(writeBooks(false));
+    }
+
+    /**
+     * Writes every book as it is read from the database, as a JSON array or one JSON object per line.
+     */
+    private StreamingResponseBody writeBooks(boolean array) {
+        // flushed by the generator buffer filling up rather than after every row
+        var writer = objectMapper.writerFor(Book.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        return out -> {
+            try (var generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.setRootValueSeparator(null);
+                if (array) {
+                    generator.writeStartArray();
+                }
+                bookService.forEach(book -> {
+                    try {
+                        writer.writeValue(generator, book);
+                        if (!array) {
+                            generator.writeRaw('\n');
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                if (array) {
+                    generator.writeEndArray();
+                }
+            }
+        };
+    }
+
+    static String encodeCursor(long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(Long.toString(id).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    static long decodeCursor(String cursor) {
+        if (Strings.isEmpty(cursor)) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequestException("Invalid cursor: " + cursor, e);
+        }
+    }
+
+    private ImportProgress progressOf(String correlationId) {
+        return importProgressRegistry.get(correlationId).orElseThrow(() -> new JobNotFoundException(
+                "No import progress for correlation id (%s) on this node".formatted(correlationId)));
+    }
+
+    private ImportProgressResponse toProgressResponse(ImportProgress progress) {
+        var queuePosition = importAdmissionQueue.position(progress.getCorrelationId());
+        return new ImportProgressResponse(
+                progress.getCorrelationId(),
+                queuePosition.isPresent() ? ImportBookResponse.QUEUED : progress.getStatus(),
+                queuePosition.isPresent() ? queuePosition.getAsInt() : null,
+                progress.getTotalBytes() == ImportProgress.UNKNOWN ? null : progress.getTotalBytes(),
+                progress.getTotalRows() == ImportProgress.UNKNOWN ? null : progress.getTotalRows(),
+                progress.getReadCount(),
+                progress.getWriteCount(),
+                progress.getFilterCount(),
+                progress.getPercentComplete(),
+                progress.getRowsPerSecond(),
+                progress.getElapsedSeconds(),
+                progress.getEtaSeconds());
+    }
+
+    private static JobParameters skipLimitParameter(Long skipLimit) {
+        if (skipLimit == null) {
+            return new JobParameters();
+        }
+        if (skipLimit < 0) {
+            throw new InvalidRequestException("skipLimit must not be negative");
+        }
+        return new JobParametersBuilder().addLong(IMPORT_BOOKS_SKIP_LIMIT_PARAMETER, skipLimit, false)
                 .toJobParameters();
-        var jobInstance = jobExplorer.getJobInstance("importBooksJob", jobParameters);
-        var jobExecution = jobInstance == null ? null : jobExplorer.getJobExecution(jobInstance.getId());
-        if (jobExecution == null) {
-            throw new JobNotFoundException("Job with correlation id (%s) not found".formatted(correlationId));
+    }
+
+    private static void deleteTempFile(File tempFile) {
+        try {
+            Files.deleteIfExists(tempFile.toPath());
+        } catch (IOException e) {
+            log.warn("Could not delete temp file {}", tempFile.getAbsolutePath(), e);
         }
-        final var importBookResponse = new ImportBookResponse(
+    }
+
+    private static ImportBookResponse toResponse(String correlationId, JobExecution jobExecution) {
+        return new ImportBookResponse(
                 correlationId,
                 jobExecution.getJobId(),
                 jobExecution.getId(),
@@ -154,16 +577,7 @@ public class BookController {
                 jobExecution.getStartTime(),
                 jobExecution.getEndTime(),
                 jobExecution.getStatus().name(),
-                jobExecution.getExitStatus().getExitDescription());
-        return ResponseEntity.ok(importBookResponse);
-    }
-
-    @Operation(method = "GET", operationId = "book-index", description = """
-            Gets the list of books
-            """)
-    @GetMapping
-    public ResponseEntity<List<Book>> index() {
-        var books = bookService.findAll().stream().toList();
-        return ResponseEntity.ok(books);
+                jobExecution.getExitStatus().getExitDescription(),
+                null);
     }
 }
@@ -0,0 +1,172 @@
+package org.springdemo.batchweb.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.Parameters;
+import io.swagger.v3.oas.annotations.enums.ParameterIn;
+import org.apache.logging.log4j.util.Strings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springdemo.batchweb.controller.dto.ExportBookResponse;
+import org.springdemo.batchweb.exception.ExportNotReadyException;
+import org.springdemo.batchweb.exception.JobNotFoundException;
+import org.springdemo.batchweb.job.correlation.ImportCorrelationIndex;
+import org.springdemo.batchweb.job.export.BookExportFiles;
+import org.springdemo.batchweb.job.reader.Compression;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionException;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.PathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.nio.file.Path;
+import java.util.UUID;
+
+import static org.springdemo.batchweb.controller.BookController.X_CORRELATION_ID;
+import static org.springdemo.batchweb.job.ExportBooksJobConfig.EXPORT_BOOKS_COMPRESSION_PARAMETER;
+import static org.springdemo.batchweb.job.ExportBooksJobConfig.EXPORT_BOOKS_CORRELATION_ID_PARAMETER;
+import static org.springdemo.batchweb.job.ExportBooksJobConfig.EXPORT_BOOKS_FILE_PATH_PARAMETER;
+import static org.springdemo.batchweb.job.ExportBooksJobConfig.EXPORT_BOOKS_JOB_NAME;
+
+@RestController
+@RequestMapping(path = "/api/v1/books")
+public class BookExportController {
+
+    private static final Logger log = LoggerFactory.getLogger(BookExportController.class);
+
+    private final JobLauncher jobLauncher;
+
+    private final ImportCorrelationIndex correlationIndex;
+
+    private final Job job;
+
+    private final BookExportFiles bookExportFiles;
+
+    private final Compression defaultCompression;
+
+    public BookExportController(JobLauncher jobLauncher, ImportCorrelationIndex correlationIndex,
+                                @Qualifier(EXPORT_BOOKS_JOB_NAME) Job job, BookExportFiles bookExportFiles,
+                                @Value("${batchweb.export.compression:GZIP}") Compression defaultCompression) {
+        this.jobLauncher = jobLauncher;
+        this.correlationIndex = correlationIndex;
+        this.job = job;
+        this.bookExportFiles = bookExportFiles;
+        this.defaultCompression = defaultCompression;
+    }
+
+    @Operation(method = "POST",
+            operationId = "export-books",
+            summary = "Launches the export of every book to a compressed CSV file",
+            description = """
+                    Streams the books table to a CSV file the import reads back, poll /export/status with the
+                    correlation id and get the file from /export/download once the export has completed. Starting
+                    a failed export again with the same correlation id resumes it from its last committed chunk.
+                    """
+    )
+    @Parameters({
+            @Parameter(name = "compression", in = ParameterIn.QUERY, description = "NONE | GZIP | ZSTD"),
+            @Parameter(name = X_CORRELATION_ID, in = ParameterIn.HEADER),
+    })
+    @PostMapping(path = "/export/start")
+    public ResponseEntity<ExportBookResponse> exportBooks(
+            @RequestParam(value = "compression", required = false) Compression compression,
+            @RequestHeader(value = X_CORRELATION_ID, defaultValue = "") String correlationId)
+            throws JobExecutionException {
+        if (Strings.isEmpty(correlationId)) {
+            correlationId = UUID.randomUUID().toString();
+            log.info("Generated Correlation ID: {}", correlationId);
+        }
+        if (compression == null) {
+            compression = defaultCompression;
+        }
+        var jobParameters = new JobParametersBuilder()
+                .addString(EXPORT_BOOKS_CORRELATION_ID_PARAMETER, correlationId, true)
+                .addString(EXPORT_BOOKS_FILE_PATH_PARAMETER,
+                        bookExportFiles.path(correlationId, compression).toString(), true)
+                .addString(EXPORT_BOOKS_COMPRESSION_PARAMETER, compression.name(), true)
+                .toJobParameters();
+        var jobExecution = correlationIndex.register(correlationId, jobLauncher.run(job, jobParameters));
+        return ResponseEntity.accepted().header(X_CORRELATION_ID, correlationId)
+                .body(toResponse(correlationId, jobExecution));
+    }
+
+    @Operation(method = "GET",
+            operationId = "export-books-status",
+            summary = "Gets status of the export job with the assigned correlation id"
+    )
+    @Parameters({
+            @Parameter(name = "correlationId", in = ParameterIn.PATH, required = true),
+    })
+    @GetMapping(path = "/export/status/{correlationId}")
+    public ResponseEntity<ExportBookResponse> getExport(@PathVariable("correlationId") final String correlationId) {
+        return ResponseEntity.ok(toResponse(correlationId, exportOf(correlationId)));
+    }
+
+    @Operation(method = "GET",
+            operationId = "export-books-download",
+            summary = "Downloads the file of the completed export with the assigned correlation id",
+            description = """
+                    Answers 409 while the export is running or when it failed, the file is written in place and
+                    only holds every book once the export has completed.
+                    """
+    )
+    @Parameters({
+            @Parameter(name = "correlationId", in = ParameterIn.PATH, required = true),
+    })
+    @GetMapping(path = "/export/download/{correlationId}")
+    public ResponseEntity<Resource> download(@PathVariable("correlationId") final String correlationId) {
+        var jobExecution = exportOf(correlationId);
+        if (jobExecution.getStatus() != BatchStatus.COMPLETED) {
+            throw new ExportNotReadyException("Export with correlation id (%s) is %s"
+                    .formatted(correlationId, jobExecution.getStatus()));
+        }
+        var path = Path.of(jobExecution.getJobParameters().getString(EXPORT_BOOKS_FILE_PATH_PARAMETER));
+        var compression = Compression.valueOf(
+                jobExecution.getJobParameters().getString(EXPORT_BOOKS_COMPRESSION_PARAMETER));
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(path.getFileName().toString()).build().toString())
+                .contentType(MediaType.parseMediaType(switch (compression) {
+                    case NONE -> "text/csv";
+                    case GZIP -> "application/gzip";
+                    case ZSTD -> "application/zstd";
+                }))
+                .body(new PathResource(path));
+    }
+
+    private JobExecution exportOf(String correlationId) {
+        return correlationIndex.find(EXPORT_BOOKS_JOB_NAME, correlationId)
+                .orElseThrow(() -> new JobNotFoundException(
+                        "Export with correlation id (%s) not found".formatted(correlationId)));
+    }
+
+    private static ExportBookResponse toResponse(String correlationId, JobExecution jobExecution) {
+        return new ExportBookResponse(
+                correlationId,
+                jobExecution.getJobId(),
+                jobExecution.getId(),
+                jobExecution.getCreateTime(),
+                jobExecution.getStartTime(),
+                jobExecution.getEndTime(),
+                jobExecution.getStatus().name(),
+                jobExecution.getExitStatus().getExitDescription(),
+                jobExecution.getStepExecutions().stream().mapToLong(StepExecution::getWriteCount).sum());
+    }
+}
@@ -0,0 +1,144 @@
+package org.springdemo.batchweb.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.Parameters;
+import io.swagger.v3.oas.annotations.enums.ParameterIn;
+import org.apache.logging.log4j.util.Strings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springdemo.batchweb.controller.dto.BookStatsResponse;
+import org.springdemo.batchweb.controller.dto.RebuildStatsResponse;
+import org.springdemo.batchweb.exception.InvalidRequestException;
+import org.springdemo.batchweb.exception.JobNotFoundException;
+import org.springdemo.batchweb.job.correlation.ImportCorrelationIndex;
+import org.springdemo.batchweb.stats.AuthorCount;
+import org.springdemo.batchweb.stats.BookStats;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionException;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.springdemo.batchweb.controller.BookController.MAX_PAGE_SIZE;
+import static org.springdemo.batchweb.controller.BookController.X_CORRELATION_ID;
+import static org.springdemo.batchweb.job.RebuildBookStatsJobConfig.REBUILD_BOOK_STATS_CORRELATION_ID_PARAMETER;
+import static org.springdemo.batchweb.job.RebuildBookStatsJobConfig.REBUILD_BOOK_STATS_JOB_NAME;
+
+@RestController
+@RequestMapping(path = "/api/v1/books/stats")
+public class BookStatsController {
+
+    private static final Logger log = LoggerFactory.getLogger(BookStatsController.class);
+
+    private final BookStats bookStats;
+
+    private final JobLauncher jobLauncher;
+
+    private final ImportCorrelationIndex correlationIndex;
+
+    private final Job job;
+
+    public BookStatsController(BookStats bookStats, JobLauncher jobLauncher, ImportCorrelationIndex correlationIndex,
+                               @Qualifier(REBUILD_BOOK_STATS_JOB_NAME) Job job) {
+        this.bookStats = bookStats;
+        this.jobLauncher = jobLauncher;
+        this.correlationIndex = correlationIndex;
+        this.job = job;
+    }
+
+    @Operation(method = "GET", operationId = "book-stats", description = """
+            Gets the number of books, the books per year published and the authors with the most books. Counters
+            are maintained by the imports, the cost of the query does not depend on the size of the catalog.
+            """)
+    @Parameters({
+            @Parameter(name = "authors", in = ParameterIn.QUERY, description = "Top authors, up to " + MAX_PAGE_SIZE),
+    })
+    @GetMapping
+    public ResponseEntity<BookStatsResponse> stats(@RequestParam(value = "authors", defaultValue = "20") int authors) {
+        if (authors < 0 || authors > MAX_PAGE_SIZE) {
+            throw new InvalidRequestException("authors must be between 0 and %d".formatted(MAX_PAGE_SIZE));
+        }
+        return ResponseEntity.ok(new BookStatsResponse(bookStats.totalBooks(), bookStats.years(),
+                authors == 0 ? List.of() : bookStats.topAuthors(authors)));
+    }
+
+    @Operation(method = "GET", operationId = "book-stats-author", description = """
+            Gets the number of books of an author, 0 for an unknown author
+            """)
+    @Parameters({
+            @Parameter(name = "author", in = ParameterIn.PATH, required = true),
+    })
+    @GetMapping(path = "/authors/{author}")
+    public ResponseEntity<AuthorCount> author(@PathVariable("author") final String author) {
+        return ResponseEntity.ok(new AuthorCount(author, bookStats.books(author)));
+    }
+
+    @Operation(method = "POST",
+            operationId = "book-stats-rebuild",
+            summary = "Launches the recount of the statistics from the books table",
+            description = """
+                    Reconciles the counters with the books table after books were written outside the imports.
+                    Imports committing while the recount runs may be missed or counted twice, launch it while no
+                    import is running. Poll /stats/rebuild with the correlation id for its status.
+                    """
+    )
+    @Parameters({
+            @Parameter(name = X_CORRELATION_ID, in = ParameterIn.HEADER),
+    })
+    @PostMapping(path = "/rebuild")
+    public ResponseEntity<RebuildStatsResponse> rebuild(
+            @RequestHeader(value = X_CORRELATION_ID, defaultValue = "") String correlationId)
+            throws JobExecutionException {
+        if (Strings.isEmpty(correlationId)) {
+            correlationId = UUID.randomUUID().toString();
+            log.info("Generated Correlation ID: {}", correlationId);
+        }
+        var jobParameters = new JobParametersBuilder()
+                .addString(REBUILD_BOOK_STATS_CORRELATION_ID_PARAMETER, correlationId, true)
+                .toJobParameters();
+        var jobExecution = correlationIndex.register(correlationId, jobLauncher.run(job, jobParameters));
+        return ResponseEntity.accepted().header(X_CORRELATION_ID, correlationId)
+                .body(toResponse(correlationId, jobExecution));
+    }
+
+    @Operation(method = "GET",
+            operationId = "book-stats-rebuild-status",
+            summary = "Gets status of the statistics recount with the assigned correlation id"
+    )
+    @Parameters({
+            @Parameter(name = "correlationId", in = ParameterIn.PATH, required = true),
+    })
+    @GetMapping(path = "/rebuild/{correlationId}")
+    public ResponseEntity<RebuildStatsResponse> getRebuild(
+            @PathVariable("correlationId") final String correlationId) {
+        var jobExecution = correlationIndex.find(REBUILD_BOOK_STATS_JOB_NAME, correlationId)
+                .orElseThrow(() -> new JobNotFoundException(
+                        "Statistics rebuild with correlation id (%s) not found".formatted(correlationId)));
+        return ResponseEntity.ok(toResponse(correlationId, jobExecution));
+    }
+
+    private static RebuildStatsResponse toResponse(String correlationId, JobExecution jobExecution) {
+        return new RebuildStatsResponse(
+                correlationId,
+                jobExecution.getJobId(),
+                jobExecution.getId(),
+                jobExecution.getCreateTime(),
+                jobExecution.getStartTime(),
+                jobExecution.getEndTime(),
+                jobExecution.getStatus().name(),
+                jobExecution.getExitStatus().getExitDescription());
+    }
+}
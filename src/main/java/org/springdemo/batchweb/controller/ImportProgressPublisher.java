@@ -0,0 +1,69 @@
+package org.springdemo.batchweb.controller;
+
+import jakarta.annotation.PreDestroy;
+import org.springdemo.batchweb.controller.dto.ImportProgressResponse;
+import org.springdemo.batchweb.job.progress.ImportProgress;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Pushes the progress of an import to Server-Sent Events subscribers every {@code interval} until the import
+ * finishes or the client goes away. One scheduler thread serves every subscriber, each tick only reads the
+ * in-memory counters.
+ */
+@Component
+public class ImportProgressPublisher {
+
+    static final String PROGRESS_EVENT = "progress";
+
+    private final Duration interval;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("import-progress").daemon().factory());
+
+    public ImportProgressPublisher(@Value("${batchweb.import.progress.sse-interval:PT1S}") Duration interval) {
+        this.interval = interval;
+    }
+
+    public SseEmitter subscribe(ImportProgress progress, Function<ImportProgress, ImportProgressResponse> mapper) {
+        var emitter = new SseEmitter(0L);
+        // completed once scheduled, the first tick may run before scheduleAtFixedRate returns
+        var scheduled = new CompletableFuture<ScheduledFuture<?>>();
+        Runnable cancel = () -> scheduled.thenAccept(future -> future.cancel(false));
+        Runnable send = () -> {
+            try {
+                emitter.send(SseEmitter.event()
+                        .name(PROGRESS_EVENT)
+                        .data(mapper.apply(progress), MediaType.APPLICATION_JSON));
+                if (progress.isFinished()) {
+                    emitter.complete();
+                    cancel.run();
+                }
+            } catch (IOException | IllegalStateException e) {
+                // the client went away
+                cancel.run();
+            }
+        };
+        scheduled.complete(scheduler.scheduleAtFixedRate(send, 0, interval.toMillis(), TimeUnit.MILLISECONDS));
+        emitter.onCompletion(cancel);
+        emitter.onTimeout(cancel);
+        emitter.onError(e -> cancel.run());
+        return emitter;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+}
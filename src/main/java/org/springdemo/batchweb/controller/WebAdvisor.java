@@ -1,5 +1,14 @@
 package org.springdemo.batchweb.controller;
 
+import org.springdemo.batchweb.exception.BookNotFoundException;
+import org.springdemo.batchweb.exception.ExportNotReadyException;
+import org.springdemo.batchweb.exception.ImportQueueFullException;
+import org.springdemo.batchweb.exception.InvalidRequestException;
+import org.springdemo.batchweb.exception.JobNotFoundException;
+import org.springdemo.batchweb.exception.RejectFileNotFoundException;
+import org.springframework.batch.core.repository.JobExecutionAlreadyRunningException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
@@ -7,6 +16,43 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
 @RestControllerAdvice
 public class WebAdvisor {
 
+    @ExceptionHandler
+    public ResponseEntity<String> handleBookNotFound(BookNotFoundException ex) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
+    }
+
+    @ExceptionHandler
+    public ResponseEntity<String> handleJobNotFound(JobNotFoundException ex) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
+    }
+
+    @ExceptionHandler
+    public ResponseEntity<String> handleRejectFileNotFound(RejectFileNotFoundException ex) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
+    }
+
+    @ExceptionHandler
+    public ResponseEntity<String> handleExportNotReady(ExportNotReadyException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(ex.getMessage());
+    }
+
+    @ExceptionHandler
+    public ResponseEntity<String> handleJobAlreadyRunning(JobExecutionAlreadyRunningException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(ex.getMessage());
+    }
+
+    @ExceptionHandler
+    public ResponseEntity<String> handleImportQueueFull(ImportQueueFullException ex) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(Math.max(1, ex.getRetryAfter().toSeconds())))
+                .body(ex.getMessage());
+    }
+
+    @ExceptionHandler
+    public ResponseEntity<String> handleInvalidRequest(InvalidRequestException ex) {
+        return ResponseEntity.badRequest().body(ex.getMessage());
+    }
+
     @ExceptionHandler
     public ResponseEntity<String> handleException(Exception ex) {
         return ResponseEntity.internalServerError().body(ex.getMessage());
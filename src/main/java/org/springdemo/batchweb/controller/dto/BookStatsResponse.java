@@ -0,0 +1,13 @@
+package org.springdemo.batchweb.controller.dto;
+
+import org.springdemo.batchweb.stats.AuthorCount;
+import org.springdemo.batchweb.stats.YearCount;
+
+import java.util.List;
+
+public record BookStatsResponse(
+        long totalBooks,
+        List<YearCount> years,
+        List<AuthorCount> topAuthors
+        ) {
+}
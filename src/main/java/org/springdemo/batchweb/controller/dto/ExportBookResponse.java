@@ -0,0 +1,16 @@
+package org.springdemo.batchweb.controller.dto;
+
+import java.time.LocalDateTime;
+
+public record ExportBookResponse(
+        String correlationId,
+        Long jobId,
+        Long executionId,
+        LocalDateTime createTime,
+        LocalDateTime startTime,
+        LocalDateTime endTime,
+        String status,
+        String exitStatus,
+        long writeCount
+        ) {
+}
@@ -4,12 +4,28 @@ import java.time.LocalDateTime;
 
 public record ImportBookResponse(
         String correlationId,
-        long jobId,
-        long executionId,
+        Long jobId,
+        Long executionId,
         LocalDateTime createTime,
         LocalDateTime startTime,
         LocalDateTime endTime,
         String status,
-        String exitStatus
+        String exitStatus,
+        Integer queuePosition
         ) {
+
+    public static final String QUEUED = "QUEUED";
+
+    public static final String FAILED = "FAILED";
+
+    public static ImportBookResponse queued(String correlationId, int queuePosition) {
+        return new ImportBookResponse(correlationId, null, null, null, null, null, QUEUED, null, queuePosition);
+    }
+
+    /**
+     * A queued import whose launch failed, it has no job execution.
+     */
+    public static ImportBookResponse failed(String correlationId, String error) {
+        return new ImportBookResponse(correlationId, null, null, null, null, null, FAILED, error, null);
+    }
 }
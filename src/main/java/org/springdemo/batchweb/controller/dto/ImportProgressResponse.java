@@ -0,0 +1,17 @@
+package org.springdemo.batchweb.controller.dto;
+
+public record ImportProgressResponse(
+        String correlationId,
+        String status,
+        Integer queuePosition,
+        Long totalBytes,
+        Long totalRows,
+        long readCount,
+        long writeCount,
+        long filterCount,
+        Double percentComplete,
+        double rowsPerSecond,
+        long elapsedSeconds,
+        Long etaSeconds
+        ) {
+}
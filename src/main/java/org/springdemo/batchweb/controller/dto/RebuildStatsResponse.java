@@ -0,0 +1,15 @@
+package org.springdemo.batchweb.controller.dto;
+
+import java.time.LocalDateTime;
+
+public record RebuildStatsResponse(
+        String correlationId,
+        Long jobId,
+        Long executionId,
+        LocalDateTime createTime,
+        LocalDateTime startTime,
+        LocalDateTime endTime,
+        String status,
+        String exitStatus
+        ) {
+}
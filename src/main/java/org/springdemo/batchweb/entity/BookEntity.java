@@ -5,13 +5,21 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 
 import java.util.Objects;
 
 @Entity
 public class BookEntity {
+
+    /**
+     * Ids handed out per BOOK_SEQ call, must match the INCREMENT BY of the sequence in schema-all.sql.
+     */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "book_seq")
+    @SequenceGenerator(name = "book_seq", sequenceName = "BOOK_SEQ", allocationSize = ID_ALLOCATION_SIZE)
     Long id;
     @Column(nullable = false, unique = true, length = 13, updatable = false, insertable = true)
     String isbn;
@@ -21,6 +29,8 @@ public class BookEntity {
     String authors;
     @Column(nullable = true)
     Integer yearPublished;
+    @Column(nullable = true)
+    Long contentHash;
 
     public BookEntity() {
     }
@@ -73,6 +83,14 @@ public class BookEntity {
         this.yearPublished = yearPublished;
     }
 
+    public Long getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(Long contentHash) {
+        this.contentHash = contentHash;
+    }
+
     @Override
     public String toString() {
         return "BookEntity{" +
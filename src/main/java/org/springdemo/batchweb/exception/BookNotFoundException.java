@@ -0,0 +1,7 @@
+package org.springdemo.batchweb.exception;
+
+public class BookNotFoundException extends RuntimeException {
+    public BookNotFoundException(String message) {
+        super(message);
+    }
+}
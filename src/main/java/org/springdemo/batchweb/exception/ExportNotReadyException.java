@@ -0,0 +1,7 @@
+package org.springdemo.batchweb.exception;
+
+public class ExportNotReadyException extends RuntimeException {
+    public ExportNotReadyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,17 @@
+package org.springdemo.batchweb.exception;
+
+import java.time.Duration;
+
+public class ImportQueueFullException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public ImportQueueFullException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,7 @@
+package org.springdemo.batchweb.exception;
+
+public class RejectFileNotFoundException extends RuntimeException {
+    public RejectFileNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,107 @@
+package org.springdemo.batchweb.job;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springdemo.batchweb.job.export.CsvBookExportWriter;
+import org.springdemo.batchweb.job.reader.Compression;
+import org.springdemo.batchweb.model.Book;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.batch.item.database.JdbcCursorItemReader;
+import org.springframework.batch.item.database.builder.JdbcCursorItemReaderBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * Exports the whole books table to a compressed CSV file the import can read back. Books are streamed from a
+ * database cursor in id order straight to the file, memory use does not depend on the size of the table. A failed
+ * export restarts from its last committed chunk.
+ */
+@Configuration
+public class ExportBooksJobConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(ExportBooksJobConfig.class);
+
+    public static final String EXPORT_BOOKS_JOB_NAME = "exportBooksJob";
+    public static final String EXPORT_BOOKS_CORRELATION_ID_PARAMETER = "correlation-id";
+    public static final String EXPORT_BOOKS_FILE_PATH_PARAMETER = "file-path";
+    public static final String EXPORT_BOOKS_COMPRESSION_PARAMETER = "compression";
+
+    private static final String EXPORT_BOOKS_SQL =
+            "SELECT ID, ISBN, TITLE, AUTHORS, YEAR_PUBLISHED FROM BOOK_ENTITY ORDER BY ID";
+
+    @Bean(name = EXPORT_BOOKS_JOB_NAME)
+    public Job exportBooksJob(JobRepository jobRepository, Step exportBooksStep, MeterRegistry meterRegistry) {
+        return new JobBuilder(EXPORT_BOOKS_JOB_NAME, jobRepository)
+                .listener(new JobExecutionListener() {
+                    @Override
+                    public void afterJob(JobExecution jobExecution) {
+                        long written = jobExecution.getStepExecutions().stream()
+                                .mapToLong(StepExecution::getWriteCount)
+                                .sum();
+                        log.info("Export {} finished with status {}, {} books written to {}",
+                                jobExecution.getJobParameters().getString(EXPORT_BOOKS_CORRELATION_ID_PARAMETER),
+                                jobExecution.getStatus(), written,
+                                jobExecution.getJobParameters().getString(EXPORT_BOOKS_FILE_PATH_PARAMETER));
+                    }
+                })
+                .start(exportBooksStep)
+                .meterRegistry(meterRegistry)
+                .build();
+    }
+
+    @Bean
+    public Step exportBooksStep(JobRepository jobRepository, PlatformTransactionManager transactionManager,
+                                JdbcCursorItemReader<Book> exportBooksReader, CsvBookExportWriter exportBooksWriter,
+                                @Value("${batchweb.export.chunk-size:5000}") int chunkSize) {
+        return new StepBuilder("exportBooksStep", jobRepository)
+                .<Book, Book>chunk(chunkSize, transactionManager)
+                .reader(exportBooksReader)
+                .writer(exportBooksWriter)
+                .build();
+    }
+
+    /**
+     * Reads the books through a cursor of its own connection, {@code fetch-size} rows per round trip. A restart
+     * skips the rows committed by the failed execution.
+     */
+    @Bean
+    @StepScope
+    public JdbcCursorItemReader<Book> exportBooksReader(
+            DataSource dataSource,
+            @Value("#{jobParameters}") Map<String, Object> jobParameters,
+            @Value("${batchweb.export.fetch-size:1000}") int fetchSize) {
+        return new JdbcCursorItemReaderBuilder<Book>()
+                .name("exportBooksReader." + jobParameters.get(EXPORT_BOOKS_CORRELATION_ID_PARAMETER))
+                .dataSource(dataSource)
+                .sql(EXPORT_BOOKS_SQL)
+                .fetchSize(fetchSize)
+                .rowMapper((rs, rowNum) -> new Book(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4),
+                        rs.getObject(5, Integer.class)))
+                .build();
+    }
+
+    @Bean
+    @StepScope
+    public CsvBookExportWriter exportBooksWriter(@Value("#{jobParameters}") Map<String, Object> jobParameters) {
+        var writer = new CsvBookExportWriter(
+                Path.of((String) jobParameters.get(EXPORT_BOOKS_FILE_PATH_PARAMETER)),
+                Compression.valueOf((String) jobParameters.get(EXPORT_BOOKS_COMPRESSION_PARAMETER)));
+        writer.setName("exportBooksWriter." + jobParameters.get(EXPORT_BOOKS_CORRELATION_ID_PARAMETER));
+        return writer;
+    }
+}
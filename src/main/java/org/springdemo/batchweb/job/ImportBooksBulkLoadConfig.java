@@ -0,0 +1,56 @@
+package org.springdemo.batchweb.job;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import org.springdemo.batchweb.job.bulk.BulkLoadBookTasklet;
+import org.springdemo.batchweb.model.Book;
+import org.springdemo.batchweb.search.BookSearchIndexBuilder;
+import org.springdemo.batchweb.stats.BookStats;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.springdemo.batchweb.job.ImportBooksJobConfig.IMPORT_BOOKS_FILE_PATH_PARAMETER;
+
+/**
+ * {@link ImportStrategy#BULK_LOAD} variant of the import: a single tasklet step has the database load the uploaded
+ * file and merge it into the books table, see {@link BulkLoadBookTasklet}.
+ */
+@Configuration
+public class ImportBooksBulkLoadConfig {
+
+    @Bean
+    public Step importBooksBulkLoad(JobRepository jobRepository, PlatformTransactionManager transactionManager,
+                                    BulkLoadBookTasklet bulkLoadBookTasklet,
+                                    StepExecutionListener stepExecutionListener,
+                                    ObjectProvider<ChunkListener> chunkListeners) {
+        var builder = new StepBuilder("importBooksBulkLoad", jobRepository)
+                .tasklet(bulkLoadBookTasklet, transactionManager)
+                .listener(stepExecutionListener);
+        // the whole load is one chunk, progress is published once it is done
+        chunkListeners.orderedStream().forEach(builder::listener);
+        return builder.build();
+    }
+
+    @Bean
+    @StepScope
+    public BulkLoadBookTasklet bulkLoadBookTasklet(@Value("#{jobParameters}") Map<String, Object> jobParameters,
+                                                   JdbcTemplate jdbcTemplate, Cache<String, Book> bookIsbnCache,
+                                                   BookSearchIndexBuilder bookSearchIndexBuilder,
+                                                   BookStats bookStats) {
+        return new BulkLoadBookTasklet(jdbcTemplate, bookIsbnCache, bookSearchIndexBuilder, bookStats,
+                Path.of((String) jobParameters.get(IMPORT_BOOKS_FILE_PATH_PARAMETER)),
+                ImportBooksJobConfig.importModeOf(jobParameters));
+    }
+}
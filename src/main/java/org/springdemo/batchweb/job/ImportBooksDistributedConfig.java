@@ -0,0 +1,53 @@
+package org.springdemo.batchweb.job;
+
+import org.springdemo.batchweb.job.distributed.ImportPartitionQueue;
+import org.springdemo.batchweb.job.distributed.ImportPartitionWorker;
+import org.springdemo.batchweb.job.distributed.QueuedPartitionHandler;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.time.Duration;
+
+/**
+ * {@link ImportStrategy#DISTRIBUTED} variant of the import: the file is split like {@link ImportStrategy#PARTITIONED}
+ * but the partitions go to a work queue in the database, every node sharing it runs them with its
+ * {@link ImportPartitionWorker}. The node that received the import waits for the queue to drain and aggregates the
+ * counts of the partitions under the same job execution and correlation id.
+ */
+@Configuration
+public class ImportBooksDistributedConfig {
+
+    /**
+     * Schedules the claims and lease renewals of the worker, only on the nodes that run one.
+     */
+    @Configuration
+    @EnableScheduling
+    @ConditionalOnProperty(name = "batchweb.import.distributed.worker.enabled")
+    static class WorkerSchedulingConfig {
+    }
+
+    @Bean
+    public Step importBooksDistributed(JobRepository jobRepository, Partitioner bookFilePartitioner,
+                                       QueuedPartitionHandler queuedPartitionHandler) {
+        return new StepBuilder("importBooksDistributed", jobRepository)
+                .partitioner("importBooksWorker", bookFilePartitioner)
+                .partitionHandler(queuedPartitionHandler)
+                .build();
+    }
+
+    @Bean
+    public QueuedPartitionHandler queuedPartitionHandler(
+            ImportPartitionQueue importPartitionQueue, JobExplorer jobExplorer, JobRepository jobRepository,
+            @Value("${batchweb.import.distributed.poll-interval:PT1S}") Duration pollInterval,
+            @Value("${batchweb.import.distributed.grid-size:16}") int gridSize) {
+        return new QueuedPartitionHandler(importPartitionQueue, jobExplorer, jobRepository, pollInterval, gridSize);
+    }
+}
@@ -1,20 +1,47 @@
 package org.springdemo.batchweb.job;
 
+import com.github.benmanes.caffeine.cache.Cache;
 import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springdemo.batchweb.entity.BookEntity;
+import org.springdemo.batchweb.job.admission.ImportAdmissionQueue;
+import org.springdemo.batchweb.job.correlation.ImportCorrelationIndex;
+import org.springdemo.batchweb.job.listener.BookCacheEvictionListener;
+import org.springdemo.batchweb.job.listener.BookSearchIndexListener;
+import org.springdemo.batchweb.job.listener.ImportMetricsListener;
+import org.springdemo.batchweb.job.listener.ImportProgressListener;
+import org.springdemo.batchweb.job.processor.BookItemProcessor;
+import org.springdemo.batchweb.job.processor.DuplicateIsbnDetectors;
+import org.springdemo.batchweb.job.processor.KnownBookHashes;
+import org.springdemo.batchweb.job.progress.ImportProgressRegistry;
+import org.springdemo.batchweb.job.reader.BookReaderType;
+import org.springdemo.batchweb.job.reader.Compression;
+import org.springdemo.batchweb.job.reader.DecompressingPathResource;
+import org.springdemo.batchweb.job.reader.MappedBookItemReader;
+import org.springdemo.batchweb.job.reader.PrefetchingItemReader;
+import org.springdemo.batchweb.job.reject.BisectingBookItemWriter;
+import org.springdemo.batchweb.job.reject.ImportRejectFiles;
+import org.springdemo.batchweb.job.reject.ImportRejectHandler;
+import org.springdemo.batchweb.job.stream.StreamingImportRegistry;
+import org.springdemo.batchweb.job.writer.BookImportMode;
+import org.springdemo.batchweb.job.writer.BookStatsItemWriter;
+import org.springdemo.batchweb.job.writer.BookWriterMode;
+import org.springdemo.batchweb.job.writer.JdbcBookItemWriter;
+import org.springdemo.batchweb.job.writer.JdbcBookMergeItemWriter;
 import org.springdemo.batchweb.model.Book;
+import org.springdemo.batchweb.repository.BookIdAllocator;
 import org.springdemo.batchweb.repository.BookRepository;
+import org.springdemo.batchweb.search.BookSearchIndex;
+import org.springdemo.batchweb.stats.BookStats;
 import org.springframework.batch.core.*;
 import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.job.flow.JobExecutionDecider;
 import org.springframework.batch.core.repository.JobRepository;
-import org.springframework.batch.core.step.builder.StepBuilder;
-import org.springframework.batch.item.ItemProcessor;
 import org.springframework.batch.item.ItemReader;
+import org.springframework.batch.item.ItemStreamReader;
 import org.springframework.batch.item.ItemWriter;
-import org.springframework.batch.item.file.FlatFileItemReader;
 import org.springframework.batch.item.file.LineMapper;
 import org.springframework.batch.item.file.builder.FlatFileItemReaderBuilder;
 import org.springframework.batch.item.file.mapping.DefaultLineMapper;
@@ -22,15 +49,20 @@ import org.springframework.batch.item.file.mapping.FieldSetMapper;
 import org.springframework.batch.item.file.separator.DefaultRecordSeparatorPolicy;
 import org.springframework.batch.item.file.transform.DelimitedLineTokenizer;
 import org.springframework.batch.item.file.transform.LineTokenizer;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.InputStreamResource;
 import org.springframework.core.io.PathResource;
 import org.springframework.core.io.Resource;
-import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.jdbc.core.JdbcTemplate;
 
+import javax.sql.DataSource;
+import java.io.IOException;
 import java.nio.file.Path;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
 
 @Configuration
@@ -41,6 +73,11 @@ public class ImportBooksJobConfig {
     public static final String IMPORT_BOOKS_JOB_NAME = "importBooksJob";
     public static final String IMPORT_BOOKS_FILE_PATH_PARAMETER = "file-path";
     public static final String IMPORT_BOOKS_CORRELATION_ID_PARAMETER = "correlation-id";
+    public static final String IMPORT_BOOKS_STRATEGY_PARAMETER = "import-strategy";
+    public static final String IMPORT_BOOKS_MODE_PARAMETER = "import-mode";
+    public static final String IMPORT_BOOKS_SOURCE_PARAMETER = "source";
+    public static final String IMPORT_BOOKS_SOURCE_STREAM = "stream";
+    public static final String IMPORT_BOOKS_SKIP_LIMIT_PARAMETER = "skip-limit";
 
     private static final String FIELD_NAME_ISBN = "ISBN";
     private static final String FIELD_NAME_TITLE = "TITLE";
@@ -48,38 +85,91 @@ public class ImportBooksJobConfig {
     private static final String FIELD_NAME_YEAR_PUBLISHED = "YEAR_PUBLISHED";
 
     @Bean
-    public Job importBooksJob(JobRepository jobRepository, Step importBooksStart, JobExecutionListener jobListener,
+    public Job importBooksJob(JobRepository jobRepository, JobExecutionDecider importStrategyDecider,
+                              Step importBooksStart, Step importBooksPartitioned, Step importBooksBulkLoad,
+                              Step importBooksDistributed, JobExecutionListener jobListener,
                               MeterRegistry meterRegistry) {
-        return new JobBuilder("importBooks", jobRepository)
+        return new JobBuilder(IMPORT_BOOKS_JOB_NAME, jobRepository)
                 .listener(jobListener)
-                .start(importBooksStart)
+                .start(importStrategyDecider)
+                    .on(ImportStrategy.PARTITIONED.name()).to(importBooksPartitioned)
+                .from(importStrategyDecider)
+                    .on(ImportStrategy.BULK_LOAD.name()).to(importBooksBulkLoad)
+                .from(importStrategyDecider)
+                    .on(ImportStrategy.DISTRIBUTED.name()).to(importBooksDistributed)
+                .from(importStrategyDecider)
+                    .on("*").to(importBooksStart)
+                .end()
                 .meterRegistry(meterRegistry)
                 .build();
     }
 
     @Bean
-    public Step importBooksStart(JobRepository jobRepository, PlatformTransactionManager transactionManager,
-                                 StepExecutionListener listener,
-                                 ItemReader<Book> bookReader,
-                                 ItemProcessor<Book, BookEntity> bookProcessor,
-                                 ItemWriter<BookEntity> bookWriter) {
-        return new StepBuilder("importBooksStart", jobRepository)
-                .<Book, BookEntity>chunk(100, transactionManager)
-                .listener(listener)
-                .reader(bookReader)
-                .processor(bookProcessor)
-                .writer(bookWriter)
-                .build();
+    public JobExecutionDecider importStrategyDecider() {
+        return new ImportStrategyDecider();
+    }
+
+    @Bean
+    public Step importBooksStart(ImportBooksStepFactory stepFactory,
+                                 @Qualifier("importBooksStartReader") ItemReader<Book> bookReader) {
+        return stepFactory.chunkStep("importBooksStart", bookReader);
     }
 
 
     @Bean(name = "importBooksStartReader")
     @StepScope
-    public FlatFileItemReader<Book> bookReader(@Value("#{jobParameters}") Map<String, Object> jobParameters, LineMapper<Book> lineMapper) {
+    public ItemStreamReader<Book> bookReader(@Value("#{jobParameters}") Map<String, Object> jobParameters,
+                                             @Value("${batchweb.import.reader:MAPPED}") BookReaderType readerType,
+                                             @Value("${batchweb.import.pipeline.buffer-size:10000}") int bufferSize,
+                                             @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+                                             LineMapper<Book> lineMapper,
+                                             StreamingImportRegistry streamingImportRegistry)
+            throws IOException {
+        var reader = fileOrStreamReader(jobParameters, readerType, lineMapper, streamingImportRegistry);
+        var strategy = (String) jobParameters.get(IMPORT_BOOKS_STRATEGY_PARAMETER);
+        if (!ImportStrategy.PIPELINED.name().equals(strategy)) {
+            return reader;
+        }
+        String correlationId = (String) jobParameters.get(IMPORT_BOOKS_CORRELATION_ID_PARAMETER);
+        var threads = virtualThreads ? Thread.ofVirtual() : Thread.ofPlatform().daemon();
+        var prefetchingReader = new PrefetchingItemReader<>(reader, bufferSize,
+                threads.name("import-prefetch-" + correlationId).factory());
+        prefetchingReader.setName("importBooksStartReader.prefetch." + correlationId);
+        return prefetchingReader;
+    }
+
+    private static ItemStreamReader<Book> fileOrStreamReader(Map<String, Object> jobParameters,
+                                                             BookReaderType readerType,
+                                                             LineMapper<Book> lineMapper,
+                                                             StreamingImportRegistry streamingImportRegistry)
+            throws IOException {
+        String correlationId = (String) jobParameters.get(IMPORT_BOOKS_CORRELATION_ID_PARAMETER);
+        if (IMPORT_BOOKS_SOURCE_STREAM.equals(jobParameters.get(IMPORT_BOOKS_SOURCE_PARAMETER))) {
+            // The upload is consumed as it arrives, there is nothing to restart from
+            var pipe = streamingImportRegistry.get(correlationId);
+            return new FlatFileItemReaderBuilder<Book>()
+                    .name("importBooksStartReader." + correlationId)
+                    .saveState(false)
+                    .linesToSkip(1) // Skip title line
+                    .recordSeparatorPolicy(new DefaultRecordSeparatorPolicy())
+                    .resource(new InputStreamResource(Compression.decompressing(pipe.source()),
+                            "streaming import " + correlationId))
+                    .strict(true)
+                    .lineMapper(lineMapper)
+                    .build();
+        }
         String filePath = (String) jobParameters.get(IMPORT_BOOKS_FILE_PATH_PARAMETER);
         var path = Path.of(filePath);
-        Resource resource = new PathResource(path);
-        String correlationId = (String) jobParameters.get(IMPORT_BOOKS_CORRELATION_ID_PARAMETER);
+        var compression = Compression.detect(path);
+        if (readerType == BookReaderType.MAPPED && !compression.isCompressed()) {
+            var reader = new MappedBookItemReader(path, 0, -1, true);
+            reader.setName("importBooksStartReader." + correlationId);
+            return reader;
+        }
+        // Compressed files are inflated on the fly, a restart skips the records already read
+        Resource resource = compression.isCompressed()
+                ? new DecompressingPathResource(path, compression)
+                : new PathResource(path);
         return new FlatFileItemReaderBuilder<Book>()
                 .name("importBooksStartReader." + correlationId)
                 .linesToSkip(1) // Skip title line
@@ -116,22 +206,117 @@ public class ImportBooksJobConfig {
                 fieldSet.readString(FIELD_NAME_ISBN), fieldSet.readString(FIELD_NAME_TITLE),
                 fieldSet.readString(FIELD_NAME_AUTHORS), fieldSet.readInt(FIELD_NAME_YEAR_PUBLISHED));
     }
+
+    /**
+     * Maps and hashes every book and rejects the ISBNs already seen by the import, for {@link BookImportMode#DELTA}
+     * imports it also drops the unchanged ones.
+     */
     @Bean
-    public ItemProcessor<Book, BookEntity> bookProcessor(Function<Book, BookEntity> mapper) {
-        return mapper::apply;
+    @StepScope
+    public BookItemProcessor bookProcessor(@Value("#{jobParameters}") Map<String, Object> jobParameters,
+                                           @Value("#{stepExecution.jobExecutionId}") Long jobExecutionId,
+                                           Function<Book, BookEntity> mapper, KnownBookHashes knownBookHashes,
+                                           DuplicateIsbnDetectors duplicateIsbnDetectors) {
+        var duplicateIsbnDetector = duplicateIsbnDetectors.forJob(jobExecutionId);
+        if (importModeOf(jobParameters) != BookImportMode.DELTA) {
+            return new BookItemProcessor(mapper, null, duplicateIsbnDetector);
+        }
+        return new BookItemProcessor(mapper, knownBookHashes.forJob(jobExecutionId), duplicateIsbnDetector);
     }
 
     @Bean
-    public ItemWriter<BookEntity> bookWriter(BookRepository bookRepository) {
+    public ItemWriter<BookEntity> bookWriter(BookRepository bookRepository, JdbcTemplate jdbcTemplate,
+                                             BookIdAllocator bookIdAllocator,
+                                             @Value("${batchweb.import.writer.mode:JDBC_BATCH}") BookWriterMode writerMode,
+                                             @Value("${batchweb.import.writer.rows-per-statement:100}") int rowsPerStatement,
+                                             @Value("${batchweb.import.log.sample-rate:100}") int sampleRate) {
+        log.info("Import writer mode: {}", writerMode);
+        if (writerMode != BookWriterMode.JPA) {
+            return new JdbcBookItemWriter(jdbcTemplate, bookIdAllocator, writerMode, rowsPerStatement);
+        }
+        // Volumes are in ImportMetricsListener, only one chunk out of sampleRate is logged and only at debug
+        var chunks = new AtomicLong();
         return chunk -> {
-            log.info("About to save chunk of {} books: items %n{}", chunk.getItems().size(), chunk.getItems());
             var items = bookRepository.saveAll(chunk.getItems());
-            log.info("Books saved {}", items);
+            if (log.isDebugEnabled() && chunks.incrementAndGet() % sampleRate == 0 && !items.isEmpty()) {
+                log.debug("Saved chunk of {} books, first {}", items.size(), items.get(0));
+            }
+        };
+    }
+
+    /**
+     * Writer of the import steps, the {@code bookWriter} for plain inserts or a MERGE on ISBN when the job's
+     * {@link #IMPORT_BOOKS_MODE_PARAMETER} asks for an upsert. When the job may skip rows the JDBC writers are
+     * bisected to reject the books violating a constraint, JPA only reports them when the chunk is flushed. The
+     * {@link BookStats} counters are updated with the books written, in the chunk transaction.
+     */
+    @Bean(name = "importBookWriter")
+    @StepScope
+    public ItemWriter<BookEntity> importBookWriter(@Value("#{jobParameters}") Map<String, Object> jobParameters,
+                                                   @Qualifier("bookWriter") ItemWriter<BookEntity> bookWriter,
+                                                   JdbcTemplate jdbcTemplate, BookIdAllocator bookIdAllocator,
+                                                   ImportRejectHandler importRejectHandler,
+                                                   DataSource dataSource, BookStats bookStats) {
+        var mode = importModeOf(jobParameters);
+        ItemWriter<BookEntity> writer = switch (mode) {
+            case INSERT -> bookWriter;
+            case UPSERT, DELTA -> new JdbcBookMergeItemWriter(jdbcTemplate, bookIdAllocator, false);
+            case UPSERT_CHANGED -> new JdbcBookMergeItemWriter(jdbcTemplate, bookIdAllocator, true);
         };
+        if (importRejectHandler.isEnabled()
+                && (writer instanceof JdbcBookItemWriter || writer instanceof JdbcBookMergeItemWriter)) {
+            writer = new BisectingBookItemWriter(writer, importRejectHandler, dataSource);
+        }
+        return new BookStatsItemWriter(writer, bookStats, jdbcTemplate, mode != BookImportMode.INSERT);
+    }
+
+    /**
+     * Skips and rejects malformed and conflicting rows up to the job's {@link #IMPORT_BOOKS_SKIP_LIMIT_PARAMETER},
+     * {@code batchweb.import.skip.limit} when it is not given.
+     */
+    @Bean
+    @StepScope
+    public ImportRejectHandler importRejectHandler(@Value("#{jobParameters}") Map<String, Object> jobParameters,
+                                                   @Value("#{stepExecution.jobExecutionId}") Long jobExecutionId,
+                                                   @Value("${batchweb.import.skip.limit:0}") long defaultSkipLimit,
+                                                   ImportRejectFiles importRejectFiles) {
+        var skipLimit = jobParameters.get(IMPORT_BOOKS_SKIP_LIMIT_PARAMETER) instanceof Number limit
+                ? limit.longValue()
+                : defaultSkipLimit;
+        var rejectFile = importRejectFiles.forJob(jobExecutionId,
+                (String) jobParameters.get(IMPORT_BOOKS_CORRELATION_ID_PARAMETER));
+        return new ImportRejectHandler(rejectFile, skipLimit);
+    }
+
+    @Bean
+    public ItemWriteListener<BookEntity> bookCacheEvictionListener(Cache<String, Book> bookIsbnCache) {
+        return new BookCacheEvictionListener(bookIsbnCache);
+    }
+
+    @Bean
+    public ItemWriteListener<BookEntity> bookSearchIndexListener(BookSearchIndex bookSearchIndex) {
+        return new BookSearchIndexListener(bookSearchIndex);
     }
 
     @Bean
-    public JobExecutionListener jobExecutionListener(JobRepository jobRepository) {
+    public ImportMetricsListener importMetricsListener(MeterRegistry meterRegistry) {
+        return new ImportMetricsListener(meterRegistry);
+    }
+
+    @Bean
+    public ChunkListener importProgressListener(ImportProgressRegistry importProgressRegistry) {
+        return new ImportProgressListener(importProgressRegistry);
+    }
+
+    @Bean
+    public JobExecutionListener jobExecutionListener(JobRepository jobRepository,
+                                                     StreamingImportRegistry streamingImportRegistry,
+                                                     ImportAdmissionQueue importAdmissionQueue,
+                                                     KnownBookHashes knownBookHashes,
+                                                     DuplicateIsbnDetectors duplicateIsbnDetectors,
+                                                     ImportProgressRegistry importProgressRegistry,
+                                                     ImportCorrelationIndex importCorrelationIndex,
+                                                     ImportRejectFiles importRejectFiles) {
         return new JobExecutionListener() {
 
             private static final Logger log = LoggerFactory.getLogger("org.springdemo.batchweb.job.ImportBooksJobExecutionListener");
@@ -139,6 +324,10 @@ public class ImportBooksJobConfig {
             @Override
             public void beforeJob(final JobExecution jobExecution) {
                 jobRepository.updateExecutionContext(jobExecution);
+                var correlationId = jobExecution.getJobParameters().getString(IMPORT_BOOKS_CORRELATION_ID_PARAMETER);
+                // restarts launched outside the controller are indexed here
+                importCorrelationIndex.register(correlationId, jobExecution);
+                importProgressRegistry.started(correlationId);
                 log.info("Before Job: {} Starting at {}",
                         jobExecution.getJobInstance().getJobName(),
                         jobExecution.getStartTime());
@@ -147,6 +336,16 @@ public class ImportBooksJobConfig {
             @Override
             public void afterJob(final JobExecution jobExecution) {
                 jobRepository.updateExecutionContext(jobExecution);
+                var jobParameters = jobExecution.getJobParameters();
+                if (IMPORT_BOOKS_SOURCE_STREAM.equals(jobParameters.getString(IMPORT_BOOKS_SOURCE_PARAMETER))) {
+                    streamingImportRegistry.close(jobParameters.getString(IMPORT_BOOKS_CORRELATION_ID_PARAMETER));
+                }
+                knownBookHashes.release(jobExecution.getId());
+                duplicateIsbnDetectors.release(jobExecution.getId());
+                importRejectFiles.release(jobExecution.getId());
+                importProgressRegistry.finished(jobParameters.getString(IMPORT_BOOKS_CORRELATION_ID_PARAMETER),
+                        jobExecution.getStatus().name());
+                importAdmissionQueue.release(jobParameters.getString(IMPORT_BOOKS_CORRELATION_ID_PARAMETER));
                 log.info("Finishing Job: {} Ending at {} with exit status {}",
                         jobExecution.getJobInstance().getJobName(),
                         jobExecution.getStartTime(),
@@ -188,4 +387,9 @@ public class ImportBooksJobConfig {
             return new BookEntity(dto.id(), dto.isbn(), dto.title(), dto.authors(), dto.yearPublished());
         };
     }
+
+    static BookImportMode importModeOf(Map<String, Object> jobParameters) {
+        var mode = (String) jobParameters.get(IMPORT_BOOKS_MODE_PARAMETER);
+        return mode == null ? BookImportMode.INSERT : BookImportMode.valueOf(mode);
+    }
 }
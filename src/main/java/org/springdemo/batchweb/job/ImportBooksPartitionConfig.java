@@ -0,0 +1,108 @@
+package org.springdemo.batchweb.job;
+
+import org.springdemo.batchweb.job.partition.BookFilePartitioner;
+import org.springdemo.batchweb.job.partition.FileRangeResource;
+import org.springdemo.batchweb.job.reader.BookReaderType;
+import org.springdemo.batchweb.job.reader.MappedBookItemReader;
+import org.springdemo.batchweb.model.Book;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.file.LineMapper;
+import org.springframework.batch.item.file.builder.FlatFileItemReaderBuilder;
+import org.springframework.batch.item.file.separator.DefaultRecordSeparatorPolicy;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.springdemo.batchweb.job.ImportBooksJobConfig.IMPORT_BOOKS_CORRELATION_ID_PARAMETER;
+import static org.springdemo.batchweb.job.ImportBooksJobConfig.IMPORT_BOOKS_FILE_PATH_PARAMETER;
+
+/**
+ * {@link ImportStrategy#PARTITIONED} variant of the import: the uploaded file is split in line aligned byte ranges
+ * and every range is imported by its own worker step on a bounded thread pool.
+ */
+@Configuration
+public class ImportBooksPartitionConfig {
+
+    @Bean
+    public Step importBooksPartitioned(JobRepository jobRepository, Step importBooksWorker,
+                                       Partitioner bookFilePartitioner,
+                                       @Qualifier("importPartitionTaskExecutor") TaskExecutor taskExecutor,
+                                       @Value("${batchweb.import.partition.grid-size:8}") int gridSize) {
+        return new StepBuilder("importBooksPartitioned", jobRepository)
+                .partitioner("importBooksWorker", bookFilePartitioner)
+                .step(importBooksWorker)
+                .gridSize(gridSize)
+                .taskExecutor(taskExecutor)
+                .build();
+    }
+
+    @Bean
+    public Step importBooksWorker(ImportBooksStepFactory stepFactory,
+                                  @Qualifier("importBooksWorkerReader") ItemStreamReader<Book> bookReader) {
+        return stepFactory.chunkStep("importBooksWorker", bookReader);
+    }
+
+    @Bean
+    @StepScope
+    public BookFilePartitioner bookFilePartitioner(@Value("#{jobParameters}") Map<String, Object> jobParameters) {
+        String filePath = (String) jobParameters.get(IMPORT_BOOKS_FILE_PATH_PARAMETER);
+        return new BookFilePartitioner(Path.of(filePath), true);
+    }
+
+    @Bean(name = "importBooksWorkerReader")
+    @StepScope
+    public ItemStreamReader<Book> importBooksWorkerReader(
+            @Value("#{jobParameters}") Map<String, Object> jobParameters,
+            @Value("#{stepExecutionContext['" + BookFilePartitioner.START_OFFSET_KEY + "']}") long startOffset,
+            @Value("#{stepExecutionContext['" + BookFilePartitioner.END_OFFSET_KEY + "']}") long endOffset,
+            @Value("${batchweb.import.reader:MAPPED}") BookReaderType readerType,
+            LineMapper<Book> lineMapper) {
+        var path = Path.of((String) jobParameters.get(IMPORT_BOOKS_FILE_PATH_PARAMETER));
+        String correlationId = (String) jobParameters.get(IMPORT_BOOKS_CORRELATION_ID_PARAMETER);
+        if (readerType == BookReaderType.MAPPED) {
+            var reader = new MappedBookItemReader(path, startOffset, endOffset, false);
+            reader.setName("importBooksWorkerReader." + correlationId);
+            return reader;
+        }
+        return new FlatFileItemReaderBuilder<Book>()
+                .name("importBooksWorkerReader." + correlationId)
+                .recordSeparatorPolicy(new DefaultRecordSeparatorPolicy())
+                .resource(new FileRangeResource(path, startOffset, endOffset))
+                .strict(true)
+                .lineMapper(lineMapper)
+                .build();
+    }
+
+    /**
+     * Runs the worker steps, at most {@code threads} at once across all imports. Extra partitions wait in the
+     * queue of the platform thread pool, or for a permit when running on virtual threads.
+     */
+    @Bean
+    public TaskExecutor importPartitionTaskExecutor(
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+            @Value("${batchweb.import.partition.threads:8}") int threads) {
+        if (virtualThreads) {
+            var taskExecutor = new SimpleAsyncTaskExecutor("import-partition-");
+            taskExecutor.setVirtualThreads(true);
+            taskExecutor.setConcurrencyLimit(threads);
+            return taskExecutor;
+        }
+        var taskExecutor = new ThreadPoolTaskExecutor();
+        taskExecutor.setCorePoolSize(threads);
+        taskExecutor.setMaxPoolSize(threads);
+        taskExecutor.setThreadNamePrefix("import-partition-");
+        return taskExecutor;
+    }
+}
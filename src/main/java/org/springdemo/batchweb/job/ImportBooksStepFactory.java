@@ -0,0 +1,144 @@
+package org.springdemo.batchweb.job;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springdemo.batchweb.entity.BookEntity;
+import org.springdemo.batchweb.job.chunk.AdaptiveChunkCompletionPolicy;
+import org.springdemo.batchweb.job.processor.DuplicateIsbnException;
+import org.springdemo.batchweb.job.reject.ImportRejectHandler;
+import org.springdemo.batchweb.model.Book;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.ItemReadListener;
+import org.springframework.batch.core.ItemWriteListener;
+import org.springframework.batch.core.SkipListener;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.step.builder.SimpleStepBuilder;
+import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.batch.item.ItemReader;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+
+/**
+ * Builds the chunk steps of the import job, every strategy shares the same processor, writer and listeners and
+ * only differs in the reader. Every {@link ChunkListener}, {@link ItemReadListener} and {@link ItemWriteListener}
+ * bean for books is registered on each step.
+ * <p>
+ * Steps are fault tolerant, the step scoped {@link ImportRejectHandler} decides which rows are skipped and records
+ * them in the reject file of the job. Each chunk runs through the handler so the rejects are only written once
+ * the chunk commits.
+ * <p>
+ * Unless {@code batchweb.import.chunk.adaptive} is off, each step gets its own
+ * {@link AdaptiveChunkCompletionPolicy}, each execution of the step adapts its own size and their mean is published as
+ * the {@code import.chunk.size} gauge.
+ */
+@Component
+public class ImportBooksStepFactory {
+
+    static final int CHUNK_SIZE = 100;
+
+    private final JobRepository jobRepository;
+
+    private final PlatformTransactionManager transactionManager;
+
+    private final StepExecutionListener stepExecutionListener;
+
+    private final ItemProcessor<Book, BookEntity> bookProcessor;
+
+    private final ItemWriter<BookEntity> bookWriter;
+
+    private final ImportRejectHandler importRejectHandler;
+
+    private final ObjectProvider<ChunkListener> chunkListeners;
+
+    private final ObjectProvider<ItemReadListener<Book>> bookReadListeners;
+
+    private final ObjectProvider<ItemWriteListener<BookEntity>> bookWriteListeners;
+
+    private final MeterRegistry meterRegistry;
+
+    private final boolean adaptive;
+
+    private final int minChunkSize;
+
+    private final int maxChunkSize;
+
+    private final Duration targetLatency;
+
+    public ImportBooksStepFactory(JobRepository jobRepository, PlatformTransactionManager transactionManager,
+                                  StepExecutionListener stepExecutionListener,
+                                  ItemProcessor<Book, BookEntity> bookProcessor,
+                                  @Qualifier("importBookWriter") ItemWriter<BookEntity> bookWriter,
+                                  ImportRejectHandler importRejectHandler,
+                                  ObjectProvider<ChunkListener> chunkListeners,
+                                  ObjectProvider<ItemReadListener<Book>> bookReadListeners,
+                                  ObjectProvider<ItemWriteListener<BookEntity>> bookWriteListeners,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${batchweb.import.chunk.adaptive:true}") boolean adaptive,
+                                  @Value("${batchweb.import.chunk.min-size:50}") int minChunkSize,
+                                  @Value("${batchweb.import.chunk.max-size:5000}") int maxChunkSize,
+                                  @Value("${batchweb.import.chunk.target-latency:PT0.5S}") Duration targetLatency) {
+        this.jobRepository = jobRepository;
+        this.transactionManager = transactionManager;
+        this.stepExecutionListener = stepExecutionListener;
+        this.bookProcessor = bookProcessor;
+        this.bookWriter = bookWriter;
+        this.importRejectHandler = importRejectHandler;
+        this.chunkListeners = chunkListeners;
+        this.bookReadListeners = bookReadListeners;
+        this.bookWriteListeners = bookWriteListeners;
+        this.meterRegistry = meterRegistry;
+        this.adaptive = adaptive;
+        this.minChunkSize = minChunkSize;
+        this.maxChunkSize = maxChunkSize;
+        this.targetLatency = targetLatency;
+    }
+
+    public Step chunkStep(String name, ItemReader<Book> reader) {
+        var stepBuilder = new StepBuilder(name, jobRepository);
+        SimpleStepBuilder<Book, BookEntity> chunkBuilder;
+        AdaptiveChunkCompletionPolicy completionPolicy = null;
+        if (adaptive) {
+            completionPolicy = new AdaptiveChunkCompletionPolicy(CHUNK_SIZE, minChunkSize, maxChunkSize,
+                    targetLatency);
+            Gauge.builder("import.chunk.size", completionPolicy, AdaptiveChunkCompletionPolicy::getChunkSize)
+                    .description("Mean commit interval of the running executions of the import step")
+                    .tag("step", name)
+                    .register(meterRegistry);
+            chunkBuilder = stepBuilder.chunk(completionPolicy, transactionManager);
+        } else {
+            chunkBuilder = stepBuilder.chunk(CHUNK_SIZE, transactionManager);
+        }
+        // the processor records the ISBNs it has seen, a chunk scanned after a failed write reuses its results and
+        // a duplicate is skipped without rolling the chunk back
+        var builder = chunkBuilder.faultTolerant()
+                .processorNonTransactional()
+                .noRollback(DuplicateIsbnException.class)
+                .skipPolicy(importRejectHandler)
+                .listener((SkipListener<Book, BookEntity>) importRejectHandler);
+        if (completionPolicy != null) {
+            builder.listener((ChunkListener) completionPolicy);
+            builder.listener((StepExecutionListener) completionPolicy);
+        }
+        builder.listener(stepExecutionListener)
+                .reader(reader)
+                .processor(bookProcessor)
+                .writer(bookWriter);
+        chunkListeners.orderedStream().forEach(builder::listener);
+        bookReadListeners.orderedStream().forEach(builder::listener);
+        bookWriteListeners.orderedStream().forEach(builder::listener);
+        var step = builder.build();
+        var chunkTasklet = step.getTasklet();
+        step.setTasklet((contribution, chunkContext) ->
+                importRejectHandler.execute(chunkTasklet, contribution, chunkContext));
+        return step;
+    }
+}
@@ -0,0 +1,27 @@
+package org.springdemo.batchweb.job;
+
+/**
+ * Execution strategies of the import job, chosen per launch through the
+ * {@link ImportBooksJobConfig#IMPORT_BOOKS_STRATEGY_PARAMETER} job parameter.
+ */
+public enum ImportStrategy {
+    /** Single threaded chunk step reading the whole file. */
+    CHUNK,
+    /** File split in line aligned byte ranges, one worker step per range on a bounded executor. */
+    PARTITIONED,
+    /**
+     * Same step as {@link #CHUNK} with the file read ahead on a producer thread, parsing of the next chunk
+     * overlaps with the write and commit of the current one.
+     */
+    PIPELINED,
+    /**
+     * The database loads the file into a staging table and merges it into the books table with set based
+     * statements, for trusted feeds: the first bad row fails the whole load.
+     */
+    BULK_LOAD,
+    /**
+     * Same partitions as {@link #PARTITIONED} put in a work queue in the database, claimed and imported by any node
+     * sharing it. The file must be readable by every node at the same path.
+     */
+    DISTRIBUTED
+}
@@ -0,0 +1,52 @@
+package org.springdemo.batchweb.job;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springdemo.batchweb.job.reader.Compression;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.job.flow.FlowExecutionStatus;
+import org.springframework.batch.core.job.flow.JobExecutionDecider;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+
+import static org.springdemo.batchweb.job.ImportBooksJobConfig.IMPORT_BOOKS_FILE_PATH_PARAMETER;
+import static org.springdemo.batchweb.job.ImportBooksJobConfig.IMPORT_BOOKS_STRATEGY_PARAMETER;
+
+/**
+ * Routes the import job to the step matching the requested {@link ImportStrategy}, {@link ImportStrategy#CHUNK}
+ * when the parameter is missing. Compressed files can neither be split in byte ranges nor read by the database,
+ * they are always imported with {@link ImportStrategy#CHUNK}.
+ */
+public class ImportStrategyDecider implements JobExecutionDecider {
+
+    private static final Logger log = LoggerFactory.getLogger(ImportStrategyDecider.class);
+
+    @Override
+    public FlowExecutionStatus decide(JobExecution jobExecution, StepExecution stepExecution) {
+        var strategy = strategyOf(jobExecution);
+        if ((strategy == ImportStrategy.PARTITIONED || strategy == ImportStrategy.DISTRIBUTED
+                || strategy == ImportStrategy.BULK_LOAD) && isCompressed(jobExecution)) {
+            log.info("Compressed input can not be imported with {}, importing with {}", strategy,
+                    ImportStrategy.CHUNK);
+            strategy = ImportStrategy.CHUNK;
+        }
+        return new FlowExecutionStatus(strategy.name());
+    }
+
+    private static boolean isCompressed(JobExecution jobExecution) {
+        var filePath = jobExecution.getJobParameters().getString(IMPORT_BOOKS_FILE_PATH_PARAMETER);
+        try {
+            return filePath != null && Compression.detect(Path.of(filePath)).isCompressed();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read " + filePath, e);
+        }
+    }
+
+    public static ImportStrategy strategyOf(JobExecution jobExecution) {
+        var strategy = jobExecution.getJobParameters().getString(IMPORT_BOOKS_STRATEGY_PARAMETER);
+        return strategy == null ? ImportStrategy.CHUNK : ImportStrategy.valueOf(strategy);
+    }
+}
@@ -0,0 +1,44 @@
+package org.springdemo.batchweb.job;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springdemo.batchweb.stats.BookStats;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Recomputes the {@link BookStats} counters from the books table in a single transaction, to reconcile them after
+ * books were written outside the imports. The imports keep the counters up to date on their own.
+ */
+@Configuration
+public class RebuildBookStatsJobConfig {
+
+    public static final String REBUILD_BOOK_STATS_JOB_NAME = "rebuildBookStatsJob";
+    public static final String REBUILD_BOOK_STATS_CORRELATION_ID_PARAMETER = "correlation-id";
+
+    @Bean(name = REBUILD_BOOK_STATS_JOB_NAME)
+    public Job rebuildBookStatsJob(JobRepository jobRepository, Step rebuildBookStatsStep,
+                                   MeterRegistry meterRegistry) {
+        return new JobBuilder(REBUILD_BOOK_STATS_JOB_NAME, jobRepository)
+                .start(rebuildBookStatsStep)
+                .meterRegistry(meterRegistry)
+                .build();
+    }
+
+    @Bean
+    public Step rebuildBookStatsStep(JobRepository jobRepository, PlatformTransactionManager transactionManager,
+                                     BookStats bookStats) {
+        return new StepBuilder("rebuildBookStatsStep", jobRepository)
+                .tasklet((contribution, chunkContext) -> {
+                    bookStats.rebuild();
+                    return RepeatStatus.FINISHED;
+                }, transactionManager)
+                .build();
+    }
+}
@@ -0,0 +1,263 @@
+package org.springdemo.batchweb.job.admission;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springdemo.batchweb.exception.ImportQueueFullException;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionException;
+import org.springframework.batch.core.repository.JobExecutionAlreadyRunningException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Admission control in front of the import job launcher: at most {@code maxRunning} imports run at once, up to
+ * {@code capacity} more wait in a FIFO queue and anything beyond that is rejected with
+ * {@link ImportQueueFullException} so the client backs off.
+ * <p>
+ * A slot is released when the job listener reports the import finished, the next queued import is then launched
+ * from a dispatcher thread, never from the finishing job's own thread. A queued import that fails to launch there is
+ * handed to its failure callback and its error kept for {@code failureRetention}, see {@link #launchFailure}.
+ * <p>
+ * Imports share the job launcher with exports and stats rebuilds, {@code maxRunning} must stay below its
+ * {@code batchweb.jobs.concurrency-limit} so those still find a slot while every import slot is taken. Otherwise
+ * an admitted import would wait for the launcher in the request or dispatcher thread.
+ */
+@Component
+public class ImportAdmissionQueue {
+
+    private static final Logger log = LoggerFactory.getLogger(ImportAdmissionQueue.class);
+
+    @FunctionalInterface
+    public interface Launch {
+        JobExecution launch() throws JobExecutionException;
+    }
+
+    /**
+     * Outcome of a submission: the execution when the import was launched right away, its 1-based position in the
+     * queue otherwise.
+     */
+    public record Admission(JobExecution jobExecution, int queuePosition) {
+        public boolean isQueued() {
+            return jobExecution == null;
+        }
+    }
+
+    private record Pending(String correlationId, Launch launch, Consumer<Exception> onLaunchFailure,
+                           long enqueuedNanos) {
+    }
+
+    private final int maxRunning;
+
+    private final int capacity;
+
+    private final Duration retryAfter;
+
+    private final Deque<Pending> pending = new ArrayDeque<>();
+
+    private final Set<String> running = new HashSet<>();
+
+    private final Cache<String, String> launchFailures;
+
+    private final ExecutorService dispatcher = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("import-admission").daemon().factory());
+
+    private final Timer waitTimer;
+
+    private final Counter rejected;
+
+    public ImportAdmissionQueue(MeterRegistry meterRegistry,
+                                @Value("${batchweb.jobs.concurrency-limit:8}") int concurrencyLimit,
+                                @Value("${batchweb.import.admission.max-running:6}") int maxRunning,
+                                @Value("${batchweb.import.admission.queue-capacity:100}") int capacity,
+                                @Value("${batchweb.import.admission.retry-after:PT10S}") Duration retryAfter,
+                                @Value("${batchweb.import.admission.failure-retention:PT1H}")
+                                Duration failureRetention) {
+        Assert.isTrue(maxRunning > 0 && maxRunning < concurrencyLimit,
+                () -> ("batchweb.import.admission.max-running (%d) must be positive and below "
+                        + "batchweb.jobs.concurrency-limit (%d)").formatted(maxRunning, concurrencyLimit));
+        this.maxRunning = maxRunning;
+        this.capacity = capacity;
+        this.retryAfter = retryAfter;
+        this.launchFailures = Caffeine.newBuilder()
+                .expireAfterWrite(failureRetention)
+                .build();
+        Gauge.builder("import.admission.queue.depth", this, ImportAdmissionQueue::queueDepth)
+                .description("Imports waiting for a slot")
+                .register(meterRegistry);
+        Gauge.builder("import.admission.running", this, ImportAdmissionQueue::runningCount)
+                .description("Imports holding a slot")
+                .register(meterRegistry);
+        this.waitTimer = Timer.builder("import.admission.wait")
+                .description("Time imports spent queued before being launched")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("import.admission.rejected")
+                .description("Imports rejected because the queue was full")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Fails fast when a submission would be rejected, lets callers refuse an upload before staging it.
+     */
+    public synchronized void checkCapacity(String correlationId) throws JobExecutionAlreadyRunningException {
+        checkNotRunning(correlationId);
+        if (running.size() >= maxRunning && pending.size() >= capacity) {
+            throw reject();
+        }
+    }
+
+    /**
+     * Launches the import when a slot is free, queues it otherwise. A launch that fails right away is thrown to the
+     * caller, {@code onLaunchFailure} is only called when the queued import later fails to launch.
+     *
+     * @throws JobExecutionAlreadyRunningException when an import with the same correlation id holds a slot
+     */
+    public Admission submit(String correlationId, Launch launch, Consumer<Exception> onLaunchFailure)
+            throws JobExecutionException {
+        synchronized (this) {
+            var position = position(correlationId);
+            if (position.isPresent()) {
+                return new Admission(null, position.getAsInt());
+            }
+            checkNotRunning(correlationId);
+            if (running.size() >= maxRunning) {
+                if (pending.size() >= capacity) {
+                    throw reject();
+                }
+                pending.addLast(new Pending(correlationId, launch, onLaunchFailure, System.nanoTime()));
+                log.info("Import {} queued at position {}", correlationId, pending.size());
+                return new Admission(null, pending.size());
+            }
+            running.add(correlationId);
+        }
+        launchFailures.invalidate(correlationId);
+        return new Admission(launchHoldingSlot(correlationId, launch), 0);
+    }
+
+    /**
+     * Launches the import only if a slot is free right now, for sources that can not wait in the queue.
+     */
+    public JobExecution launchNow(String correlationId, Launch launch) throws JobExecutionException {
+        synchronized (this) {
+            checkNotRunning(correlationId);
+            if (running.size() >= maxRunning || !pending.isEmpty()) {
+                throw reject();
+            }
+            running.add(correlationId);
+        }
+        launchFailures.invalidate(correlationId);
+        return launchHoldingSlot(correlationId, launch);
+    }
+
+    /**
+     * Frees the slot of a finished import and launches the next queued one.
+     */
+    public void release(String correlationId) {
+        synchronized (this) {
+            if (!running.remove(correlationId)) {
+                return;
+            }
+        }
+        dispatcher.execute(this::launchNext);
+    }
+
+    public synchronized OptionalInt position(String correlationId) {
+        int position = 1;
+        for (var queued : pending) {
+            if (queued.correlationId().equals(correlationId)) {
+                return OptionalInt.of(position);
+            }
+            position++;
+        }
+        return OptionalInt.empty();
+    }
+
+    /**
+     * The error of a queued import that could not be launched, kept for {@code failureRetention}.
+     */
+    public Optional<String> launchFailure(String correlationId) {
+        return Optional.ofNullable(launchFailures.getIfPresent(correlationId));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+    }
+
+    private void launchNext() {
+        Pending next;
+        synchronized (this) {
+            if (running.size() >= maxRunning || pending.isEmpty()) {
+                return;
+            }
+            next = pending.removeFirst();
+            running.add(next.correlationId());
+        }
+        waitTimer.record(Duration.ofNanos(System.nanoTime() - next.enqueuedNanos()));
+        launchFailures.invalidate(next.correlationId());
+        try {
+            launchHoldingSlot(next.correlationId(), next.launch());
+            log.info("Queued import {} launched", next.correlationId());
+        } catch (Exception e) {
+            log.error("Queued import {} could not be launched", next.correlationId(), e);
+            launchFailures.put(next.correlationId(), String.valueOf(e.getMessage()));
+            try {
+                next.onLaunchFailure().accept(e);
+            } catch (RuntimeException callbackFailure) {
+                log.warn("Clean up of queued import {} failed", next.correlationId(), callbackFailure);
+            }
+        }
+    }
+
+    /**
+     * A second launch with the same correlation id would fail in the job launcher, and release the slot of the
+     * running import on its way out.
+     */
+    private void checkNotRunning(String correlationId) throws JobExecutionAlreadyRunningException {
+        if (running.contains(correlationId)) {
+            throw new JobExecutionAlreadyRunningException(
+                    "Import with correlation id (%s) is already running".formatted(correlationId));
+        }
+    }
+
+    private JobExecution launchHoldingSlot(String correlationId, Launch launch) throws JobExecutionException {
+        try {
+            return launch.launch();
+        } catch (JobExecutionException | RuntimeException e) {
+            release(correlationId);
+            throw e;
+        }
+    }
+
+    private ImportQueueFullException reject() {
+        rejected.increment();
+        return new ImportQueueFullException(
+                "Import queue is full (%d running, %d queued)".formatted(maxRunning, capacity), retryAfter);
+    }
+
+    private synchronized int queueDepth() {
+        return pending.size();
+    }
+
+    private synchronized int runningCount() {
+        return running.size();
+    }
+}
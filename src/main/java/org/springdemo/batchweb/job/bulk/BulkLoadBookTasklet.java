@@ -0,0 +1,204 @@
+package org.springdemo.batchweb.job.bulk;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springdemo.batchweb.entity.BookEntity;
+import org.springdemo.batchweb.job.writer.BookImportMode;
+import org.springdemo.batchweb.model.Book;
+import org.springdemo.batchweb.search.BookSearchIndexBuilder;
+import org.springdemo.batchweb.stats.BookStats;
+import org.springdemo.batchweb.stats.BookStatsDelta;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.item.file.FlatFileFormatException;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Imports a whole CSV file with set based statements run by the database, no book is mapped in the JVM. The
+ * header is checked first, then H2 {@code CSVREAD} loads the file into BOOK_IMPORT_STAGING and a single INSERT or
+ * MERGE moves the staged rows into BOOK_ENTITY, all in the transaction of the step. The staged rows are deleted
+ * before it commits.
+ * <p>
+ * Ids are taken from BOOK_SEQ like {@link org.springdemo.batchweb.repository.BookIdAllocator} does, one sequence
+ * value per {@link BookEntity#ID_ALLOCATION_SIZE} staged rows stored in BOOK_IMPORT_ID_BLOCK. Content hashes are
+ * computed in Java only, loaded books are stored without one and the next {@link BookImportMode#DELTA} import
+ * rewrites them. The loaded books never reach the JVM, so after the commit the search index is refreshed from the
+ * whole table, books whose text did not change are skipped without being tokenized. The {@link BookStats} counters
+ * are updated in the load transaction from the year and authors of the staged ISBNs, read before and after the
+ * merge.
+ * <p>
+ * Meant for trusted feeds: a malformed line, a bad year or a duplicate ISBN fails the whole load and nothing is
+ * imported.
+ */
+public class BulkLoadBookTasklet implements Tasklet {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkLoadBookTasklet.class);
+
+    static final List<String> HEADER = List.of("ISBN", "TITLE", "AUTHORS", "YEAR PUBLISHED");
+
+    private static final int BLOCK_SIZE = BookEntity.ID_ALLOCATION_SIZE;
+
+    static final String STAGE_SQL = """
+            INSERT INTO BOOK_IMPORT_STAGING (JOB_EXECUTION_ID, ROW_NO, ISBN, TITLE, AUTHORS, YEAR_PUBLISHED)
+            SELECT ?, ROWNUM() - 1, TRIM(ISBN), TRIM(TITLE), TRIM(AUTHORS),
+                   CAST(NULLIF(TRIM("YEAR PUBLISHED"), '') AS INTEGER)
+            FROM CSVREAD(?, NULL, 'charset=UTF-8 fieldSeparator=,')
+            """;
+
+    static final String ID_BLOCKS_SQL = """
+            INSERT INTO BOOK_IMPORT_ID_BLOCK (JOB_EXECUTION_ID, FIRST_ROW_NO, HI)
+            SELECT ?, (X - 1) * %d, NEXT VALUE FOR BOOK_SEQ FROM SYSTEM_RANGE(1, ?)
+            """.formatted(BLOCK_SIZE);
+
+    private static final String SOURCE = """
+            SELECT B.HI - %d + MOD(S.ROW_NO, %d) AS ID, S.ISBN, S.TITLE, S.AUTHORS, S.YEAR_PUBLISHED
+            FROM BOOK_IMPORT_STAGING S
+            JOIN BOOK_IMPORT_ID_BLOCK B
+              ON B.JOB_EXECUTION_ID = S.JOB_EXECUTION_ID AND B.FIRST_ROW_NO = S.ROW_NO - MOD(S.ROW_NO, %d)
+            WHERE S.JOB_EXECUTION_ID = ?
+            """.formatted(BLOCK_SIZE - 1, BLOCK_SIZE, BLOCK_SIZE);
+
+    static final String INSERT_SQL = """
+            INSERT INTO BOOK_ENTITY (ID, ISBN, TITLE, AUTHORS, YEAR_PUBLISHED)
+            """ + SOURCE;
+
+    private static final String MERGE_PREFIX = """
+            MERGE INTO BOOK_ENTITY T
+            USING (%s) S
+            ON T.ISBN = S.ISBN
+            WHEN MATCHED
+            """.formatted(SOURCE);
+
+    // the staged rows have no content hash to compare, only the columns
+    private static final String CHANGED_CONDITION = """
+            AND (T.TITLE IS DISTINCT FROM S.TITLE
+                OR T.AUTHORS IS DISTINCT FROM S.AUTHORS
+                OR T.YEAR_PUBLISHED IS DISTINCT FROM S.YEAR_PUBLISHED)
+            """;
+
+    private static final String MERGE_ACTIONS = """
+            THEN UPDATE SET TITLE = S.TITLE, AUTHORS = S.AUTHORS, YEAR_PUBLISHED = S.YEAR_PUBLISHED,
+                CONTENT_HASH = NULL
+            WHEN NOT MATCHED THEN INSERT (ID, ISBN, TITLE, AUTHORS, YEAR_PUBLISHED)
+                VALUES (S.ID, S.ISBN, S.TITLE, S.AUTHORS, S.YEAR_PUBLISHED)
+            """;
+
+    static final String UPSERT_SQL = MERGE_PREFIX + MERGE_ACTIONS;
+
+    static final String UPSERT_CHANGED_SQL = MERGE_PREFIX + CHANGED_CONDITION + MERGE_ACTIONS;
+
+    static final String STAGED_BOOKS_SQL = """
+            SELECT AUTHORS, YEAR_PUBLISHED FROM BOOK_ENTITY
+            WHERE ISBN IN (SELECT ISBN FROM BOOK_IMPORT_STAGING WHERE JOB_EXECUTION_ID = ?)
+            """;
+
+    private static final String DELETE_STAGING_SQL = "DELETE FROM BOOK_IMPORT_STAGING WHERE JOB_EXECUTION_ID = ?";
+    private static final String DELETE_ID_BLOCKS_SQL = "DELETE FROM BOOK_IMPORT_ID_BLOCK WHERE JOB_EXECUTION_ID = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Cache<String, Book> bookIsbnCache;
+
+    private final BookSearchIndexBuilder bookSearchIndexBuilder;
+
+    private final BookStats bookStats;
+
+    private final Path path;
+
+    private final BookImportMode mode;
+
+    public BulkLoadBookTasklet(JdbcTemplate jdbcTemplate, Cache<String, Book> bookIsbnCache,
+                               BookSearchIndexBuilder bookSearchIndexBuilder, BookStats bookStats, Path path,
+                               BookImportMode mode) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.bookIsbnCache = bookIsbnCache;
+        this.bookSearchIndexBuilder = bookSearchIndexBuilder;
+        this.bookStats = bookStats;
+        this.path = path;
+        this.mode = mode;
+    }
+
+    @Override
+    public RepeatStatus execute(StepContribution contribution, ChunkContext chunkContext) throws IOException {
+        validateHeader(path);
+        var stepExecution = chunkContext.getStepContext().getStepExecution();
+        long jobExecutionId = stepExecution.getJobExecutionId();
+        long started = System.nanoTime();
+        int staged = jdbcTemplate.update(STAGE_SQL, jobExecutionId, path.toAbsolutePath().toString());
+        jdbcTemplate.update(ID_BLOCKS_SQL, jobExecutionId, (staged + BLOCK_SIZE - 1) / BLOCK_SIZE);
+        var statsDelta = new BookStatsDelta();
+        if (mode != BookImportMode.INSERT) {
+            jdbcTemplate.query(STAGED_BOOKS_SQL, (RowCallbackHandler) rs ->
+                    statsDelta.remove(rs.getString(1), rs.getObject(2, Integer.class)), jobExecutionId);
+        }
+        int written = jdbcTemplate.update(switch (mode) {
+            case INSERT -> INSERT_SQL;
+            case UPSERT -> UPSERT_SQL;
+            // without hashes to compare, skipping unchanged books is what UPSERT_CHANGED does
+            case UPSERT_CHANGED, DELTA -> UPSERT_CHANGED_SQL;
+        }, jobExecutionId);
+        jdbcTemplate.query(STAGED_BOOKS_SQL, (RowCallbackHandler) rs ->
+                statsDelta.add(rs.getString(1), rs.getObject(2, Integer.class)), jobExecutionId);
+        bookStats.apply(statsDelta);
+        jdbcTemplate.update(DELETE_STAGING_SQL, jobExecutionId);
+        jdbcTemplate.update(DELETE_ID_BLOCKS_SQL, jobExecutionId);
+        stepExecution.setReadCount(staged);
+        contribution.incrementWriteCount(written);
+        contribution.incrementFilterCount(staged - written);
+        log.info("Bulk loaded {} books, {} written in {} ms", staged, written,
+                (System.nanoTime() - started) / 1_000_000);
+        afterCommit();
+        return RepeatStatus.FINISHED;
+    }
+
+    /**
+     * Fails unless the first line holds the four expected columns, CSVREAD names the staged columns after it.
+     * Quotes and case are ignored, a byte order mark is not.
+     */
+    static void validateHeader(Path path) throws IOException {
+        String header;
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            header = reader.readLine();
+        }
+        if (header == null) {
+            throw new FlatFileFormatException("Empty file " + path, "");
+        }
+        var columns = Arrays.stream(header.split(",", -1))
+                .map(column -> column.strip().replace("\"", "").toUpperCase(Locale.ROOT))
+                .toList();
+        if (!HEADER.equals(columns)) {
+            throw new FlatFileFormatException("Expected header %s but found %s"
+                    .formatted(String.join(",", HEADER), header), header);
+        }
+    }
+
+    private void afterCommit() {
+        bookIsbnCache.invalidateAll();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            bookSearchIndexBuilder.build();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                bookIsbnCache.invalidateAll();
+                bookSearchIndexBuilder.build();
+            }
+        });
+    }
+}
@@ -0,0 +1,168 @@
+package org.springdemo.batchweb.job.chunk;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.batch.repeat.RepeatContext;
+import org.springframework.batch.repeat.context.RepeatContextSupport;
+import org.springframework.batch.repeat.policy.CompletionPolicySupport;
+import org.springframework.util.Assert;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Commit interval that follows the measured chunk latency instead of a fixed item count. After every committed
+ * chunk the time per item (read, process, write and commit) is folded into a moving average and the size moves
+ * towards the one that would take {@code targetLatency}, by at most a factor of two per chunk. A rolled back chunk
+ * halves the size. The size always stays within {@code [minSize, maxSize]}.
+ * <p>
+ * Register it as the step's completion policy, as a chunk listener and as a step execution listener. The step is a
+ * singleton run by every import and every partition, so each step execution adapts its own size, starting from
+ * {@code initialSize}, and forgets it when it ends.
+ */
+public class AdaptiveChunkCompletionPolicy extends CompletionPolicySupport
+        implements ChunkListener, StepExecutionListener {
+
+    private static final Logger log = LoggerFactory.getLogger(AdaptiveChunkCompletionPolicy.class);
+
+    private static final String STARTED_AT_KEY = AdaptiveChunkCompletionPolicy.class.getName() + ".startedAt";
+    private static final String READ_COUNT_KEY = AdaptiveChunkCompletionPolicy.class.getName() + ".readCount";
+    private static final double SMOOTHING = 0.3;
+
+    private final int initialSize;
+
+    private final int minSize;
+
+    private final int maxSize;
+
+    private final long targetNanos;
+
+    // adapted size by step execution id
+    private final Map<Long, Size> sizes = new ConcurrentHashMap<>();
+
+    public AdaptiveChunkCompletionPolicy(int initialSize, int minSize, int maxSize, Duration targetLatency) {
+        Assert.isTrue(minSize > 0 && minSize <= maxSize, "minSize must be positive and not above maxSize");
+        Assert.isTrue(!targetLatency.isNegative() && !targetLatency.isZero(), "targetLatency must be positive");
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.targetNanos = targetLatency.toNanos();
+        this.initialSize = clamp(initialSize);
+    }
+
+    /**
+     * Mean size of the running step executions, 0 when none is running.
+     */
+    public double getChunkSize() {
+        return sizes.values().stream().mapToInt(size -> size.chunkSize).average().orElse(0);
+    }
+
+    int getChunkSize(StepExecution stepExecution) {
+        var size = sizes.get(stepExecution.getId());
+        return size == null ? initialSize : size.chunkSize;
+    }
+
+    @Override
+    public void beforeStep(StepExecution stepExecution) {
+        sizes.put(stepExecution.getId(), new Size(initialSize));
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        sizes.remove(stepExecution.getId());
+        return null;
+    }
+
+    @Override
+    public RepeatContext start(RepeatContext parent) {
+        var stepContext = StepSynchronizationManager.getContext();
+        return new SizedContext(parent,
+                stepContext == null ? initialSize : sizeOf(stepContext.getStepExecution()).chunkSize);
+    }
+
+    @Override
+    public boolean isComplete(RepeatContext context) {
+        return context.getStartedCount() >= ((SizedContext) context).size;
+    }
+
+    @Override
+    public void beforeChunk(ChunkContext context) {
+        context.setAttribute(STARTED_AT_KEY, System.nanoTime());
+        context.setAttribute(READ_COUNT_KEY, context.getStepContext().getStepExecution().getReadCount());
+    }
+
+    @Override
+    public void afterChunk(ChunkContext context) {
+        if (!(context.getAttribute(STARTED_AT_KEY) instanceof Long startedAt)
+                || !(context.getAttribute(READ_COUNT_KEY) instanceof Long readCountBefore)) {
+            return;
+        }
+        var stepExecution = context.getStepContext().getStepExecution();
+        long items = stepExecution.getReadCount() - readCountBefore;
+        if (items > 0) {
+            adapt(sizeOf(stepExecution), System.nanoTime() - startedAt, items);
+        }
+    }
+
+    @Override
+    public void afterChunkError(ChunkContext context) {
+        var size = sizeOf(context.getStepContext().getStepExecution());
+        synchronized (size) {
+            int previous = size.chunkSize;
+            size.chunkSize = clamp(previous / 2);
+            log.debug("Chunk rolled back, chunk size {} -> {}", previous, size.chunkSize);
+        }
+    }
+
+    private Size sizeOf(StepExecution stepExecution) {
+        // a step execution run without this listener starts from the initial size too
+        return sizes.computeIfAbsent(stepExecution.getId(), id -> new Size(initialSize));
+    }
+
+    private void adapt(Size size, long elapsedNanos, long items) {
+        synchronized (size) {
+            double sample = (double) elapsedNanos / items;
+            size.nanosPerItem = size.nanosPerItem == 0
+                    ? sample
+                    : SMOOTHING * sample + (1 - SMOOTHING) * size.nanosPerItem;
+            int previous = size.chunkSize;
+            double wanted = targetNanos / size.nanosPerItem;
+            size.chunkSize = clamp((int) Math.max(previous / 2.0, Math.min(previous * 2.0, wanted)));
+            if (size.chunkSize != previous) {
+                log.debug("Chunk of {} items took {} ms, chunk size {} -> {}", items, elapsedNanos / 1_000_000,
+                        previous, size.chunkSize);
+            }
+        }
+    }
+
+    private int clamp(int size) {
+        return Math.max(minSize, Math.min(maxSize, size));
+    }
+
+    private static class Size {
+
+        private volatile int chunkSize;
+
+        private double nanosPerItem;
+
+        Size(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+    }
+
+    private static class SizedContext extends RepeatContextSupport {
+
+        private final int size;
+
+        SizedContext(RepeatContext parent, int size) {
+            super(parent);
+            this.size = size;
+        }
+    }
+}
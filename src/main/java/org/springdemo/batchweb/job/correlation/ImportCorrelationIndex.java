@@ -0,0 +1,85 @@
+package org.springdemo.batchweb.job.correlation;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+import static org.springdemo.batchweb.config.CacheConfig.IMPORT_CORRELATION_CACHE_NAME;
+
+/**
+ * Correlation id to job execution index backing the import, export and stats rebuild status endpoints.
+ * <p>
+ * Every launch records its latest execution id in IMPORT_CORRELATION, keyed by job name and correlation id, so an
+ * export does not shadow the import that was given the same correlation id. Executions launched
+ * on this node are also kept in a cache as the live {@link JobExecution} the job updates in place, so polling their
+ * status reads memory only. On a miss the execution id is looked up by primary key and the execution loaded
+ * through the {@link JobExplorer}, finished executions are cached as they no longer change.
+ */
+@Component
+public class ImportCorrelationIndex {
+
+    private static final String REGISTER_SQL = """
+            MERGE INTO IMPORT_CORRELATION (JOB_NAME, CORRELATION_ID, JOB_INSTANCE_ID, JOB_EXECUTION_ID, CREATE_TIME)
+            KEY (JOB_NAME, CORRELATION_ID) VALUES (?, ?, ?, ?, CURRENT_TIMESTAMP)
+            """;
+    private static final String FIND_SQL =
+            "SELECT JOB_EXECUTION_ID FROM IMPORT_CORRELATION WHERE JOB_NAME = ? AND CORRELATION_ID = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final JobExplorer jobExplorer;
+
+    private final Cache<String, JobExecution> executions;
+
+    public ImportCorrelationIndex(JdbcTemplate jdbcTemplate, JobExplorer jobExplorer,
+                                  @Qualifier(IMPORT_CORRELATION_CACHE_NAME) Cache<String, JobExecution> executions) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.jobExplorer = jobExplorer;
+        this.executions = executions;
+    }
+
+    /**
+     * Records the execution as the latest one of its job and correlation id, a restart replaces the previous
+     * execution.
+     */
+    public JobExecution register(String correlationId, JobExecution jobExecution) {
+        var jobName = jobExecution.getJobInstance().getJobName();
+        var key = key(jobName, correlationId);
+        if (executions.getIfPresent(key) == jobExecution) {
+            return jobExecution;
+        }
+        jdbcTemplate.update(REGISTER_SQL, jobName, correlationId, jobExecution.getJobId(), jobExecution.getId());
+        executions.put(key, jobExecution);
+        return jobExecution;
+    }
+
+    public Optional<JobExecution> find(String jobName, String correlationId) {
+        var key = key(jobName, correlationId);
+        var cached = executions.getIfPresent(key);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Long executionId;
+        try {
+            executionId = jdbcTemplate.queryForObject(FIND_SQL, Long.class, jobName, correlationId);
+        } catch (EmptyResultDataAccessException e) {
+            return Optional.empty();
+        }
+        var jobExecution = executionId == null ? null : jobExplorer.getJobExecution(executionId);
+        if (jobExecution != null && !jobExecution.isRunning()) {
+            executions.put(key, jobExecution);
+        }
+        return Optional.ofNullable(jobExecution);
+    }
+
+    private static String key(String jobName, String correlationId) {
+        // job names have no slash, the first one ends the name whatever the correlation id holds
+        return jobName + '/' + correlationId;
+    }
+}
@@ -0,0 +1,20 @@
+package org.springdemo.batchweb.job.distributed;
+
+import java.time.LocalDateTime;
+
+/**
+ * A partition of a {@link org.springdemo.batchweb.job.ImportStrategy#DISTRIBUTED} import as recorded in the
+ * queue, with the counts of its worker step execution.
+ */
+public record ImportPartition(
+        long stepExecutionId,
+        String stepName,
+        ImportPartitionStatus status,
+        String owner,
+        LocalDateTime leaseExpires,
+        int attempts,
+        long readCount,
+        long writeCount,
+        long skipCount
+) {
+}
@@ -0,0 +1,162 @@
+package org.springdemo.batchweb.job.distributed;
+
+import org.springframework.batch.core.StepExecution;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Work queue of the partitions of {@link org.springdemo.batchweb.job.ImportStrategy#DISTRIBUTED} imports, kept in
+ * the IMPORT_PARTITION_QUEUE table so every node sharing the database can take part.
+ * <p>
+ * A node claims a partition with a conditional update and holds it for the length of a lease, which it renews while
+ * the partition is imported. A partition whose lease expires is claimed again by any node, up to
+ * {@code maxAttempts} claims, the worker step resumes from the reader position saved by the last committed chunk.
+ * Lease times are taken from the database clock so the nodes do not need synchronized clocks.
+ */
+@Component
+public class ImportPartitionQueue {
+
+    private static final String ENQUEUE_SQL = """
+            INSERT INTO IMPORT_PARTITION_QUEUE
+                (STEP_EXECUTION_ID, JOB_EXECUTION_ID, CORRELATION_ID, STEP_NAME, STATUS, ATTEMPTS, CREATE_TIME)
+            VALUES (?, ?, ?, ?, 'QUEUED', 0, LOCALTIMESTAMP)
+            """;
+
+    private static final String EXPIRE_SQL = """
+            UPDATE IMPORT_PARTITION_QUEUE SET STATUS = 'FAILED', OWNER = NULL, LAST_UPDATED = LOCALTIMESTAMP
+            WHERE STATUS = 'CLAIMED' AND LEASE_EXPIRES < LOCALTIMESTAMP AND ATTEMPTS >= ?
+            """;
+
+    private static final String CLAIMABLE = """
+            (STATUS = 'QUEUED' OR (STATUS = 'CLAIMED' AND LEASE_EXPIRES < LOCALTIMESTAMP))
+            """;
+
+    private static final String CANDIDATES_SQL = """
+            SELECT STEP_EXECUTION_ID FROM IMPORT_PARTITION_QUEUE WHERE %s
+            ORDER BY JOB_EXECUTION_ID, STEP_EXECUTION_ID FETCH FIRST 8 ROWS ONLY
+            """.formatted(CLAIMABLE);
+
+    private static final String CLAIM_SQL = """
+            UPDATE IMPORT_PARTITION_QUEUE
+            SET STATUS = 'CLAIMED', OWNER = ?, ATTEMPTS = ATTEMPTS + 1,
+                LEASE_EXPIRES = DATEADD(MILLISECOND, ?, LOCALTIMESTAMP), LAST_UPDATED = LOCALTIMESTAMP
+            WHERE STEP_EXECUTION_ID = ? AND %s
+            """.formatted(CLAIMABLE);
+
+    private static final String CLAIMED_SQL = """
+            SELECT STEP_EXECUTION_ID, JOB_EXECUTION_ID, ATTEMPTS FROM IMPORT_PARTITION_QUEUE
+            WHERE STEP_EXECUTION_ID = ?
+            """;
+
+    private static final String RENEW_SQL = """
+            UPDATE IMPORT_PARTITION_QUEUE
+            SET LEASE_EXPIRES = DATEADD(MILLISECOND, ?, LOCALTIMESTAMP), LAST_UPDATED = LOCALTIMESTAMP
+            WHERE STEP_EXECUTION_ID = ? AND OWNER = ? AND STATUS = 'CLAIMED'
+            """;
+
+    private static final String COMPLETE_SQL = """
+            UPDATE IMPORT_PARTITION_QUEUE SET STATUS = ?, OWNER = NULL, LAST_UPDATED = LOCALTIMESTAMP
+            WHERE STEP_EXECUTION_ID = ? AND OWNER = ? AND STATUS = 'CLAIMED'
+            """;
+
+    private static final String PENDING_SQL = """
+            SELECT COUNT(*) FROM IMPORT_PARTITION_QUEUE
+            WHERE JOB_EXECUTION_ID = ? AND STATUS IN ('QUEUED', 'CLAIMED')
+            """;
+
+    private static final String STATUS_SQL = """
+            SELECT STATUS FROM IMPORT_PARTITION_QUEUE WHERE STEP_EXECUTION_ID = ?
+            """;
+
+    private static final String PARTITIONS_SQL = """
+            SELECT Q.STEP_EXECUTION_ID, Q.STEP_NAME, Q.STATUS, Q.OWNER, Q.LEASE_EXPIRES, Q.ATTEMPTS,
+                   S.READ_COUNT, S.WRITE_COUNT, S.READ_SKIP_COUNT + S.PROCESS_SKIP_COUNT + S.WRITE_SKIP_COUNT
+            FROM IMPORT_PARTITION_QUEUE Q
+            JOIN BATCH_STEP_EXECUTION S ON S.STEP_EXECUTION_ID = Q.STEP_EXECUTION_ID
+            WHERE Q.JOB_EXECUTION_ID =
+                (SELECT MAX(JOB_EXECUTION_ID) FROM IMPORT_PARTITION_QUEUE WHERE CORRELATION_ID = ?)
+            ORDER BY Q.STEP_EXECUTION_ID
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ImportPartitionQueue(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void enqueue(String correlationId, Collection<StepExecution> partitions) {
+        jdbcTemplate.batchUpdate(ENQUEUE_SQL, partitions, partitions.size(), (ps, partition) -> {
+            ps.setLong(1, partition.getId());
+            ps.setLong(2, partition.getJobExecutionId());
+            ps.setString(3, correlationId);
+            ps.setString(4, partition.getStepName());
+        });
+    }
+
+    /**
+     * Claims the oldest claimable partition for {@code owner}. Partitions whose lease expired after
+     * {@code maxAttempts} claims are failed first instead of being claimed again.
+     */
+    public Optional<ClaimedPartition> claim(String owner, Duration lease, int maxAttempts) {
+        jdbcTemplate.update(EXPIRE_SQL, maxAttempts);
+        for (Long candidate : jdbcTemplate.queryForList(CANDIDATES_SQL, Long.class)) {
+            // another node may have claimed it since it was selected, the update then matches no row
+            if (jdbcTemplate.update(CLAIM_SQL, owner, lease.toMillis(), candidate) == 1) {
+                return Optional.of(jdbcTemplate.queryForObject(CLAIMED_SQL, (rs, rowNum) ->
+                        new ClaimedPartition(rs.getLong(1), rs.getLong(2), rs.getInt(3)), candidate));
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Extends the lease of the partitions still owned by {@code owner}, returns the ones it lost to another node.
+     */
+    public List<Long> renew(String owner, Collection<Long> stepExecutionIds, Duration lease) {
+        var lost = new ArrayList<Long>();
+        for (long stepExecutionId : stepExecutionIds) {
+            if (jdbcTemplate.update(RENEW_SQL, lease.toMillis(), stepExecutionId, owner) == 0) {
+                lost.add(stepExecutionId);
+            }
+        }
+        return lost;
+    }
+
+    /**
+     * Records the outcome of a partition, false when {@code owner} lost it to another node in the meantime.
+     */
+    public boolean complete(long stepExecutionId, String owner, ImportPartitionStatus status) {
+        return jdbcTemplate.update(COMPLETE_SQL, status.name(), stepExecutionId, owner) == 1;
+    }
+
+    public long pending(long jobExecutionId) {
+        Long pending = jdbcTemplate.queryForObject(PENDING_SQL, Long.class, jobExecutionId);
+        return pending == null ? 0 : pending;
+    }
+
+    public ImportPartitionStatus status(long stepExecutionId) {
+        return ImportPartitionStatus.valueOf(jdbcTemplate.queryForObject(STATUS_SQL, String.class, stepExecutionId));
+    }
+
+    /**
+     * Partitions of the latest distributed execution of an import, empty when it was not distributed.
+     */
+    public List<ImportPartition> find(String correlationId) {
+        return jdbcTemplate.query(PARTITIONS_SQL, (rs, rowNum) -> {
+            var leaseExpires = rs.getTimestamp(5);
+            return new ImportPartition(rs.getLong(1), rs.getString(2),
+                    ImportPartitionStatus.valueOf(rs.getString(3)), rs.getString(4),
+                    leaseExpires == null ? null : leaseExpires.toLocalDateTime(), rs.getInt(6),
+                    rs.getLong(7), rs.getLong(8), rs.getLong(9));
+        }, correlationId);
+    }
+
+    public record ClaimedPartition(long stepExecutionId, long jobExecutionId, int attempt) {
+    }
+}
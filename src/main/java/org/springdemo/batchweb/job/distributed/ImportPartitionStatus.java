@@ -0,0 +1,18 @@
+package org.springdemo.batchweb.job.distributed;
+
+/**
+ * State of a partition in the {@link ImportPartitionQueue}.
+ */
+public enum ImportPartitionStatus {
+    /** Waiting for a node to claim it. */
+    QUEUED,
+    /** Being imported by the owner node, which renews the lease until it is done. */
+    CLAIMED,
+    COMPLETED,
+    /** The worker step failed or every node that claimed the partition let its lease expire. */
+    FAILED;
+
+    public boolean isDone() {
+        return this == COMPLETED || this == FAILED;
+    }
+}
@@ -0,0 +1,187 @@
+package org.springdemo.batchweb.job.distributed;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springdemo.batchweb.job.processor.DuplicateIsbnDetectors;
+import org.springdemo.batchweb.job.processor.KnownBookHashes;
+import org.springdemo.batchweb.job.reject.ImportRejectFiles;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Claims partitions of {@link org.springdemo.batchweb.job.ImportStrategy#DISTRIBUTED} imports from the
+ * {@link ImportPartitionQueue} and runs them with the worker step, at most {@code max-partitions} at once on this
+ * node. The leases of the running partitions are renewed every {@code renew-interval}, which must stay well below
+ * the lease. A partition whose lease was lost to another node is stopped at its next chunk boundary.
+ * <p>
+ * Job wide state such as the known hashes, the duplicate ISBN detector and the reject file is per node, it is
+ * released here once the import has no partition left in the queue. So are the search index and the ISBN cache:
+ * the books of a partition are indexed and evicted on the node that imported it only. The other nodes find them in
+ * search once they restart and serve the previous version of a cached ISBN until the entry expires.
+ * <p>
+ * Opt-in with {@code batchweb.import.distributed.worker.enabled}, a node without a worker still queues the
+ * partitions of the imports it receives but leaves them to the other nodes.
+ */
+@Component
+@ConditionalOnProperty(name = "batchweb.import.distributed.worker.enabled")
+public class ImportPartitionWorker {
+
+    private static final Logger log = LoggerFactory.getLogger(ImportPartitionWorker.class);
+
+    private final ImportPartitionQueue importPartitionQueue;
+
+    private final JobExplorer jobExplorer;
+
+    private final Step workerStep;
+
+    private final TaskExecutor taskExecutor;
+
+    private final KnownBookHashes knownBookHashes;
+
+    private final DuplicateIsbnDetectors duplicateIsbnDetectors;
+
+    private final ImportRejectFiles importRejectFiles;
+
+    private final String nodeId;
+
+    private final Duration lease;
+
+    private final int maxAttempts;
+
+    private final Semaphore slots;
+
+    // claimed partition by step execution id, to the id of its job execution
+    private final Map<Long, Long> running = new ConcurrentHashMap<>();
+
+    // step executions of the claimed partitions being imported, stopped when their lease is lost
+    private final Map<Long, StepExecution> executing = new ConcurrentHashMap<>();
+
+    // job executions this node worked for and whose resources are still held
+    private final Set<Long> joined = ConcurrentHashMap.newKeySet();
+
+    public ImportPartitionWorker(ImportPartitionQueue importPartitionQueue, JobExplorer jobExplorer,
+                                 @Qualifier("importBooksWorker") Step workerStep,
+                                 @Qualifier("importPartitionTaskExecutor") TaskExecutor taskExecutor,
+                                 KnownBookHashes knownBookHashes, DuplicateIsbnDetectors duplicateIsbnDetectors,
+                                 ImportRejectFiles importRejectFiles,
+                                 @Value("${batchweb.import.distributed.node-id:}") String nodeId,
+                                 @Value("${batchweb.import.distributed.lease:PT30S}") Duration lease,
+                                 @Value("${batchweb.import.distributed.max-attempts:3}") int maxAttempts,
+                                 @Value("${batchweb.import.distributed.worker.max-partitions:4}") int maxPartitions) {
+        this.importPartitionQueue = importPartitionQueue;
+        this.jobExplorer = jobExplorer;
+        this.workerStep = workerStep;
+        this.taskExecutor = taskExecutor;
+        this.knownBookHashes = knownBookHashes;
+        this.duplicateIsbnDetectors = duplicateIsbnDetectors;
+        this.importRejectFiles = importRejectFiles;
+        // pid@host tells apart the instances running on one machine
+        this.nodeId = nodeId.isBlank() ? ManagementFactory.getRuntimeMXBean().getName() : nodeId;
+        this.lease = lease;
+        this.maxAttempts = maxAttempts;
+        this.slots = new Semaphore(maxPartitions);
+    }
+
+    @Scheduled(fixedDelayString = "${batchweb.import.distributed.poll-interval:PT1S}")
+    public void poll() {
+        while (slots.tryAcquire()) {
+            var claimed = importPartitionQueue.claim(nodeId, lease, maxAttempts);
+            if (claimed.isEmpty()) {
+                slots.release();
+                break;
+            }
+            var partition = claimed.get();
+            running.put(partition.stepExecutionId(), partition.jobExecutionId());
+            joined.add(partition.jobExecutionId());
+            try {
+                taskExecutor.execute(() -> {
+                    try {
+                        run(partition);
+                    } finally {
+                        running.remove(partition.stepExecutionId());
+                        slots.release();
+                    }
+                });
+            } catch (RuntimeException e) {
+                // left claimed, another node takes it over when the lease expires
+                running.remove(partition.stepExecutionId());
+                slots.release();
+                throw e;
+            }
+        }
+        releaseFinishedJobs();
+    }
+
+    @Scheduled(fixedDelayString = "${batchweb.import.distributed.renew-interval:PT10S}")
+    public void renewLeases() {
+        if (running.isEmpty()) {
+            return;
+        }
+        for (long stepExecutionId : importPartitionQueue.renew(nodeId, running.keySet(), lease)) {
+            var stepExecution = executing.get(stepExecutionId);
+            if (stepExecution != null) {
+                log.warn("Lease of partition {} was lost to another node, stopping it", stepExecution.getStepName());
+                stepExecution.setTerminateOnly();
+            }
+        }
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    private void run(ImportPartitionQueue.ClaimedPartition partition) {
+        StepExecution stepExecution = jobExplorer.getStepExecution(partition.jobExecutionId(),
+                partition.stepExecutionId());
+        if (stepExecution == null) {
+            log.warn("Partition {} is gone from the job repository", partition.stepExecutionId());
+            importPartitionQueue.complete(partition.stepExecutionId(), nodeId, ImportPartitionStatus.FAILED);
+            return;
+        }
+        // a node that died after the last commit of the step but before completing it in the queue
+        if (stepExecution.getStatus() != BatchStatus.COMPLETED) {
+            log.info("Importing partition {} of job execution {}, attempt {}", stepExecution.getStepName(),
+                    partition.jobExecutionId(), partition.attempt());
+            executing.put(partition.stepExecutionId(), stepExecution);
+            try {
+                workerStep.execute(stepExecution);
+            } catch (Exception e) {
+                log.error("Partition {} failed", stepExecution.getStepName(), e);
+            } finally {
+                executing.remove(partition.stepExecutionId());
+            }
+        }
+        var status = stepExecution.getStatus() == BatchStatus.COMPLETED
+                ? ImportPartitionStatus.COMPLETED
+                : ImportPartitionStatus.FAILED;
+        if (!importPartitionQueue.complete(partition.stepExecutionId(), nodeId, status)) {
+            log.warn("Partition {} was taken over by another node before it completed", stepExecution.getStepName());
+        }
+    }
+
+    private void releaseFinishedJobs() {
+        for (long jobExecutionId : joined) {
+            if (!running.containsValue(jobExecutionId) && importPartitionQueue.pending(jobExecutionId) == 0) {
+                joined.remove(jobExecutionId);
+                knownBookHashes.release(jobExecutionId);
+                duplicateIsbnDetectors.release(jobExecutionId);
+                importRejectFiles.release(jobExecutionId);
+            }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package org.springdemo.batchweb.job.distributed;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.partition.support.AbstractPartitionHandler;
+import org.springframework.batch.core.repository.JobRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.springdemo.batchweb.job.ImportBooksJobConfig.IMPORT_BOOKS_CORRELATION_ID_PARAMETER;
+
+/**
+ * Hands the partitions of the manager step over to the {@link ImportPartitionQueue} instead of running them, and
+ * waits until the nodes taking part, this one included, have imported every one of them. The worker step executions
+ * are then read back from the job repository for the manager step to aggregate.
+ * <p>
+ * A partition failed by the queue after its last lease expired is left running in the job repository by the node
+ * that died, it is marked failed here so the manager step fails and the import can be restarted.
+ */
+public class QueuedPartitionHandler extends AbstractPartitionHandler {
+
+    private static final Logger log = LoggerFactory.getLogger(QueuedPartitionHandler.class);
+
+    private final ImportPartitionQueue importPartitionQueue;
+
+    private final JobExplorer jobExplorer;
+
+    private final JobRepository jobRepository;
+
+    private final Duration pollInterval;
+
+    public QueuedPartitionHandler(ImportPartitionQueue importPartitionQueue, JobExplorer jobExplorer,
+                                  JobRepository jobRepository, Duration pollInterval, int gridSize) {
+        this.importPartitionQueue = importPartitionQueue;
+        this.jobExplorer = jobExplorer;
+        this.jobRepository = jobRepository;
+        this.pollInterval = pollInterval;
+        setGridSize(gridSize);
+    }
+
+    @Override
+    protected Set<StepExecution> doHandle(StepExecution managerStepExecution,
+                                          Set<StepExecution> partitionStepExecutions) throws Exception {
+        long jobExecutionId = managerStepExecution.getJobExecutionId();
+        var correlationId = managerStepExecution.getJobParameters().getString(IMPORT_BOOKS_CORRELATION_ID_PARAMETER);
+        importPartitionQueue.enqueue(correlationId, partitionStepExecutions);
+        log.info("Queued {} partitions of import {}", partitionStepExecutions.size(), correlationId);
+        while (importPartitionQueue.pending(jobExecutionId) > 0) {
+            Thread.sleep(pollInterval.toMillis());
+        }
+        var results = new HashSet<StepExecution>();
+        for (var partition : partitionStepExecutions) {
+            var result = jobExplorer.getStepExecution(jobExecutionId, partition.getId());
+            if (result.getStatus().isRunning()
+                    && importPartitionQueue.status(partition.getId()) == ImportPartitionStatus.FAILED) {
+                result.setStatus(BatchStatus.FAILED);
+                result.setExitStatus(ExitStatus.FAILED.addExitDescription("Partition lease expired"));
+                result.setEndTime(LocalDateTime.now());
+                jobRepository.update(result);
+            }
+            results.add(result);
+        }
+        return results;
+    }
+}
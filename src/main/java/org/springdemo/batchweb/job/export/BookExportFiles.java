@@ -0,0 +1,31 @@
+package org.springdemo.batchweb.job.export;
+
+import org.springdemo.batchweb.job.reader.Compression;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.util.regex.Pattern;
+
+/**
+ * Export files, one per correlation id in {@code batchweb.export.directory}. They are kept for download after the
+ * export ends, a new export with the same correlation id overwrites the previous file.
+ */
+@Component
+public class BookExportFiles {
+
+    private static final Pattern UNSAFE_FILE_NAME_CHARACTERS = Pattern.compile("[^A-Za-z0-9._-]");
+
+    private final Path directory;
+
+    public BookExportFiles(
+            @Value("${batchweb.export.directory:${java.io.tmpdir}/batchweb-exports}") Path directory) {
+        this.directory = directory;
+    }
+
+    public Path path(String correlationId, Compression compression) {
+        // correlation ids come from a request header, keep them from naming a file outside the directory
+        return directory.resolve("books-" + UNSAFE_FILE_NAME_CHARACTERS.matcher(correlationId).replaceAll("_")
+                + ".csv" + compression.extension());
+    }
+}
@@ -0,0 +1,161 @@
+package org.springdemo.batchweb.job.export;
+
+import org.springdemo.batchweb.job.reader.Compression;
+import org.springdemo.batchweb.model.Book;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamSupport;
+import org.springframework.batch.item.ItemStreamWriter;
+import org.springframework.util.Assert;
+
+import java.io.BufferedWriter;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes books to a CSV file in the format the import reads (ISBN, TITLE, AUTHORS, YEAR PUBLISHED), compressed on
+ * the fly.
+ * <p>
+ * Every chunk is written as its own gzip member or zstd frame, both formats decode concatenated members as one
+ * stream. The offset of the file at the end of the last chunk is saved in the execution context, a restart cuts
+ * the file back there and appends, the rows of the chunk that was rolled back are not written twice.
+ * <p>
+ * Not thread safe, use one instance per step execution.
+ */
+public class CsvBookExportWriter extends ItemStreamSupport implements ItemStreamWriter<Book> {
+
+    static final String HEADER = "ISBN,TITLE,AUTHORS,YEAR PUBLISHED";
+
+    static final String OFFSET_KEY = "offset";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path path;
+
+    private final Compression compression;
+
+    private FileChannel channel;
+
+    private Writer writer;
+
+    public CsvBookExportWriter(Path path, Compression compression) {
+        Assert.notNull(path, "path is required");
+        Assert.notNull(compression, "compression is required");
+        this.path = path;
+        this.compression = compression;
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        try {
+            Files.createDirectories(path.toAbsolutePath().getParent());
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            long offset = executionContext.getLong(getExecutionContextKey(OFFSET_KEY), -1);
+            if (offset >= 0) {
+                channel.truncate(offset);
+                channel.position(offset);
+                return;
+            }
+            channel.truncate(0);
+            startFrame().append(HEADER).append('\n');
+            endFrame();
+        } catch (IOException e) {
+            throw new ItemStreamException("Could not open " + path, e);
+        }
+    }
+
+    @Override
+    public void write(Chunk<? extends Book> chunk) throws IOException {
+        var out = writer == null ? startFrame() : writer;
+        for (var book : chunk) {
+            out.append(book.isbn()).append(',')
+                    .append(quote(book.title())).append(',')
+                    .append(quote(book.authors())).append(',');
+            if (book.yearPublished() != null) {
+                out.append(book.yearPublished().toString());
+            }
+            out.append('\n');
+        }
+    }
+
+    /**
+     * Ends the frame of the chunk and saves the offset, called by the step right before the chunk commits.
+     */
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        try {
+            endFrame();
+            channel.force(false);
+            executionContext.putLong(getExecutionContextKey(OFFSET_KEY), channel.position());
+        } catch (IOException e) {
+            throw new ItemStreamException("Could not write to " + path, e);
+        }
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        if (channel == null) {
+            return;
+        }
+        try {
+            endFrame();
+            channel.close();
+        } catch (IOException e) {
+            throw new ItemStreamException("Could not close " + path, e);
+        } finally {
+            writer = null;
+            channel = null;
+        }
+    }
+
+    private Writer startFrame() throws IOException {
+        // the frame is closed on every chunk, the channel only when the step ends
+        OutputStream file = new FilterOutputStream(Channels.newOutputStream(channel)) {
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+            }
+
+            @Override
+            public void close() throws IOException {
+                flush();
+            }
+        };
+        writer = new BufferedWriter(new OutputStreamWriter(compression.compress(file), StandardCharsets.UTF_8),
+                BUFFER_SIZE);
+        return writer;
+    }
+
+    private void endFrame() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+        }
+    }
+
+    /**
+     * Quotes a field as RFC 4180 does when it holds a delimiter, a quote or a line break.
+     */
+    static String quote(String field) {
+        if (field == null) {
+            return "";
+        }
+        for (int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return '"' + field.replace("\"", "\"\"") + '"';
+            }
+        }
+        return field;
+    }
+}
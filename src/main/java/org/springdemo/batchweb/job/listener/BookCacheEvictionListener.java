@@ -0,0 +1,38 @@
+package org.springdemo.batchweb.job.listener;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import org.springdemo.batchweb.entity.BookEntity;
+import org.springdemo.batchweb.model.Book;
+import org.springframework.batch.core.ItemWriteListener;
+import org.springframework.batch.item.Chunk;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+/**
+ * Evicts the ISBNs written by the import from the ISBN cache. They are evicted once right after the write and once
+ * more after the chunk commits, a lookup loading the previous row in between does not stay cached.
+ */
+public class BookCacheEvictionListener implements ItemWriteListener<BookEntity> {
+
+    private final Cache<String, Book> bookIsbnCache;
+
+    public BookCacheEvictionListener(Cache<String, Book> bookIsbnCache) {
+        this.bookIsbnCache = bookIsbnCache;
+    }
+
+    @Override
+    public void afterWrite(Chunk<? extends BookEntity> items) {
+        List<String> isbns = items.getItems().stream().map(BookEntity::getIsbn).toList();
+        bookIsbnCache.invalidateAll(isbns);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    bookIsbnCache.invalidateAll(isbns);
+                }
+            });
+        }
+    }
+}
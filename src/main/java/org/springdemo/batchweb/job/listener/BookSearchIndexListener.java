@@ -0,0 +1,38 @@
+package org.springdemo.batchweb.job.listener;
+
+import org.springdemo.batchweb.entity.BookEntity;
+import org.springdemo.batchweb.search.BookSearchIndex;
+import org.springframework.batch.core.ItemWriteListener;
+import org.springframework.batch.item.Chunk;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+/**
+ * Indexes the books written by the import for search once their chunk commits, a chunk rolled back never shows up
+ * in the search results.
+ */
+public class BookSearchIndexListener implements ItemWriteListener<BookEntity> {
+
+    private final BookSearchIndex bookSearchIndex;
+
+    public BookSearchIndexListener(BookSearchIndex bookSearchIndex) {
+        this.bookSearchIndex = bookSearchIndex;
+    }
+
+    @Override
+    public void afterWrite(Chunk<? extends BookEntity> items) {
+        List<? extends BookEntity> books = List.copyOf(items.getItems());
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            bookSearchIndex.index(books);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                bookSearchIndex.index(books);
+            }
+        });
+    }
+}
@@ -0,0 +1,106 @@
+package org.springdemo.batchweb.job.listener;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springdemo.batchweb.entity.BookEntity;
+import org.springdemo.batchweb.model.Book;
+import org.springframework.batch.core.ItemReadListener;
+import org.springframework.batch.core.ItemWriteListener;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ParseException;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per step import metrics, tagged with the step name:
+ * <ul>
+ *     <li>{@code import.chunk.write} timer with a percentile histogram of the chunk write latency, tagged with the
+ *     outcome</li>
+ *     <li>{@code import.rows.written} counter, its rate is the import throughput in rows per second</li>
+ *     <li>{@code import.parse.errors} counter of the records the reader could not parse</li>
+ * </ul>
+ * The chunk is read, written and timed on the step thread, the running write is kept in a thread local.
+ */
+public class ImportMetricsListener implements ItemWriteListener<BookEntity>, ItemReadListener<Book> {
+
+    private static final String UNKNOWN_STEP = "unknown";
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, StepMeters> stepMeters = new ConcurrentHashMap<>();
+
+    private final ThreadLocal<Long> writeStartedAt = new ThreadLocal<>();
+
+    private record StepMeters(Timer writeSuccess, Timer writeFailure, Counter rowsWritten, Counter parseErrors) {
+    }
+
+    public ImportMetricsListener(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void beforeWrite(Chunk<? extends BookEntity> items) {
+        writeStartedAt.set(System.nanoTime());
+    }
+
+    @Override
+    public void afterWrite(Chunk<? extends BookEntity> items) {
+        var meters = meters();
+        stopWrite(meters.writeSuccess());
+        meters.rowsWritten().increment(items.size());
+    }
+
+    @Override
+    public void onWriteError(Exception exception, Chunk<? extends BookEntity> items) {
+        stopWrite(meters().writeFailure());
+    }
+
+    @Override
+    public void onReadError(Exception ex) {
+        if (ex instanceof ParseException) {
+            meters().parseErrors().increment();
+        }
+    }
+
+    private void stopWrite(Timer timer) {
+        Long startedAt = writeStartedAt.get();
+        writeStartedAt.remove();
+        if (startedAt != null) {
+            timer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private StepMeters meters() {
+        var context = StepSynchronizationManager.getContext();
+        var stepName = context == null ? UNKNOWN_STEP : context.getStepName();
+        return stepMeters.computeIfAbsent(stepName, this::register);
+    }
+
+    private StepMeters register(String stepName) {
+        return new StepMeters(
+                writeTimer(stepName, "success"),
+                writeTimer(stepName, "failure"),
+                Counter.builder("import.rows.written")
+                        .description("Books written by the import")
+                        .baseUnit("rows")
+                        .tag("step", stepName)
+                        .register(meterRegistry),
+                Counter.builder("import.parse.errors")
+                        .description("Records the import could not parse")
+                        .tag("step", stepName)
+                        .register(meterRegistry));
+    }
+
+    private Timer writeTimer(String stepName, String outcome) {
+        return Timer.builder("import.chunk.write")
+                .description("Time to write a chunk of books")
+                .tag("step", stepName)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
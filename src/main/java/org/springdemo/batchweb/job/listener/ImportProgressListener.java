@@ -0,0 +1,30 @@
+package org.springdemo.batchweb.job.listener;
+
+import org.springdemo.batchweb.job.progress.ImportProgressRegistry;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.scope.context.ChunkContext;
+
+import static org.springdemo.batchweb.job.ImportBooksJobConfig.IMPORT_BOOKS_CORRELATION_ID_PARAMETER;
+
+/**
+ * Publishes the counts of the step execution to the {@link ImportProgressRegistry} after every chunk.
+ */
+public class ImportProgressListener implements ChunkListener {
+
+    private final ImportProgressRegistry importProgressRegistry;
+
+    public ImportProgressListener(ImportProgressRegistry importProgressRegistry) {
+        this.importProgressRegistry = importProgressRegistry;
+    }
+
+    @Override
+    public void afterChunk(ChunkContext context) {
+        var stepExecution = context.getStepContext().getStepExecution();
+        var correlationId = stepExecution.getJobExecution().getJobParameters()
+                .getString(IMPORT_BOOKS_CORRELATION_ID_PARAMETER);
+        if (correlationId != null) {
+            importProgressRegistry.update(correlationId, stepExecution.getId(), stepExecution.getReadCount(),
+                    stepExecution.getWriteCount(), stepExecution.getFilterCount());
+        }
+    }
+}
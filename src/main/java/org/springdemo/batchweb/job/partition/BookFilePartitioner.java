@@ -0,0 +1,137 @@
+package org.springdemo.batchweb.job.partition;
+
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.util.Assert;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Splits an uploaded book file in up to {@code gridSize} byte ranges, every range starts right after a line feed
+ * that ends a record so no record is cut in two. The header line is left out of every range.
+ * <p>
+ * A line feed inside a double quoted field does not end a record, so the file is scanned once from the start
+ * tracking the quotes like the readers do, a boundary can not be told apart from a line break of a quoted field by
+ * looking at the bytes around it.
+ */
+public class BookFilePartitioner implements Partitioner {
+
+    public static final String START_OFFSET_KEY = "start-offset";
+    public static final String END_OFFSET_KEY = "end-offset";
+    public static final String PARTITION_PREFIX = "partition";
+
+    private static final int SCAN_BUFFER_SIZE = 8 * 1024;
+
+    private final Path file;
+
+    private final boolean skipHeader;
+
+    public BookFilePartitioner(Path file, boolean skipHeader) {
+        Assert.notNull(file, "file is required");
+        this.file = file;
+        this.skipHeader = skipHeader;
+    }
+
+    @Override
+    public Map<String, ExecutionContext> partition(int gridSize) {
+        Assert.isTrue(gridSize > 0, "gridSize must be positive");
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return toContexts(boundaries(channel, gridSize));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not partition " + file, e);
+        }
+    }
+
+    /**
+     * Start of every range followed by the file size. Each range but the first starts at the first record start at
+     * or after its even share of the bytes, ranges left empty by long records are dropped.
+     */
+    private List<Long> boundaries(FileChannel channel, int gridSize) throws IOException {
+        long size = channel.size();
+        var scanner = new RecordScanner(channel, size);
+        long start = skipHeader ? scanner.nextRecordStart(0) : 0;
+        var boundaries = new ArrayList<Long>(gridSize + 1);
+        boundaries.add(start);
+        long recordStart = start;
+        for (int i = 1; i < gridSize && recordStart < size; i++) {
+            long target = start + (size - start) * i / gridSize;
+            if (target <= recordStart) {
+                continue;
+            }
+            recordStart = scanner.nextRecordStart(target);
+            if (recordStart < size) {
+                boundaries.add(recordStart);
+            }
+        }
+        boundaries.add(size);
+        return boundaries;
+    }
+
+    private static Map<String, ExecutionContext> toContexts(List<Long> boundaries) {
+        var partitions = new LinkedHashMap<String, ExecutionContext>();
+        for (int i = 0; i < boundaries.size() - 1; i++) {
+            var context = new ExecutionContext();
+            context.putLong(START_OFFSET_KEY, boundaries.get(i));
+            context.putLong(END_OFFSET_KEY, boundaries.get(i + 1));
+            partitions.put(PARTITION_PREFIX + i, context);
+        }
+        return partitions;
+    }
+
+    /**
+     * Reads the file forward only, keeping track of whether the current byte is inside a quoted field. An escaped
+     * quote toggles the state twice.
+     */
+    static final class RecordScanner {
+
+        private final FileChannel channel;
+
+        private final long size;
+
+        private final ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+
+        private long position;
+
+        private boolean quoted;
+
+        RecordScanner(FileChannel channel, long size) {
+            this.channel = channel;
+            this.size = size;
+        }
+
+        /**
+         * Offset of the first record starting at or after {@code from} and past the bytes already scanned,
+         * {@code size} if none.
+         */
+        long nextRecordStart(long from) throws IOException {
+            while (position < size) {
+                buffer.clear();
+                int read = channel.read(buffer, position);
+                if (read <= 0) {
+                    break;
+                }
+                for (int i = 0; i < read; i++) {
+                    byte b = buffer.get(i);
+                    if (b == '"') {
+                        quoted = !quoted;
+                    } else if (b == '\n' && !quoted && position + i + 1 >= from) {
+                        position += i + 1;
+                        return position;
+                    }
+                }
+                position += read;
+            }
+            position = size;
+            return size;
+        }
+    }
+}
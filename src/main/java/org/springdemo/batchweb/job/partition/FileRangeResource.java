@@ -0,0 +1,111 @@
+package org.springdemo.batchweb.job.partition;
+
+import org.springframework.core.io.AbstractResource;
+import org.springframework.util.Assert;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Exposes the bytes {@code [start, end)} of a file as a resource, each call to {@link #getInputStream()} opens a
+ * new stream positioned at {@code start} so readers can reopen it on restart.
+ */
+public class FileRangeResource extends AbstractResource {
+
+    private final Path path;
+
+    private final long start;
+
+    private final long end;
+
+    public FileRangeResource(Path path, long start, long end) {
+        Assert.notNull(path, "path is required");
+        Assert.isTrue(0 <= start && start <= end, "invalid range [%d, %d)".formatted(start, end));
+        this.path = path;
+        this.start = start;
+        this.end = end;
+    }
+
+    @Override
+    public boolean exists() {
+        return Files.exists(path);
+    }
+
+    @Override
+    public boolean isReadable() {
+        return Files.isReadable(path);
+    }
+
+    @Override
+    public long contentLength() {
+        return end - start;
+    }
+
+    @Override
+    public String getDescription() {
+        return "file [%s] bytes [%d, %d)".formatted(path.toAbsolutePath(), start, end);
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        var channel = FileChannel.open(path, StandardOpenOption.READ).position(start);
+        return new RangeInputStream(Channels.newInputStream(channel), end - start);
+    }
+
+    private static final class RangeInputStream extends FilterInputStream {
+
+        private long remaining;
+
+        private RangeInputStream(InputStream in, long remaining) {
+            super(in);
+            this.remaining = remaining;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int read = super.read();
+            if (read >= 0) {
+                remaining--;
+            }
+            return read;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int read = super.read(b, off, (int) Math.min(len, remaining));
+            if (read > 0) {
+                remaining -= read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(Math.min(n, remaining));
+            remaining -= skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return (int) Math.min(super.available(), remaining);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package org.springdemo.batchweb.job.processor;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springdemo.batchweb.entity.BookEntity;
+import org.springdemo.batchweb.model.Book;
+import org.springdemo.batchweb.util.Isbns;
+import org.springdemo.batchweb.util.LongLongHashMap;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.item.ItemProcessor;
+
+import java.util.function.Function;
+
+/**
+ * Maps each book to its entity and stamps it with its {@link BookContentHash}.
+ * <p>
+ * A book whose ISBN the {@link DuplicateIsbnDetector} of the job has already seen, in this step or in another
+ * partition, fails with a {@link DuplicateIsbnException}: the step skips it and writes it to the reject file within the
+ * skip limit of the job, a limit of 0 fails the import. The first occurrence processed wins. With a single reader that
+ * is the first one in the file. PARTITIONED and DISTRIBUTED imports run partitions concurrently, which copy is kept
+ * depends on timing, and a DISTRIBUTED import only detects the duplicates imported by the same node, the unique
+ * constraint on the ISBN rejects the others. The count is saved under {@link #DUPLICATE_COUNT_KEY}. Processing has side
+ * effects, the step must not process an item twice.
+ * <p>
+ * For delta imports the hash is compared against the {@link KnownBookHashes} of the job and unchanged books are
+ * filtered out before they reach the writer. The new, changed and unchanged counts are saved in the step
+ * execution context under {@link #NEW_COUNT_KEY}, {@link #CHANGED_COUNT_KEY} and {@link #UNCHANGED_COUNT_KEY}.
+ */
+public class BookItemProcessor implements ItemProcessor<Book, BookEntity>, StepExecutionListener {
+
+    private static final Logger log = LoggerFactory.getLogger(BookItemProcessor.class);
+
+    public static final String NEW_COUNT_KEY = "delta.new";
+    public static final String CHANGED_COUNT_KEY = "delta.changed";
+    public static final String UNCHANGED_COUNT_KEY = "delta.unchanged";
+    public static final String DUPLICATE_COUNT_KEY = "import.duplicates";
+
+    private final Function<Book, BookEntity> mapper;
+
+    private final LongLongHashMap knownHashes;
+
+    private final DuplicateIsbnDetector duplicateIsbnDetector;
+
+    private long duplicateCount;
+
+    private long newCount;
+
+    private long changedCount;
+
+    private long unchangedCount;
+
+    /**
+     * @param knownHashes stored hashes by packed ISBN, {@code null} to pass every book through
+     */
+    public BookItemProcessor(Function<Book, BookEntity> mapper, LongLongHashMap knownHashes,
+                             DuplicateIsbnDetector duplicateIsbnDetector) {
+        this.mapper = mapper;
+        this.knownHashes = knownHashes;
+        this.duplicateIsbnDetector = duplicateIsbnDetector;
+    }
+
+    @Override
+    public BookEntity process(Book book) {
+        if (!duplicateIsbnDetector.firstOccurrence(book.isbn())) {
+            duplicateCount++;
+            throw new DuplicateIsbnException(book.isbn());
+        }
+        var entity = mapper.apply(book);
+        long hash = BookContentHash.of(entity);
+        entity.setContentHash(hash);
+        if (knownHashes == null) {
+            return entity;
+        }
+        long isbn = Isbns.pack(entity.getIsbn());
+        if (isbn == Isbns.NOT_PACKABLE || !knownHashes.containsKey(isbn)) {
+            newCount++;
+            return entity;
+        }
+        if (knownHashes.get(isbn, 0) == hash) {
+            unchangedCount++;
+            return null;
+        }
+        changedCount++;
+        return entity;
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        stepExecution.getExecutionContext().putLong(DUPLICATE_COUNT_KEY, duplicateCount);
+        if (duplicateCount > 0) {
+            log.warn("Step {} rejected {} duplicate ISBNs", stepExecution.getStepName(), duplicateCount);
+        }
+        if (knownHashes != null) {
+            var executionContext = stepExecution.getExecutionContext();
+            executionContext.putLong(NEW_COUNT_KEY, newCount);
+            executionContext.putLong(CHANGED_COUNT_KEY, changedCount);
+            executionContext.putLong(UNCHANGED_COUNT_KEY, unchangedCount);
+            log.info("Step {} delta: {} new, {} changed, {} unchanged", stepExecution.getStepName(),
+                    newCount, changedCount, unchangedCount);
+        }
+        return stepExecution.getExitStatus();
+    }
+}
@@ -0,0 +1,68 @@
+package org.springdemo.batchweb.job.processor;
+
+import org.springdemo.batchweb.util.Isbns;
+import org.springdemo.batchweb.util.LongHashSet;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * ISBNs seen so far by one import, shared by all of its steps and partitions. ISBNs are packed in a {@code long}
+ * and kept in {@link LongHashSet} stripes, each guarded by its own lock so partitions rarely wait on each other.
+ * Between 11 and 21 bytes per ISBN, the 20 million ISBNs of a large file take 256 MB where a set of Strings would
+ * take gigabytes.
+ * <p>
+ * ISBNs that do not pack, expected to be rare, are kept as Strings.
+ */
+public class DuplicateIsbnDetector {
+
+    private static final int STRIPE_BITS = 6;
+
+    private final LongHashSet[] stripes = new LongHashSet[1 << STRIPE_BITS];
+
+    private final Set<String> unpackable = ConcurrentHashMap.newKeySet();
+
+    public DuplicateIsbnDetector() {
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new LongHashSet();
+        }
+    }
+
+    /**
+     * Records the ISBN, false when it was recorded before.
+     */
+    public boolean firstOccurrence(String isbn) {
+        long packed = Isbns.pack(isbn);
+        if (packed == Isbns.NOT_PACKABLE) {
+            return unpackable.add(isbn);
+        }
+        // Fibonacci hashing, the top bits pick the stripe and leave the low bits to the set itself
+        var stripe = stripes[(int) ((packed * 0x9E3779B97F4A7C15L) >>> (Long.SIZE - STRIPE_BITS))];
+        synchronized (stripe) {
+            return stripe.add(packed);
+        }
+    }
+
+    public long size() {
+        long size = unpackable.size();
+        for (var stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Approximate heap used by the stripes.
+     */
+    public long sizeInBytes() {
+        long bytes = 0;
+        for (var stripe : stripes) {
+            synchronized (stripe) {
+                bytes += stripe.sizeInBytes();
+            }
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,32 @@
+package org.springdemo.batchweb.job.processor;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link DuplicateIsbnDetector} of each running import, created by its first step and released by the job listener
+ * when the import ends.
+ */
+@Component
+public class DuplicateIsbnDetectors {
+
+    private static final Logger log = LoggerFactory.getLogger(DuplicateIsbnDetectors.class);
+
+    private final Map<Long, DuplicateIsbnDetector> detectorsByJobExecution = new ConcurrentHashMap<>();
+
+    public DuplicateIsbnDetector forJob(long jobExecutionId) {
+        return detectorsByJobExecution.computeIfAbsent(jobExecutionId, id -> new DuplicateIsbnDetector());
+    }
+
+    public void release(long jobExecutionId) {
+        var detector = detectorsByJobExecution.remove(jobExecutionId);
+        if (detector != null) {
+            log.info("Checked {} distinct ISBNs for duplicates in {} KB", detector.size(),
+                    detector.sizeInBytes() / 1024);
+        }
+    }
+}
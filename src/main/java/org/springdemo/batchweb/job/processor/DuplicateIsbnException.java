@@ -0,0 +1,12 @@
+package org.springdemo.batchweb.job.processor;
+
+/**
+ * Thrown by the {@link BookItemProcessor} for a book whose ISBN the import has already seen. Skipped and rejected
+ * like a malformed row, within the skip limit of the job.
+ */
+public class DuplicateIsbnException extends RuntimeException {
+
+    public DuplicateIsbnException(String isbn) {
+        super("Duplicate ISBN " + isbn);
+    }
+}
@@ -0,0 +1,57 @@
+package org.springdemo.batchweb.job.processor;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springdemo.batchweb.util.Isbns;
+import org.springdemo.batchweb.util.LongLongHashMap;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Content hashes of the stored books keyed by packed ISBN, loaded once per delta import and shared by all of its
+ * steps and partitions. Released by the job listener when the import ends.
+ */
+@Component
+public class KnownBookHashes {
+
+    private static final Logger log = LoggerFactory.getLogger(KnownBookHashes.class);
+
+    private static final String COUNT_SQL = "SELECT COUNT(*) FROM BOOK_ENTITY";
+    private static final String HASHES_SQL = "SELECT ISBN, CONTENT_HASH FROM BOOK_ENTITY";
+    private static final int FETCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Map<Long, LongLongHashMap> hashesByJobExecution = new ConcurrentHashMap<>();
+
+    public KnownBookHashes(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.jdbcTemplate.setFetchSize(FETCH_SIZE);
+    }
+
+    public LongLongHashMap forJob(long jobExecutionId) {
+        return hashesByJobExecution.computeIfAbsent(jobExecutionId, id -> load());
+    }
+
+    public void release(long jobExecutionId) {
+        hashesByJobExecution.remove(jobExecutionId);
+    }
+
+    private LongLongHashMap load() {
+        Integer count = jdbcTemplate.queryForObject(COUNT_SQL, Integer.class);
+        var hashes = new LongLongHashMap(count == null ? 0 : count);
+        // a NULL hash reads as 0, which no content hashes to, so those books count as changed
+        jdbcTemplate.query(HASHES_SQL, (RowCallbackHandler) rs -> {
+            long isbn = Isbns.pack(rs.getString(1));
+            if (isbn != Isbns.NOT_PACKABLE) {
+                hashes.put(isbn, rs.getLong(2));
+            }
+        });
+        log.info("Loaded {} book hashes, {} KB", hashes.size(), hashes.sizeInBytes() / 1024);
+        return hashes;
+    }
+}
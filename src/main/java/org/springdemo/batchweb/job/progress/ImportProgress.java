@@ -0,0 +1,169 @@
+package org.springdemo.batchweb.job.progress;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Live counters of one import, fed by the chunk listener of every step execution of the job (one per partition)
+ * and read by the progress endpoints without touching the job repository.
+ * <p>
+ * Throughput is a moving average of the rows read per second, sampled at most once per {@link #RATE_SAMPLE_NANOS}.
+ */
+public class ImportProgress {
+
+    public static final long UNKNOWN = -1;
+
+    private static final long RATE_SAMPLE_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final double RATE_SMOOTHING = 0.5;
+
+    private final String correlationId;
+
+    private final long totalBytes;
+
+    private final long totalRows;
+
+    private final LongSupplier nanoClock;
+
+    private final long createdAtNanos;
+
+    private final Map<Long, long[]> countsByStepExecution = new ConcurrentHashMap<>();
+
+    private volatile String status = "STARTING";
+
+    private volatile long startedAtNanos;
+
+    private volatile long endedAtNanos;
+
+    private volatile double rowsPerSecond;
+
+    private long rateSampledAtNanos;
+
+    private long rateSampledRows;
+
+    public ImportProgress(String correlationId, long totalBytes, long totalRows) {
+        this(correlationId, totalBytes, totalRows, System::nanoTime);
+    }
+
+    ImportProgress(String correlationId, long totalBytes, long totalRows, LongSupplier nanoClock) {
+        this.correlationId = correlationId;
+        this.totalBytes = totalBytes;
+        this.totalRows = totalRows;
+        this.nanoClock = nanoClock;
+        this.createdAtNanos = nanoClock.getAsLong();
+    }
+
+    void started() {
+        startedAtNanos = nanoClock.getAsLong();
+        status = "STARTED";
+    }
+
+    void finished(String status) {
+        endedAtNanos = nanoClock.getAsLong();
+        this.status = status;
+    }
+
+    /**
+     * Records the counts of a step execution so far, called after every chunk.
+     */
+    void update(long stepExecutionId, long readCount, long writeCount, long filterCount) {
+        countsByStepExecution.put(stepExecutionId, new long[]{readCount, writeCount, filterCount});
+        long now = nanoClock.getAsLong();
+        synchronized (this) {
+            if (rateSampledAtNanos == 0) {
+                rateSampledAtNanos = startedAtNanos == 0 ? createdAtNanos : startedAtNanos;
+            }
+            long elapsed = now - rateSampledAtNanos;
+            if (elapsed < RATE_SAMPLE_NANOS) {
+                return;
+            }
+            long rows = getReadCount();
+            double sample = (rows - rateSampledRows) * 1e9 / elapsed;
+            rowsPerSecond = rowsPerSecond == 0
+                    ? sample
+                    : RATE_SMOOTHING * sample + (1 - RATE_SMOOTHING) * rowsPerSecond;
+            rateSampledAtNanos = now;
+            rateSampledRows = rows;
+        }
+    }
+
+    public String getCorrelationId() {
+        return correlationId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public boolean isFinished() {
+        return endedAtNanos != 0;
+    }
+
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    /**
+     * Data rows in the uploaded file, {@link #UNKNOWN} for streamed or compressed uploads.
+     */
+    public long getTotalRows() {
+        return totalRows;
+    }
+
+    public long getReadCount() {
+        return sum(0);
+    }
+
+    public long getWriteCount() {
+        return sum(1);
+    }
+
+    public long getFilterCount() {
+        return sum(2);
+    }
+
+    public double getRowsPerSecond() {
+        return isFinished() ? 0 : rowsPerSecond;
+    }
+
+    /**
+     * Percentage of the rows read, {@code null} when the total is unknown.
+     */
+    public Double getPercentComplete() {
+        if (totalRows == UNKNOWN) {
+            return isFinished() ? 100.0 : null;
+        }
+        return totalRows == 0 ? 100.0 : Math.min(100.0, getReadCount() * 100.0 / totalRows);
+    }
+
+    /**
+     * Seconds left at the current throughput, {@code null} when the total or the throughput is unknown.
+     */
+    public Long getEtaSeconds() {
+        if (isFinished()) {
+            return 0L;
+        }
+        double rate = rowsPerSecond;
+        if (totalRows == UNKNOWN || rate <= 0) {
+            return null;
+        }
+        return (long) Math.ceil(Math.max(0, totalRows - getReadCount()) / rate);
+    }
+
+    public long getElapsedSeconds() {
+        if (startedAtNanos == 0) {
+            return 0;
+        }
+        long end = isFinished() ? endedAtNanos : nanoClock.getAsLong();
+        return TimeUnit.NANOSECONDS.toSeconds(end - startedAtNanos);
+    }
+
+    private long sum(int index) {
+        long total = 0;
+        for (var counts : countsByStepExecution.values()) {
+            total += counts[index];
+        }
+        return total;
+    }
+}
@@ -0,0 +1,54 @@
+package org.springdemo.batchweb.job.progress;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Progress of the imports launched on this node, keyed by correlation id. Entries are kept for {@code retention}
+ * after they were last updated or read, so clients can still see how a finished import ended.
+ */
+@Component
+public class ImportProgressRegistry {
+
+    private final Cache<String, ImportProgress> progress;
+
+    public ImportProgressRegistry(@Value("${batchweb.import.progress.retention:PT1H}") Duration retention) {
+        this.progress = Caffeine.newBuilder()
+                .expireAfterAccess(retention)
+                .build();
+    }
+
+    /**
+     * Registers an import about to be launched with the size of its input, {@link ImportProgress#UNKNOWN} when it
+     * is not known up front.
+     */
+    public ImportProgress register(String correlationId, long totalBytes, long totalRows) {
+        var importProgress = new ImportProgress(correlationId, totalBytes, totalRows);
+        progress.put(correlationId, importProgress);
+        return importProgress;
+    }
+
+    public Optional<ImportProgress> get(String correlationId) {
+        return Optional.ofNullable(progress.getIfPresent(correlationId));
+    }
+
+    public void started(String correlationId) {
+        progress.get(correlationId, id -> new ImportProgress(id, ImportProgress.UNKNOWN, ImportProgress.UNKNOWN))
+                .started();
+    }
+
+    public void update(String correlationId, long stepExecutionId, long readCount, long writeCount,
+                       long filterCount) {
+        get(correlationId).ifPresent(importProgress ->
+                importProgress.update(stepExecutionId, readCount, writeCount, filterCount));
+    }
+
+    public void finished(String correlationId, String status) {
+        get(correlationId).ifPresent(importProgress -> importProgress.finished(status));
+    }
+}
@@ -0,0 +1,11 @@
+package org.springdemo.batchweb.job.reader;
+
+/**
+ * Reader used by the import steps to parse the uploaded file.
+ */
+public enum BookReaderType {
+    /** {@link MappedBookItemReader}, scans a memory mapped file without per line allocations. */
+    MAPPED,
+    /** FlatFileItemReader with the DelimitedLineTokenizer and FieldSetMapper line mapper. */
+    FLAT_FILE
+}
@@ -0,0 +1,107 @@
+package org.springdemo.batchweb.job.reader;
+
+import com.github.luben.zstd.ZstdInputStream;
+import com.github.luben.zstd.ZstdOutputStream;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compression formats accepted for uploaded book files, recognized by their magic bytes rather than by file name or
+ * content type. Decompression is always streaming, the inflated content is never written to disk. Exports are
+ * compressed with the same formats.
+ */
+public enum Compression {
+
+    NONE(new byte[0]),
+    GZIP(new byte[]{(byte) 0x1F, (byte) 0x8B}),
+    ZSTD(new byte[]{(byte) 0x28, (byte) 0xB5, (byte) 0x2F, (byte) 0xFD});
+
+    private static final int MAGIC_LENGTH = 4;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final byte[] magic;
+
+    Compression(byte[] magic) {
+        this.magic = magic;
+    }
+
+    public boolean isCompressed() {
+        return this != NONE;
+    }
+
+    public static Compression detect(Path path) throws IOException {
+        try (var in = Files.newInputStream(path)) {
+            return detect(in.readNBytes(MAGIC_LENGTH));
+        }
+    }
+
+    static Compression detect(byte[] header) {
+        for (var compression : values()) {
+            if (compression.isCompressed() && startsWith(header, compression.magic)) {
+                return compression;
+            }
+        }
+        return NONE;
+    }
+
+    /**
+     * Wraps {@code in} so it reads decompressed content, whatever the compression of the data it carries.
+     */
+    public static InputStream decompressing(InputStream in) throws IOException {
+        var buffered = new BufferedInputStream(in, BUFFER_SIZE);
+        buffered.mark(MAGIC_LENGTH);
+        var header = buffered.readNBytes(MAGIC_LENGTH);
+        buffered.reset();
+        return detect(header).decompress(buffered);
+    }
+
+    public InputStream decompress(InputStream in) throws IOException {
+        return switch (this) {
+            case NONE -> in;
+            case GZIP -> new GZIPInputStream(in, BUFFER_SIZE);
+            case ZSTD -> new BufferedInputStream(new ZstdInputStream(in), BUFFER_SIZE);
+        };
+    }
+
+    /**
+     * Wraps {@code out} so what is written to it is compressed, closing the result ends the gzip member or zstd frame
+     * and closes {@code out}.
+     */
+    public OutputStream compress(OutputStream out) throws IOException {
+        return switch (this) {
+            case NONE -> out;
+            case GZIP -> new GZIPOutputStream(out, BUFFER_SIZE);
+            case ZSTD -> new ZstdOutputStream(out);
+        };
+    }
+
+    /**
+     * File name extension of the format, including the dot, empty for {@link #NONE}.
+     */
+    public String extension() {
+        return switch (this) {
+            case NONE -> "";
+            case GZIP -> ".gz";
+            case ZSTD -> ".zst";
+        };
+    }
+
+    private static boolean startsWith(byte[] header, byte[] magic) {
+        if (header.length < magic.length) {
+            return false;
+        }
+        for (int i = 0; i < magic.length; i++) {
+            if (header[i] != magic[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,65 @@
+package org.springdemo.batchweb.job.reader;
+
+import org.springframework.core.io.AbstractResource;
+import org.springframework.util.Assert;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * File resource whose streams return the decompressed content of the file.
+ * <p>
+ * Every call to {@link #getInputStream()} decompresses from the beginning of the file, there is no way to seek in
+ * the compressed data. Readers restarting on it skip the records already processed, which is what
+ * FlatFileItemReader does with its saved read count.
+ * <p>
+ * Not a file resource: {@link #getFile()} fails so callers can not bypass the decompression, and
+ * {@link #readableChannel()} and {@link #contentLength()} work on the decompressed content, the latter by inflating
+ * the whole file.
+ */
+public class DecompressingPathResource extends AbstractResource {
+
+    private final Path path;
+
+    private final Compression compression;
+
+    public DecompressingPathResource(Path path, Compression compression) {
+        Assert.notNull(path, "path is required");
+        Assert.isTrue(compression.isCompressed(), "compression is required");
+        this.path = path;
+        this.compression = compression;
+    }
+
+    @Override
+    public boolean exists() {
+        return Files.exists(path);
+    }
+
+    @Override
+    public boolean isReadable() {
+        return Files.isReadable(path);
+    }
+
+    @Override
+    public long lastModified() throws IOException {
+        return Files.getLastModifiedTime(path).toMillis();
+    }
+
+    @Override
+    public String getFilename() {
+        return path.getFileName().toString();
+    }
+
+    @Override
+    public String getDescription() {
+        return "%s compressed file [%s]".formatted(compression, path.toAbsolutePath());
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        return compression.decompress(new BufferedInputStream(Files.newInputStream(path)));
+    }
+}
@@ -0,0 +1,399 @@
+package org.springdemo.batchweb.job.reader;
+
+import org.springdemo.batchweb.model.Book;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.ItemStreamSupport;
+import org.springframework.batch.item.file.FlatFileParseException;
+import org.springframework.util.Assert;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads books from a UTF-8 CSV file (ISBN, TITLE, AUTHORS, YEAR PUBLISHED) by scanning a memory mapped window
+ * of the file. Delimiters and quotes are found directly in the mapped bytes and only the fields of {@link Book}
+ * are materialized, there is no intermediate line String, token array or FieldSet.
+ * <p>
+ * Reads the byte range {@code [start, end)} so the same reader serves whole files and partitions, files larger
+ * than the window are mapped window by window. The offset of the next record is saved in the execution context,
+ * a restart resumes right there instead of reading and discarding the records already processed.
+ * <p>
+ * Not thread safe, use one instance per step execution.
+ */
+public class MappedBookItemReader extends ItemStreamSupport implements ItemStreamReader<Book> {
+
+    public static final int DEFAULT_WINDOW_SIZE = 64 * 1024 * 1024;
+
+    static final String POSITION_KEY = "position";
+    static final String LINE_KEY = "line";
+
+    private static final int FIELDS = 4;
+    private static final int YEAR_FIELD = FIELDS - 1;
+    private static final byte DELIMITER = ',';
+    private static final byte QUOTE = '"';
+
+    private final Path path;
+
+    private final long start;
+
+    private final long end;
+
+    private final boolean skipHeader;
+
+    private final int windowSize;
+
+    private FileChannel channel;
+
+    private long limit;
+
+    private MappedByteBuffer window;
+
+    private long windowStart;
+
+    private long windowEnd;
+
+    private long position;
+
+    private long line;
+
+    private byte[] scratch = new byte[256];
+
+    private final String[] fields = new String[YEAR_FIELD];
+
+    private Integer yearPublished;
+
+    private boolean invalidYear;
+
+    private boolean textAfterQuote;
+
+    public MappedBookItemReader(Path path, long start, long end, boolean skipHeader) {
+        this(path, start, end, skipHeader, DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * @param end exclusive end offset, negative to read up to the end of the file
+     */
+    public MappedBookItemReader(Path path, long start, long end, boolean skipHeader, int windowSize) {
+        Assert.notNull(path, "path is required");
+        Assert.isTrue(start >= 0, "start must not be negative");
+        Assert.isTrue(windowSize > 0, "windowSize must be positive");
+        this.path = path;
+        this.start = start;
+        this.end = end;
+        this.skipHeader = skipHeader;
+        this.windowSize = windowSize;
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        try {
+            channel = FileChannel.open(path, StandardOpenOption.READ);
+            limit = end < 0 ? channel.size() : Math.min(end, channel.size());
+        } catch (IOException e) {
+            throw new ItemStreamException("Could not open " + path, e);
+        }
+        window = null;
+        if (executionContext.containsKey(getExecutionContextKey(POSITION_KEY))) {
+            position = executionContext.getLong(getExecutionContextKey(POSITION_KEY));
+            line = executionContext.getLong(getExecutionContextKey(LINE_KEY), 0);
+        } else {
+            position = start;
+            line = 0;
+            if (skipHeader && start == 0 && position < limit) {
+                parseRecord();
+            }
+        }
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        executionContext.putLong(getExecutionContextKey(POSITION_KEY), position);
+        executionContext.putLong(getExecutionContextKey(LINE_KEY), line);
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        window = null;
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new ItemStreamException("Could not close " + path, e);
+        } finally {
+            channel = null;
+        }
+    }
+
+    @Override
+    public Book read() {
+        Assert.state(channel != null, "Reader must be open before it can be read");
+        while (position < limit) {
+            long recordStart = position;
+            long recordLine = line + 1;
+            int fieldCount = parseRecord();
+            if (fieldCount == 0) {
+                continue; // blank line
+            }
+            if (fieldCount != FIELDS) {
+                throw new FlatFileParseException("Expected %d fields but found %d in line %d"
+                        .formatted(FIELDS, fieldCount, recordLine), rawRecord(recordStart), (int) recordLine);
+            }
+            if (textAfterQuote) {
+                throw new FlatFileParseException("Unexpected text after a closing quote in line %d"
+                        .formatted(recordLine), rawRecord(recordStart), (int) recordLine);
+            }
+            if (invalidYear) {
+                throw new FlatFileParseException("Invalid year published in line %d".formatted(recordLine),
+                        rawRecord(recordStart), (int) recordLine);
+            }
+            return new Book(null, fields[0], fields[1], fields[2], yearPublished);
+        }
+        return null;
+    }
+
+    /**
+     * Offset of the next record, relative to the beginning of the file.
+     */
+    public long getPosition() {
+        return position;
+    }
+
+    /**
+     * Parses the record at {@link #position} into {@link #fields} and {@link #yearPublished} and moves the position
+     * past its line terminator. A record crossing the end of the mapped window is parsed again from a window that
+     * starts at the record. Returns the number of fields found, 0 for a blank line.
+     */
+    private int parseRecord() {
+        long lineBefore = line;
+        while (true) {
+            map(position);
+            int fieldCount = parseMappedRecord();
+            if (fieldCount >= 0) {
+                return fieldCount;
+            }
+            Assert.state(windowStart != position, () -> "Record at offset %d of %s does not fit the %d bytes window"
+                    .formatted(position, path, windowSize));
+            line = lineBefore;
+            window = null;
+        }
+    }
+
+    /**
+     * Returns -1 when the record is cut by the end of a window that is not the last one.
+     */
+    private int parseMappedRecord() {
+        int i = (int) (position - windowStart);
+        int size = (int) (windowEnd - windowStart);
+        boolean lastWindow = windowEnd == limit;
+        int fieldCount = 0;
+        yearPublished = null;
+        invalidYear = false;
+        textAfterQuote = false;
+        if (isLineEnd(window.get(i))) {
+            return endOfLine(i, size, 0);
+        }
+        while (true) {
+            int fieldEnd;
+            if (i < size && window.get(i) == QUOTE) {
+                int length = 0;
+                int j = i + 1;
+                while (true) {
+                    if (j >= size) {
+                        if (!lastWindow) {
+                            return -1;
+                        }
+                        var input = rawRecord(position);
+                        // the field runs to the end of the file, a skipping step must not read it again
+                        position = limit;
+                        throw new FlatFileParseException("Unterminated quoted field in line %d".formatted(line + 1),
+                                input, (int) (line + 1));
+                    }
+                    byte b = window.get(j++);
+                    if (b == QUOTE) {
+                        if (j < size && window.get(j) == QUOTE) {
+                            length = append(length, QUOTE);
+                            j++;
+                            continue;
+                        }
+                        if (j >= size && !lastWindow) {
+                            return -1;
+                        }
+                        break;
+                    }
+                    if (b == '\n') {
+                        line++;
+                    }
+                    length = append(length, b);
+                }
+                fieldEnd = scanToFieldEnd(j, size);
+                if (fieldEnd >= size && !lastWindow) {
+                    return -1;
+                }
+                // only blanks may separate the closing quote from the delimiter, read() rejects the record
+                while (j < fieldEnd && isBlank(window.get(j))) {
+                    j++;
+                }
+                textAfterQuote |= j < fieldEnd;
+                if (fieldCount < FIELDS) {
+                    setField(fieldCount, length);
+                }
+            } else {
+                fieldEnd = scanToFieldEnd(i, size);
+                if (fieldEnd >= size && !lastWindow) {
+                    return -1;
+                }
+                int from = i;
+                int to = fieldEnd;
+                while (from < to && isBlank(window.get(from))) {
+                    from++;
+                }
+                while (to > from && isBlank(window.get(to - 1))) {
+                    to--;
+                }
+                if (fieldCount == YEAR_FIELD) {
+                    parseYear(from, to);
+                } else if (fieldCount < YEAR_FIELD) {
+                    int length = to - from;
+                    ensureScratch(length);
+                    window.get(from, scratch, 0, length);
+                    setField(fieldCount, length);
+                }
+            }
+            fieldCount++;
+            if (fieldEnd < size && window.get(fieldEnd) == DELIMITER) {
+                i = fieldEnd + 1;
+                continue;
+            }
+            return endOfLine(fieldEnd, size, fieldCount);
+        }
+    }
+
+    private int endOfLine(int index, int size, int fieldCount) {
+        if (index < size && window.get(index) == '\r') {
+            index++;
+            // the \n of a \r\n cut by the end of the window belongs to this line, not to a blank one
+            if (index == size && windowEnd < limit && byteAt(windowEnd) == '\n') {
+                index++;
+            }
+        }
+        if (index < size && window.get(index) == '\n') {
+            index++;
+        }
+        line++;
+        position = windowStart + index;
+        return fieldCount;
+    }
+
+    private int scanToFieldEnd(int index, int size) {
+        while (index < size && !isFieldEnd(window.get(index))) {
+            index++;
+        }
+        return index;
+    }
+
+    private void setField(int fieldCount, int length) {
+        if (fieldCount < YEAR_FIELD) {
+            fields[fieldCount] = new String(scratch, 0, length, StandardCharsets.UTF_8).trim();
+            return;
+        }
+        int from = 0;
+        int to = length;
+        while (from < to && isBlank(scratch[from])) {
+            from++;
+        }
+        while (to > from && isBlank(scratch[to - 1])) {
+            to--;
+        }
+        int year = 0;
+        for (int k = from; k < to; k++) {
+            year = accumulateDigit(year, scratch[k], k - from);
+        }
+        yearPublished = from == to || invalidYear ? null : year;
+    }
+
+    private void parseYear(int from, int to) {
+        int year = 0;
+        for (int k = from; k < to; k++) {
+            year = accumulateDigit(year, window.get(k), k - from);
+        }
+        yearPublished = from == to || invalidYear ? null : year;
+    }
+
+    private int accumulateDigit(int value, byte digit, int index) {
+        if (digit < '0' || digit > '9' || index >= 9) {
+            invalidYear = true;
+            return value;
+        }
+        return value * 10 + (digit - '0');
+    }
+
+    private void map(long offset) {
+        if (window != null && offset >= windowStart && offset < windowEnd) {
+            return;
+        }
+        windowStart = offset;
+        windowEnd = Math.min(limit, offset + windowSize);
+        try {
+            window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, windowEnd - windowStart);
+        } catch (IOException e) {
+            throw new ItemStreamException("Could not map %s at offset %d".formatted(path, offset), e);
+        }
+    }
+
+    private byte byteAt(long offset) {
+        var buffer = ByteBuffer.allocate(1);
+        try {
+            channel.read(buffer, offset);
+        } catch (IOException e) {
+            throw new ItemStreamException("Could not read %s at offset %d".formatted(path, offset), e);
+        }
+        return buffer.get(0);
+    }
+
+    private String rawRecord(long recordStart) {
+        int from = (int) (recordStart - windowStart);
+        int to = from;
+        int size = (int) (windowEnd - windowStart);
+        while (to < size && window.get(to) != '\n') {
+            to++;
+        }
+        var bytes = new byte[to - from];
+        window.get(from, bytes, 0, bytes.length);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private int append(int length, byte b) {
+        ensureScratch(length + 1);
+        scratch[length] = b;
+        return length + 1;
+    }
+
+    private void ensureScratch(int length) {
+        if (scratch.length < length) {
+            var grown = new byte[Math.max(length, scratch.length * 2)];
+            System.arraycopy(scratch, 0, grown, 0, scratch.length);
+            scratch = grown;
+        }
+    }
+
+    private static boolean isFieldEnd(byte b) {
+        return b == DELIMITER || isLineEnd(b);
+    }
+
+    private static boolean isLineEnd(byte b) {
+        return b == '\n' || b == '\r';
+    }
+
+    private static boolean isBlank(byte b) {
+        return b == ' ' || b == '\t';
+    }
+}
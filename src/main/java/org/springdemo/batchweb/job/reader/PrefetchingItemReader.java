@@ -0,0 +1,185 @@
+package org.springdemo.batchweb.job.reader;
+
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.ItemStreamSupport;
+import org.springframework.batch.item.ParseException;
+import org.springframework.util.Assert;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads ahead of the step on a producer thread and hands the items over through a bounded queue, parsing of the
+ * next chunk overlaps with the write and commit of the current one. The producer blocks when the queue is full,
+ * at most {@code capacity} items are held in memory.
+ * <p>
+ * The delegate runs ahead of what the step has committed, so its live state is never saved. The producer snapshots
+ * the delegate state after each read and queues it with the item, what is saved is the snapshot of the last item
+ * handed to the step, and a restart opens the delegate from it: {@link MappedBookItemReader} resumes at the saved
+ * offset. A delegate that keeps no state falls back to the number of items handed to the step, a restart then
+ * opens it from the beginning and discards that many items on the producer thread. Parse errors are handed over in
+ * order like items and the producer carries on, any other failure ends the stream.
+ * <p>
+ * Not thread safe, use one instance per step execution.
+ */
+public class PrefetchingItemReader<T> extends ItemStreamSupport implements ItemStreamReader<T> {
+
+    static final String CONSUMED_KEY = "consumed";
+    static final String DELEGATE_KEY_PREFIX = "delegate.";
+
+    private static final Object END = new Object();
+    private static final long JOIN_TIMEOUT_SECONDS = 10;
+
+    private final ItemStreamReader<T> delegate;
+
+    private final BlockingQueue<Object> queue;
+
+    private final ThreadFactory threadFactory;
+
+    private Thread producer;
+
+    private long consumed;
+
+    private ExecutionContext delegateState;
+
+    private boolean ended;
+
+    private record Failure(Exception exception) {
+    }
+
+    /**
+     * An item or a parse {@link Failure} with the delegate state right after it was read, null when the delegate
+     * keeps no state.
+     */
+    private record Prefetched(Object item, ExecutionContext delegateState) {
+    }
+
+    public PrefetchingItemReader(ItemStreamReader<T> delegate, int capacity, ThreadFactory threadFactory) {
+        Assert.notNull(delegate, "delegate is required");
+        Assert.isTrue(capacity > 0, "capacity must be positive");
+        this.delegate = delegate;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.threadFactory = threadFactory;
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        consumed = executionContext.getLong(getExecutionContextKey(CONSUMED_KEY), 0);
+        delegateState = savedDelegateState(executionContext);
+        ended = false;
+        queue.clear();
+        delegate.open(delegateState == null ? new ExecutionContext() : new ExecutionContext(delegateState));
+        long skip = delegateState == null ? consumed : 0;
+        producer = threadFactory.newThread(() -> produce(skip));
+        producer.start();
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        executionContext.putLong(getExecutionContextKey(CONSUMED_KEY), consumed);
+        if (delegateState != null) {
+            for (var entry : delegateState.entrySet()) {
+                executionContext.put(getExecutionContextKey(DELEGATE_KEY_PREFIX + entry.getKey()), entry.getValue());
+            }
+        }
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        try {
+            if (producer != null) {
+                producer.interrupt();
+                producer.join(TimeUnit.SECONDS.toMillis(JOIN_TIMEOUT_SECONDS));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            producer = null;
+            queue.clear();
+            delegate.close();
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T read() throws Exception {
+        Assert.state(producer != null, "Reader must be open before it can be read");
+        if (ended) {
+            return null;
+        }
+        var next = queue.take();
+        if (next == END) {
+            ended = true;
+            return null;
+        }
+        consumed++;
+        if (next instanceof Prefetched prefetched) {
+            if (prefetched.delegateState() != null) {
+                delegateState = prefetched.delegateState();
+            }
+            next = prefetched.item();
+        }
+        if (next instanceof Failure failure) {
+            throw failure.exception();
+        }
+        return (T) next;
+    }
+
+    private ExecutionContext savedDelegateState(ExecutionContext executionContext) {
+        var prefix = getExecutionContextKey(DELEGATE_KEY_PREFIX);
+        var state = new ExecutionContext();
+        for (var entry : executionContext.entrySet()) {
+            if (entry.getKey().startsWith(prefix)) {
+                state.put(entry.getKey().substring(prefix.length()), entry.getValue());
+            }
+        }
+        return state.isEmpty() ? null : state;
+    }
+
+    private ExecutionContext snapshotDelegateState() {
+        var state = new ExecutionContext();
+        delegate.update(state);
+        return state.isEmpty() ? null : state;
+    }
+
+    private void produce(long skip) {
+        try {
+            for (long i = 0; i < skip; i++) {
+                try {
+                    if (delegate.read() == null) {
+                        break;
+                    }
+                } catch (ParseException e) {
+                    // counted as consumed when it was handed over, skipped again
+                }
+            }
+            while (!Thread.currentThread().isInterrupted()) {
+                T item;
+                try {
+                    item = delegate.read();
+                } catch (ParseException e) {
+                    queue.put(new Prefetched(new Failure(e), snapshotDelegateState()));
+                    continue;
+                }
+                if (item == null) {
+                    queue.put(END);
+                    return;
+                }
+                queue.put(new Prefetched(item, snapshotDelegateState()));
+            }
+        } catch (InterruptedException e) {
+            // closed by the step
+        } catch (Exception e) {
+            try {
+                queue.put(new Failure(e));
+                queue.put(END);
+            } catch (InterruptedException interrupted) {
+                // closed by the step
+            }
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package org.springdemo.batchweb.job.reject;
+
+import org.springdemo.batchweb.entity.BookEntity;
+import org.springdemo.batchweb.util.JdbcSavepointTemplate;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.batch.item.WriteFailedException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Writes each chunk under a JDBC savepoint of the chunk transaction. When a book violates a constraint the write is
+ * rolled back to the savepoint and the chunk is split in halves written the same way, down to the single books
+ * that fail, which are rejected through the {@link ImportRejectHandler} and removed from the chunk. The rest of
+ * the chunk is committed.
+ * <p>
+ * Isolating {@code k} bad books out of a chunk of {@code n} takes about {@code k * log2(n)} writes, where the
+ * item by item scan of a fault tolerant step rolls the whole chunk back and writes every book in its own
+ * transaction.
+ */
+public class BisectingBookItemWriter implements ItemWriter<BookEntity> {
+
+    private final ItemWriter<BookEntity> delegate;
+
+    private final ImportRejectHandler rejectHandler;
+
+    private final JdbcSavepointTemplate savepoint;
+
+    public BisectingBookItemWriter(ItemWriter<BookEntity> delegate, ImportRejectHandler rejectHandler,
+                                   DataSource dataSource) {
+        this.delegate = delegate;
+        this.rejectHandler = rejectHandler;
+        this.savepoint = new JdbcSavepointTemplate(dataSource);
+    }
+
+    @Override
+    public void write(Chunk<? extends BookEntity> chunk) {
+        Set<BookEntity> rejected = Collections.newSetFromMap(new IdentityHashMap<>());
+        write(new ArrayList<>(chunk.getItems()), rejected);
+        if (rejected.isEmpty()) {
+            return;
+        }
+        // listeners and the write count only see the books that were written
+        for (var items = chunk.iterator(); items.hasNext(); ) {
+            if (rejected.contains(items.next())) {
+                items.remove();
+            }
+        }
+    }
+
+    private void write(List<BookEntity> books, Set<BookEntity> rejected) {
+        try {
+            savepoint.execute(() -> {
+                try {
+                    delegate.write(new Chunk<>(books));
+                } catch (RuntimeException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new WriteFailedException("Could not write books", e);
+                }
+            });
+        } catch (DataIntegrityViolationException e) {
+            if (books.size() == 1) {
+                rejectHandler.rejectWrite(books.get(0), e);
+                rejected.add(books.get(0));
+                return;
+            }
+            int half = books.size() / 2;
+            write(books.subList(0, half), rejected);
+            write(books.subList(half, books.size()), rejected);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package org.springdemo.batchweb.job.reject;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * CSV file of the rows an import rejected, one {@code LINE,REASON,RECORD} row each. Opened on the first reject so
+ * clean imports leave no file behind, and appended to so a restart keeps the rejects of the previous executions.
+ * <p>
+ * Shared by the steps and partitions of one job execution. The skip limit is checked with {@link #tryReserve} when a
+ * row is skipped, the {@link ImportRejectHandler} only calls {@link #reject} once the chunk of the row committed.
+ */
+public class ImportRejectFile {
+
+    static final String HEADER = "LINE,REASON,RECORD";
+
+    private final Path path;
+
+    private Writer writer;
+
+    private long count;
+
+    private long reserved;
+
+    ImportRejectFile(Path path) {
+        this(path, 0);
+    }
+
+    /**
+     * @param reserved rejects already taken by previous executions of the job, they count against the limit
+     */
+    ImportRejectFile(Path path, long reserved) {
+        this.path = path;
+        this.reserved = reserved;
+    }
+
+    /**
+     * Appends a rejected row and returns the number of rows rejected by this execution so far.
+     *
+     * @param line line number of the row in the imported file, 0 when it is not known
+     */
+    public synchronized long reject(long line, String reason, String record) {
+        try {
+            if (writer == null) {
+                open();
+            }
+            writer.append(line > 0 ? Long.toString(line) : "").append(',')
+                    .append(quote(reason)).append(',')
+                    .append(quote(record)).append('\n');
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write to " + path, e);
+        }
+        return ++count;
+    }
+
+    /**
+     * Reserves one of the {@code limit} rejects of the job instance, false once they are all taken.
+     */
+    public synchronized boolean tryReserve(long limit) {
+        if (reserved >= limit) {
+            return false;
+        }
+        reserved++;
+        return true;
+    }
+
+    /**
+     * Gives back {@code count} reservations of rows that were not rejected after all, their chunk rolled back.
+     */
+    public synchronized void release(long count) {
+        reserved -= count;
+    }
+
+    public synchronized long getCount() {
+        return count;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    synchronized void close() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not close " + path, e);
+        } finally {
+            writer = null;
+        }
+    }
+
+    private void open() throws IOException {
+        Files.createDirectories(path.getParent());
+        boolean exists = Files.exists(path);
+        writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        if (!exists) {
+            writer.append(HEADER).append('\n');
+        }
+    }
+
+    /**
+     * Quotes a field as RFC 4180 does, the raw record of a malformed line may hold quotes, commas and line breaks.
+     */
+    static String quote(String field) {
+        if (field == null) {
+            return "";
+        }
+        return '"' + field.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,85 @@
+package org.springdemo.batchweb.job.reject;
+
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Reject files of the imports, one per correlation id in {@code batchweb.import.reject.directory}. The open file of
+ * a job execution is shared by all of its steps and partitions and released by the job listener when it ends, the
+ * file itself stays for download.
+ * <p>
+ * The skip limit covers the whole job instance: a restarted execution starts with the rows skipped by the
+ * previous executions already reserved, as committed in their step executions.
+ */
+@Component
+public class ImportRejectFiles {
+
+    private static final Pattern UNSAFE_FILE_NAME_CHARACTERS = Pattern.compile("[^A-Za-z0-9._-]");
+
+    private final Path directory;
+
+    private final JobExplorer jobExplorer;
+
+    private final Map<Long, ImportRejectFile> filesByJobExecution = new ConcurrentHashMap<>();
+
+    public ImportRejectFiles(
+            @Value("${batchweb.import.reject.directory:${java.io.tmpdir}/batchweb-rejects}") Path directory,
+            JobExplorer jobExplorer) {
+        this.directory = directory;
+        this.jobExplorer = jobExplorer;
+    }
+
+    public ImportRejectFile forJob(long jobExecutionId, String correlationId) {
+        return filesByJobExecution.computeIfAbsent(jobExecutionId,
+                id -> new ImportRejectFile(path(correlationId), skippedByPreviousExecutions(id)));
+    }
+
+    public void release(long jobExecutionId) {
+        var file = filesByJobExecution.remove(jobExecutionId);
+        if (file != null) {
+            file.close();
+        }
+    }
+
+    public Optional<Path> find(String correlationId) {
+        var path = path(correlationId);
+        return Files.isRegularFile(path) ? Optional.of(path) : Optional.empty();
+    }
+
+    private long skippedByPreviousExecutions(long jobExecutionId) {
+        var jobExecution = jobExplorer.getJobExecution(jobExecutionId);
+        if (jobExecution == null) {
+            return 0;
+        }
+        return jobExplorer.getJobExecutions(jobExecution.getJobInstance()).stream()
+                .filter(execution -> execution.getId() < jobExecutionId)
+                .mapToLong(execution -> skipped(execution.getStepExecutions()))
+                .sum();
+    }
+
+    /**
+     * Skips of the step executions, a partitioned step sums those of its workers, named after it, and is left out.
+     */
+    private static long skipped(Collection<StepExecution> stepExecutions) {
+        return stepExecutions.stream()
+                .filter(step -> stepExecutions.stream()
+                        .noneMatch(other -> other.getStepName().startsWith(step.getStepName() + ":")))
+                .mapToLong(StepExecution::getSkipCount)
+                .sum();
+    }
+
+    private Path path(String correlationId) {
+        // correlation ids come from a request header, keep them from naming a file outside the directory
+        return directory.resolve(UNSAFE_FILE_NAME_CHARACTERS.matcher(correlationId).replaceAll("_") + ".csv");
+    }
+}
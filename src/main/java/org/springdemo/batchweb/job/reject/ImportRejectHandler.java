@@ -0,0 +1,167 @@
+package org.springdemo.batchweb.job.reject;
+
+import org.springdemo.batchweb.entity.BookEntity;
+import org.springdemo.batchweb.job.processor.DuplicateIsbnException;
+import org.springdemo.batchweb.model.Book;
+import org.springframework.batch.core.SkipListener;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.skip.SkipLimitExceededException;
+import org.springframework.batch.core.step.skip.SkipPolicy;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.item.file.FlatFileParseException;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.Assert;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Skip policy and skip listener of the import steps. Malformed lines, duplicate ISBNs and rows violating a constraint
+ * are skipped and appended to the {@link ImportRejectFile} of the job until {@code skipLimit} rows have been rejected,
+ * the next one fails the step. The limit is shared by every step and partition of the job and by its restarts, a limit
+ * of 0 keeps the import strict and fails it on the first bad row.
+ * <p>
+ * Every chunk of the step runs through {@link #execute}. The rejects of a chunk are appended to the file once its
+ * transaction commits and dropped when it rolls back, the rows are then rejected again by the retry or the restart
+ * that writes the chunk.
+ */
+public class ImportRejectHandler implements SkipPolicy, SkipListener<Book, BookEntity> {
+
+    private final ImportRejectFile rejectFile;
+
+    private final long skipLimit;
+
+    private ChunkRejects chunkRejects;
+
+    public ImportRejectHandler(ImportRejectFile rejectFile, long skipLimit) {
+        this.rejectFile = rejectFile;
+        this.skipLimit = skipLimit;
+    }
+
+    public boolean isEnabled() {
+        return skipLimit > 0;
+    }
+
+    @Override
+    public boolean shouldSkip(Throwable t, long skipCount) throws SkipLimitExceededException {
+        if (!isEnabled() || !(t instanceof FlatFileParseException || t instanceof DuplicateIsbnException
+                || t instanceof DataIntegrityViolationException)) {
+            return false;
+        }
+        // a negative count only asks whether the exception is skippable, no item is skipped yet
+        if (skipCount >= 0 && !rejectFile.tryReserve(skipLimit)) {
+            throw new SkipLimitExceededException(skipLimit, t);
+        }
+        return true;
+    }
+
+    /**
+     * Runs one chunk of the step in its transaction, collecting the rejects of the chunk until it completes.
+     */
+    public RepeatStatus execute(Tasklet chunkTasklet, StepContribution contribution, ChunkContext chunkContext)
+            throws Exception {
+        var rejects = new ChunkRejects(contribution);
+        TransactionSynchronizationManager.registerSynchronization(rejects);
+        chunkRejects = rejects;
+        try {
+            return chunkTasklet.execute(contribution, chunkContext);
+        } finally {
+            chunkRejects = null;
+        }
+    }
+
+    @Override
+    public void onSkipInRead(Throwable t) {
+        if (t instanceof FlatFileParseException e) {
+            chunkRejects().add(new Reject(e.getLineNumber(), e.getMessage(), e.getInput()));
+        } else {
+            chunkRejects().add(new Reject(0, t.getMessage(), null));
+        }
+    }
+
+    @Override
+    public void onSkipInProcess(Book book, Throwable t) {
+        chunkRejects().add(new Reject(0, t.getMessage(),
+                record(book.isbn(), book.title(), book.authors(), book.yearPublished())));
+    }
+
+    @Override
+    public void onSkipInWrite(BookEntity book, Throwable t) {
+        chunkRejects().add(new Reject(0, t.getMessage(), record(book)));
+    }
+
+    /**
+     * Rejects a book the writer isolated as violating a constraint, counted as a write skip of the chunk.
+     *
+     * @throws SkipLimitExceededException when the job already rejected {@code skipLimit} rows
+     */
+    public void rejectWrite(BookEntity book, DataIntegrityViolationException e) {
+        var rejects = chunkRejects();
+        if (!rejectFile.tryReserve(skipLimit)) {
+            throw new SkipLimitExceededException(skipLimit, e);
+        }
+        rejects.reserved++;
+        rejects.add(new Reject(0, e.getMostSpecificCause().getMessage(), record(book)));
+        rejects.contribution.incrementWriteSkipCount();
+    }
+
+    private ChunkRejects chunkRejects() {
+        Assert.state(chunkRejects != null, "Rejects are only recorded while a chunk is executed");
+        return chunkRejects;
+    }
+
+    private record Reject(long line, String reason, String record) {
+    }
+
+    /**
+     * Rejects of one chunk transaction. Rows skipped by Spring Batch are kept with the chunk when it is retried,
+     * only the reservations taken by {@link #rejectWrite} are given back on rollback since the writer runs again.
+     */
+    private final class ChunkRejects implements TransactionSynchronization {
+
+        private final StepContribution contribution;
+
+        private final List<Reject> rejects = new ArrayList<>();
+
+        private long reserved;
+
+        private ChunkRejects(StepContribution contribution) {
+            this.contribution = contribution;
+        }
+
+        private void add(Reject reject) {
+            rejects.add(reject);
+        }
+
+        @Override
+        public void afterCommit() {
+            for (var reject : rejects) {
+                rejectFile.reject(reject.line(), reject.reason(), reject.record());
+            }
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            if (status != STATUS_COMMITTED) {
+                rejectFile.release(reserved);
+            }
+        }
+    }
+
+    private static String record(BookEntity book) {
+        return record(book.getIsbn(), book.getTitle(), book.getAuthors(), book.getYearPublished());
+    }
+
+    private static String record(String isbn, String title, String authors, Integer yearPublished) {
+        return Stream.of(isbn, title, authors, yearPublished)
+                .map(field -> ImportRejectFile.quote(Objects.toString(field, null)))
+                .collect(Collectors.joining(","));
+    }
+}
@@ -0,0 +1,161 @@
+package org.springdemo.batchweb.job.stream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded in-memory pipe between the request thread receiving an upload and the step reading it.
+ * <p>
+ * The sink blocks once {@code capacity} blocks are waiting to be read, which throttles the upload to the pace of
+ * the import. Either side may {@link #abort(Throwable)} the pipe, the other side then fails on its next call
+ * instead of waiting forever.
+ */
+public class StreamingImportPipe {
+
+    private static final byte[] END_OF_STREAM = new byte[0];
+    private static final long POLL_MILLIS = 200;
+
+    private final BlockingQueue<byte[]> blocks;
+
+    private volatile Throwable failure;
+
+    private final OutputStream sink = new Sink();
+
+    private final InputStream source = new Source();
+
+    public StreamingImportPipe(int capacity) {
+        this.blocks = new ArrayBlockingQueue<>(capacity);
+    }
+
+    /**
+     * Stream written by the upload, closing it signals the end of the data.
+     */
+    public OutputStream sink() {
+        return sink;
+    }
+
+    /**
+     * Stream read by the import step.
+     */
+    public InputStream source() {
+        return source;
+    }
+
+    public void abort(Throwable cause) {
+        if (failure == null) {
+            failure = cause;
+        }
+        blocks.clear();
+    }
+
+    private void checkFailure() throws IOException {
+        var cause = failure;
+        if (cause != null) {
+            throw new IOException("Streaming import aborted", cause);
+        }
+    }
+
+    private final class Sink extends OutputStream {
+
+        private boolean closed;
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (closed) {
+                throw new IOException("Pipe sink is closed");
+            }
+            if (len > 0) {
+                put(Arrays.copyOfRange(b, off, off + len));
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!closed) {
+                closed = true;
+                put(END_OF_STREAM);
+            }
+        }
+
+        private void put(byte[] block) throws IOException {
+            try {
+                do {
+                    checkFailure();
+                } while (!blocks.offer(block, POLL_MILLIS, TimeUnit.MILLISECONDS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while writing to the import pipe");
+            }
+        }
+    }
+
+    private final class Source extends InputStream {
+
+        private byte[] block;
+
+        private int index;
+
+        @Override
+        public int read() throws IOException {
+            if (!nextBlock()) {
+                return -1;
+            }
+            return block[index++] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (!nextBlock()) {
+                return -1;
+            }
+            int read = Math.min(len, block.length - index);
+            System.arraycopy(block, index, b, off, read);
+            index += read;
+            return read;
+        }
+
+        @Override
+        public int available() {
+            return block == null || block == END_OF_STREAM ? 0 : block.length - index;
+        }
+
+        @Override
+        public void close() {
+            abort(new IOException("Import pipe closed by the reader"));
+        }
+
+        private boolean nextBlock() throws IOException {
+            if (block == END_OF_STREAM) {
+                return false;
+            }
+            while (block == null || index >= block.length) {
+                try {
+                    checkFailure();
+                    block = blocks.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                    index = 0;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while reading from the import pipe");
+                }
+                if (block == END_OF_STREAM) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package org.springdemo.batchweb.job.stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pipes of the streaming imports in progress on this node, keyed by correlation id.
+ */
+@Component
+public class StreamingImportRegistry {
+
+    private final Map<String, StreamingImportPipe> pipes = new ConcurrentHashMap<>();
+
+    private final int capacity;
+
+    public StreamingImportRegistry(@Value("${batchweb.import.stream.buffer-blocks:64}") int capacity) {
+        this.capacity = capacity;
+    }
+
+    public StreamingImportPipe open(String correlationId) {
+        var pipe = new StreamingImportPipe(capacity);
+        if (pipes.putIfAbsent(correlationId, pipe) != null) {
+            throw new IllegalStateException("Streaming import %s is already in progress".formatted(correlationId));
+        }
+        return pipe;
+    }
+
+    public StreamingImportPipe get(String correlationId) {
+        var pipe = pipes.get(correlationId);
+        if (pipe == null) {
+            throw new IllegalStateException("No streaming import in progress for %s".formatted(correlationId));
+        }
+        return pipe;
+    }
+
+    /**
+     * Releases the pipe of a finished import, an upload still writing to it fails instead of blocking.
+     */
+    public void close(String correlationId) {
+        var pipe = pipes.remove(correlationId);
+        if (pipe != null) {
+            pipe.abort(new IllegalStateException("Import %s has finished".formatted(correlationId)));
+        }
+    }
+}
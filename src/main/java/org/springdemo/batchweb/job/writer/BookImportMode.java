@@ -0,0 +1,19 @@
+package org.springdemo.batchweb.job.writer;
+
+/**
+ * What an import does with books whose ISBN is already in the table, chosen per job with the
+ * {@code import-mode} parameter.
+ */
+public enum BookImportMode {
+    /** Plain inserts through the configured {@link BookWriterMode}, an existing ISBN fails the chunk. */
+    INSERT,
+    /** MERGE on ISBN, existing books are overwritten with the imported title, authors and year. */
+    UPSERT,
+    /** MERGE on ISBN that only updates existing books whose title, authors or year differ. */
+    UPSERT_CHANGED,
+    /**
+     * Compares the content hash of each book with the stored one and skips unchanged books before the writer,
+     * the new and changed ones are written like {@link #UPSERT}.
+     */
+    DELTA
+}
@@ -0,0 +1,73 @@
+package org.springdemo.batchweb.job.writer;
+
+import org.springdemo.batchweb.entity.BookEntity;
+import org.springdemo.batchweb.stats.BookStats;
+import org.springdemo.batchweb.stats.BookStatsDelta;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Keeps the {@link BookStats} counters in step with the books of each chunk, in the chunk transaction: the counters
+ * commit and roll back with the books.
+ * <p>
+ * When the import may replace existing books the stored year and authors of the chunk's ISBNs are read, and locked,
+ * before the delegate writes, so an update moves the book from its old counters to its new ones. The counters are
+ * updated once the delegate is done and only for the books left in the chunk: a book the delegate rejected keeps its
+ * stored row and its counters. Their row locks are held for the end of the chunk only.
+ */
+public class BookStatsItemWriter implements ItemWriter<BookEntity> {
+
+    static final String STORED_BOOKS_SQL =
+            "SELECT ISBN, AUTHORS, YEAR_PUBLISHED FROM BOOK_ENTITY WHERE ISBN = ANY(?) FOR UPDATE";
+
+    private record StoredBook(String authors, Integer yearPublished) {
+    }
+
+    private final ItemWriter<BookEntity> delegate;
+
+    private final BookStats bookStats;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final boolean replacing;
+
+    /**
+     * @param replacing the delegate may update existing books, {@code false} for plain inserts
+     */
+    public BookStatsItemWriter(ItemWriter<BookEntity> delegate, BookStats bookStats, JdbcTemplate jdbcTemplate,
+                               boolean replacing) {
+        this.delegate = delegate;
+        this.bookStats = bookStats;
+        this.jdbcTemplate = jdbcTemplate;
+        this.replacing = replacing;
+    }
+
+    @Override
+    public void write(Chunk<? extends BookEntity> chunk) throws Exception {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        Map<String, StoredBook> stored = new HashMap<>();
+        if (replacing) {
+            var isbns = chunk.getItems().stream().map(BookEntity::getIsbn).toArray(String[]::new);
+            jdbcTemplate.query(STORED_BOOKS_SQL, (RowCallbackHandler) rs -> stored.put(rs.getString(1),
+                    new StoredBook(rs.getString(2), rs.getObject(3, Integer.class))), (Object) isbns);
+        }
+        delegate.write(chunk);
+        // a bisecting delegate removes the books it rejected from the chunk
+        var delta = new BookStatsDelta();
+        for (var book : chunk) {
+            var previous = stored.remove(book.getIsbn());
+            if (previous != null) {
+                delta.remove(previous.authors(), previous.yearPublished());
+            }
+            delta.add(book.getAuthors(), book.getYearPublished());
+        }
+        bookStats.apply(delta);
+    }
+}
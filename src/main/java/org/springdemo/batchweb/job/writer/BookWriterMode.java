@@ -0,0 +1,13 @@
+package org.springdemo.batchweb.job.writer;
+
+/**
+ * How the import step persists each chunk of {@link org.springdemo.batchweb.entity.BookEntity}.
+ */
+public enum BookWriterMode {
+    /** {@code BookRepository.saveAll}, goes through the persistence context. */
+    JPA,
+    /** One prepared INSERT executed as a JDBC batch. */
+    JDBC_BATCH,
+    /** INSERT statements carrying several rows in their VALUES clause. */
+    JDBC_MULTI_ROW
+}
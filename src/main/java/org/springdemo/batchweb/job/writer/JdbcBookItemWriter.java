@@ -0,0 +1,105 @@
+package org.springdemo.batchweb.job.writer;
+
+import org.springdemo.batchweb.entity.BookEntity;
+import org.springdemo.batchweb.repository.BookIdAllocator;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.Assert;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Writes books straight through JDBC, bypassing the persistence context.
+ * <p>
+ * Runs inside the chunk transaction, the connection is the one bound by the step's transaction manager. Ids are
+ * assigned up front from {@link BookIdAllocator} so the written entities carry them afterwards.
+ */
+public class JdbcBookItemWriter implements ItemWriter<BookEntity> {
+
+    static final String INSERT_PREFIX = "INSERT INTO BOOK_ENTITY (ID, ISBN, TITLE, AUTHORS, YEAR_PUBLISHED, CONTENT_HASH) VALUES ";
+    static final String ROW_PLACEHOLDER = "(?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final BookIdAllocator idAllocator;
+
+    private final BookWriterMode mode;
+
+    private final int rowsPerStatement;
+
+    private final Map<Integer, String> multiRowStatements = new ConcurrentHashMap<>();
+
+    public JdbcBookItemWriter(JdbcTemplate jdbcTemplate, BookIdAllocator idAllocator, BookWriterMode mode,
+                              int rowsPerStatement) {
+        Assert.isTrue(mode != BookWriterMode.JPA, "JPA mode is not handled by the JDBC writer");
+        Assert.isTrue(rowsPerStatement > 0, "rowsPerStatement must be positive");
+        this.jdbcTemplate = jdbcTemplate;
+        this.idAllocator = idAllocator;
+        this.mode = mode;
+        this.rowsPerStatement = rowsPerStatement;
+    }
+
+    @Override
+    public void write(Chunk<? extends BookEntity> chunk) {
+        List<? extends BookEntity> items = chunk.getItems();
+        if (items.isEmpty()) {
+            return;
+        }
+        var ids = idAllocator.allocate(items.size());
+        for (int i = 0; i < ids.length; i++) {
+            items.get(i).setId(ids[i]);
+        }
+        if (mode == BookWriterMode.JDBC_BATCH) {
+            jdbcTemplate.batchUpdate(INSERT_PREFIX + ROW_PLACEHOLDER, items, items.size(),
+                    (ps, book) -> bind(ps, 1, book));
+            return;
+        }
+        for (int from = 0; from < items.size(); from += rowsPerStatement) {
+            var rows = items.subList(from, Math.min(from + rowsPerStatement, items.size()));
+            jdbcTemplate.update(multiRowStatement(rows.size()), ps -> {
+                int index = 1;
+                for (BookEntity book : rows) {
+                    index = bind(ps, index, book);
+                }
+            });
+        }
+    }
+
+    private String multiRowStatement(int rows) {
+        return multiRowStatements.computeIfAbsent(rows, n -> {
+            var sql = new StringBuilder(INSERT_PREFIX.length() + n * (ROW_PLACEHOLDER.length() + 2));
+            sql.append(INSERT_PREFIX);
+            for (int i = 0; i < n; i++) {
+                if (i > 0) {
+                    sql.append(", ");
+                }
+                sql.append(ROW_PLACEHOLDER);
+            }
+            return sql.toString();
+        });
+    }
+
+    private static int bind(PreparedStatement ps, int index, BookEntity book) throws SQLException {
+        ps.setLong(index++, book.getId());
+        ps.setString(index++, book.getIsbn());
+        ps.setString(index++, book.getTitle());
+        ps.setString(index++, book.getAuthors());
+        if (book.getYearPublished() == null) {
+            ps.setNull(index++, Types.INTEGER);
+        } else {
+            ps.setInt(index++, book.getYearPublished());
+        }
+        if (book.getContentHash() == null) {
+            ps.setNull(index++, Types.BIGINT);
+        } else {
+            ps.setLong(index++, book.getContentHash());
+        }
+        return index;
+    }
+}
@@ -0,0 +1,85 @@
+package org.springdemo.batchweb.job.writer;
+
+import org.springdemo.batchweb.entity.BookEntity;
+import org.springdemo.batchweb.repository.BookIdAllocator;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * Writes books with a batched MERGE on ISBN, re-importing a catalog updates the books already there instead of
+ * failing the chunk on the unique ISBN constraint.
+ * <p>
+ * Ids are allocated up front for every item as the writer can not know which rows will be inserted. The ids of the
+ * rows that end up updated are left unused, the entities of those rows carry an id that was not stored.
+ */
+public class JdbcBookMergeItemWriter implements ItemWriter<BookEntity> {
+
+    static final String MERGE_PREFIX = """
+            MERGE INTO BOOK_ENTITY T
+            USING (VALUES (CAST(? AS BIGINT), CAST(? AS VARCHAR(13)), CAST(? AS VARCHAR(255)),
+                           CAST(? AS VARCHAR(255)), CAST(? AS INTEGER), CAST(? AS BIGINT)))
+                AS S (ID, ISBN, TITLE, AUTHORS, YEAR_PUBLISHED, CONTENT_HASH)
+            ON T.ISBN = S.ISBN
+            """;
+
+    static final String CHANGED_CONDITION = """
+            AND (T.TITLE IS DISTINCT FROM S.TITLE
+                OR T.AUTHORS IS DISTINCT FROM S.AUTHORS
+                OR T.YEAR_PUBLISHED IS DISTINCT FROM S.YEAR_PUBLISHED
+                OR T.CONTENT_HASH IS DISTINCT FROM S.CONTENT_HASH)
+            """;
+
+    static final String MERGE_ACTIONS = """
+            THEN UPDATE SET TITLE = S.TITLE, AUTHORS = S.AUTHORS, YEAR_PUBLISHED = S.YEAR_PUBLISHED,
+                CONTENT_HASH = S.CONTENT_HASH
+            WHEN NOT MATCHED THEN INSERT (ID, ISBN, TITLE, AUTHORS, YEAR_PUBLISHED, CONTENT_HASH)
+                VALUES (S.ID, S.ISBN, S.TITLE, S.AUTHORS, S.YEAR_PUBLISHED, S.CONTENT_HASH)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final BookIdAllocator idAllocator;
+
+    final String sql;
+
+    /**
+     * @param changedOnly only update existing books whose columns differ, identical rows are not rewritten
+     */
+    public JdbcBookMergeItemWriter(JdbcTemplate jdbcTemplate, BookIdAllocator idAllocator, boolean changedOnly) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.idAllocator = idAllocator;
+        this.sql = MERGE_PREFIX + "WHEN MATCHED " + (changedOnly ? CHANGED_CONDITION : "") + MERGE_ACTIONS;
+    }
+
+    @Override
+    public void write(Chunk<? extends BookEntity> chunk) {
+        List<? extends BookEntity> items = chunk.getItems();
+        if (items.isEmpty()) {
+            return;
+        }
+        var ids = idAllocator.allocate(items.size());
+        for (int i = 0; i < ids.length; i++) {
+            items.get(i).setId(ids[i]);
+        }
+        jdbcTemplate.batchUpdate(sql, items, items.size(), (ps, book) -> {
+            ps.setLong(1, book.getId());
+            ps.setString(2, book.getIsbn());
+            ps.setString(3, book.getTitle());
+            ps.setString(4, book.getAuthors());
+            if (book.getYearPublished() == null) {
+                ps.setNull(5, Types.INTEGER);
+            } else {
+                ps.setInt(5, book.getYearPublished());
+            }
+            if (book.getContentHash() == null) {
+                ps.setNull(6, Types.BIGINT);
+            } else {
+                ps.setLong(6, book.getContentHash());
+            }
+        });
+    }
+}
@@ -1,6 +1,7 @@
 package org.springdemo.batchweb.mappers;
 
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import org.springdemo.batchweb.entity.BookEntity;
 import org.springdemo.batchweb.model.Book;
 
@@ -13,6 +14,7 @@ public interface BookMappers {
 
     Collection<Book> mapEntitiesToModels(Collection<BookEntity> entities);
 
+    @Mapping(target = "contentHash", ignore = true)
     BookEntity mapModelToEntity(Book model);
 
     Collection<BookEntity> mapModelsToEntities(Collection<Book> models);
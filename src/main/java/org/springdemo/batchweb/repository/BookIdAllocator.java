@@ -0,0 +1,42 @@
+package org.springdemo.batchweb.repository;
+
+import org.springdemo.batchweb.entity.BookEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hands out BOOK_ENTITY ids to the JDBC writers with the same block semantics as Hibernate's pooled optimizer:
+ * every BOOK_SEQ value is the upper bound of a block of {@link BookEntity#ID_ALLOCATION_SIZE} ids, so both
+ * paths can share the sequence without colliding.
+ */
+@Component
+public class BookIdAllocator {
+
+    private static final String NEXT_BLOCK_SQL = "SELECT NEXT VALUE FOR BOOK_SEQ";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private long next;
+
+    private long hi;
+
+    public BookIdAllocator(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public synchronized long[] allocate(int count) {
+        var ids = new long[count];
+        for (int i = 0; i < count; i++) {
+            if (next == 0 || next > hi) {
+                Long blockHi = jdbcTemplate.queryForObject(NEXT_BLOCK_SQL, Long.class);
+                if (blockHi == null) {
+                    throw new IllegalStateException("BOOK_SEQ returned no value");
+                }
+                hi = blockHi;
+                next = hi - BookEntity.ID_ALLOCATION_SIZE + 1;
+            }
+            ids[i] = next++;
+        }
+        return ids;
+    }
+}
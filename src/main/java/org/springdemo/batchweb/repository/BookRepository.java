@@ -1,8 +1,35 @@
 package org.springdemo.batchweb.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springdemo.batchweb.entity.BookEntity;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
 @Repository
-public interface BookRepository extends JpaRepository<org.springdemo.batchweb.entity.BookEntity, Long> {
+public interface BookRepository extends JpaRepository<BookEntity, Long> {
+
+    Optional<BookEntity> findByIsbn(String isbn);
+
+    List<BookEntity> findByIsbnIn(Collection<String> isbns);
+
+    /**
+     * Keyset page: the books following {@code id}, seeks through the primary key index instead of skipping rows.
+     */
+    List<BookEntity> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    /**
+     * All books in id order, fetched from a database cursor. Must be consumed inside a transaction and closed.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select b from BookEntity b order by b.id")
+    Stream<BookEntity> streamAllOrderById();
 }
@@ -0,0 +1,323 @@
+package org.springdemo.batchweb.search;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springdemo.batchweb.entity.BookEntity;
+import org.springdemo.batchweb.util.Isbns;
+import org.springdemo.batchweb.util.LongLongHashMap;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In memory inverted index of the book catalog over title and authors, {@link #search} finds the books holding
+ * every token of a query without touching the database.
+ * <p>
+ * Each indexed book is a document number, handed out in indexing order, and every token maps to the ascending
+ * document numbers holding it. Books are keyed by their ISBN packed in a {@code long}, the ISBN being the only key
+ * that stays put when an upsert rewrites a book. A book re-indexed with a different text gets a new document and
+ * its previous one is marked deleted, once deleted documents make up a quarter of the index the posting lists are
+ * compacted and the documents renumbered.
+ * <p>
+ * Searches share a read lock, indexing and compaction take the write lock.
+ */
+@Component
+public class BookSearchIndex {
+
+    private static final int MIN_DELETED_TO_COMPACT = 1024;
+
+    private static final int NO_DOC = -1;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, Postings> postings = new HashMap<>();
+
+    private LongLongHashMap docsByIsbn = new LongLongHashMap();
+
+    // ISBNs that do not round trip through Isbns.pack, expected to be rare
+    private final Map<String, Integer> docsByOtherIsbn = new HashMap<>();
+
+    private final Map<Integer, String> otherIsbnsByDoc = new HashMap<>();
+
+    private long[] docIsbns = new long[1024];
+
+    private long[] docHashes = new long[1024];
+
+    private final BitSet deleted = new BitSet();
+
+    private int docCount;
+
+    private int deletedCount;
+
+    public BookSearchIndex(MeterRegistry meterRegistry) {
+        Gauge.builder("search.index.size", this, BookSearchIndex::sizeInBytes)
+                .description("Estimated heap used by the book search index")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("search.index.books", this, BookSearchIndex::size)
+                .description("Books in the book search index")
+                .register(meterRegistry);
+        Gauge.builder("search.index.terms", this, BookSearchIndex::termCount)
+                .description("Distinct tokens in the book search index")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Indexes the title and authors of the books, replacing what was indexed for their ISBN before. Books whose
+     * text did not change are left alone.
+     */
+    public void index(Iterable<? extends BookEntity> books) {
+        lock.writeLock().lock();
+        try {
+            for (BookEntity book : books) {
+                index(book.getIsbn(), book.getTitle(), book.getAuthors());
+            }
+            if (deletedCount >= MIN_DELETED_TO_COMPACT && deletedCount * 4L > docCount) {
+                compact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * ISBNs of up to {@code limit} books holding every token of the query, in indexing order.
+     */
+    public List<String> search(String query, int limit) {
+        var tokens = BookSearchTokenizer.tokens(query);
+        if (tokens.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            var lists = new Postings[tokens.size()];
+            int i = 0;
+            for (var token : tokens) {
+                var list = postings.get(token);
+                if (list == null) {
+                    return List.of();
+                }
+                lists[i++] = list;
+            }
+            // walk the rarest token and look the others up, each list is only ever scanned forward
+            Arrays.sort(lists, Comparator.comparingInt(list -> list.size));
+            var cursors = new int[lists.length];
+            var isbns = new ArrayList<String>(Math.min(limit, lists[0].size));
+            candidates:
+            for (int c = 0; c < lists[0].size && isbns.size() < limit; c++) {
+                int doc = lists[0].docs[c];
+                if (deleted.get(doc)) {
+                    continue;
+                }
+                for (int l = 1; l < lists.length; l++) {
+                    cursors[l] = lists[l].seek(doc, cursors[l]);
+                    if (cursors[l] == lists[l].size) {
+                        break candidates;
+                    }
+                    if (lists[l].docs[cursors[l]] != doc) {
+                        continue candidates;
+                    }
+                }
+                isbns.add(isbnOf(doc));
+            }
+            return isbns;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docCount - deletedCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int termCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Approximate heap used by the index, from the sizes of its arrays and the usual object layout of a 64-bit
+     * JVM with compressed references.
+     */
+    public long sizeInBytes() {
+        lock.readLock().lock();
+        try {
+            long bytes = 16L + 8L * docIsbns.length + 16L + 8L * docHashes.length + docsByIsbn.sizeInBytes()
+                    + deleted.size() / 8;
+            for (var entry : postings.entrySet()) {
+                // map node, token String and its bytes, Postings and its array
+                bytes += 32 + 40 + entry.getKey().length() + 24 + 16 + 4L * entry.getValue().docs.length;
+            }
+            return bytes + 100L * docsByOtherIsbn.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void index(String isbn, String title, String authors) {
+        long hash = textHash(title, authors);
+        long packed = Isbns.pack(isbn);
+        if (packed != Isbns.NOT_PACKABLE && !Isbns.unpack(packed).equals(isbn)) {
+            packed = Isbns.NOT_PACKABLE;
+        }
+        int existing = packed == Isbns.NOT_PACKABLE
+                ? docsByOtherIsbn.getOrDefault(isbn, NO_DOC)
+                : (int) docsByIsbn.get(packed, NO_DOC);
+        if (existing != NO_DOC) {
+            if (docHashes[existing] == hash) {
+                return;
+            }
+            deleted.set(existing);
+            deletedCount++;
+        }
+        int doc = docCount++;
+        if (doc == docIsbns.length) {
+            docIsbns = Arrays.copyOf(docIsbns, doc * 2);
+            docHashes = Arrays.copyOf(docHashes, doc * 2);
+        }
+        docIsbns[doc] = packed;
+        docHashes[doc] = hash;
+        if (packed == Isbns.NOT_PACKABLE) {
+            docsByOtherIsbn.put(isbn, doc);
+            otherIsbnsByDoc.put(doc, isbn);
+        } else {
+            docsByIsbn.put(packed, doc);
+        }
+        for (var token : BookSearchTokenizer.tokens(title, authors)) {
+            postings.computeIfAbsent(token, t -> new Postings()).add(doc);
+        }
+    }
+
+    private String isbnOf(int doc) {
+        long packed = docIsbns[doc];
+        return packed == Isbns.NOT_PACKABLE ? otherIsbnsByDoc.get(doc) : Isbns.unpack(packed);
+    }
+
+    /**
+     * Drops the deleted documents from every posting list and renumbers the live ones in the same order, so the
+     * lists stay sorted.
+     */
+    private void compact() {
+        var renumbered = new int[docCount];
+        int live = 0;
+        for (int doc = 0; doc < docCount; doc++) {
+            renumbered[doc] = deleted.get(doc) ? NO_DOC : live++;
+        }
+        for (var entries = postings.values().iterator(); entries.hasNext(); ) {
+            var list = entries.next();
+            list.renumber(renumbered);
+            if (list.size == 0) {
+                entries.remove();
+            }
+        }
+        var isbns = new long[Math.max(1024, live)];
+        var hashes = new long[isbns.length];
+        var byIsbn = new LongLongHashMap(live);
+        var otherIsbns = new HashMap<>(otherIsbnsByDoc);
+        docsByOtherIsbn.clear();
+        otherIsbnsByDoc.clear();
+        for (int doc = 0; doc < docCount; doc++) {
+            int to = renumbered[doc];
+            if (to == NO_DOC) {
+                continue;
+            }
+            isbns[to] = docIsbns[doc];
+            hashes[to] = docHashes[doc];
+            if (docIsbns[doc] == Isbns.NOT_PACKABLE) {
+                var isbn = otherIsbns.get(doc);
+                docsByOtherIsbn.put(isbn, to);
+                otherIsbnsByDoc.put(to, isbn);
+            } else {
+                byIsbn.put(docIsbns[doc], to);
+            }
+        }
+        docIsbns = isbns;
+        docHashes = hashes;
+        docsByIsbn = byIsbn;
+        deleted.clear();
+        deletedCount = 0;
+        docCount = live;
+    }
+
+    /**
+     * FNV-1a of the indexed text, tells whether a re-indexed book changed.
+     */
+    private static long textHash(String title, String authors) {
+        long hash = 0xcbf29ce484222325L;
+        for (String text : new String[]{title, authors}) {
+            if (text != null) {
+                for (int i = 0; i < text.length(); i++) {
+                    hash = (hash ^ text.charAt(i)) * 0x100000001b3L;
+                }
+            }
+            hash = (hash ^ 0xffff) * 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * Ascending document numbers holding a token.
+     */
+    private static final class Postings {
+
+        private int[] docs = new int[4];
+
+        private int size;
+
+        void add(int doc) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+            }
+            docs[size++] = doc;
+        }
+
+        /**
+         * Index of the first document at or after {@code from} that is not below {@code doc}, {@link #size} when
+         * there is none. Gallops ahead then binary searches, cheap when the lists differ a lot in length.
+         */
+        int seek(int doc, int from) {
+            int step = 1;
+            int low = from;
+            int high = from;
+            while (high < size && docs[high] < doc) {
+                low = high + 1;
+                high += step;
+                step <<= 1;
+            }
+            high = Math.min(high, size);
+            int found = Arrays.binarySearch(docs, low, high, doc);
+            return found >= 0 ? found : -found - 1;
+        }
+
+        void renumber(int[] renumbered) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                int to = renumbered[docs[i]];
+                if (to != NO_DOC) {
+                    docs[kept++] = to;
+                }
+            }
+            size = kept;
+            if (kept < docs.length / 4) {
+                docs = Arrays.copyOf(docs, Math.max(4, kept));
+            }
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package org.springdemo.batchweb.search;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springdemo.batchweb.entity.BookEntity;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+
+/**
+ * Fills the {@link BookSearchIndex} with the stored catalog once the application is ready, the chunk imports keep it
+ * up to date from then on. A bulk load runs it again, books already indexed with the same text are skipped.
+ */
+@Component
+public class BookSearchIndexBuilder {
+
+    private static final Logger log = LoggerFactory.getLogger(BookSearchIndexBuilder.class);
+
+    private static final String BOOKS_SQL = "SELECT ISBN, TITLE, AUTHORS FROM BOOK_ENTITY";
+    private static final int FETCH_SIZE = 1000;
+    private static final int BATCH_SIZE = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final BookSearchIndex bookSearchIndex;
+
+    public BookSearchIndexBuilder(JdbcTemplate jdbcTemplate, BookSearchIndex bookSearchIndex) {
+        this.jdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.jdbcTemplate.setFetchSize(FETCH_SIZE);
+        this.bookSearchIndex = bookSearchIndex;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        long started = System.nanoTime();
+        var batch = new ArrayList<BookEntity>(BATCH_SIZE);
+        jdbcTemplate.query(BOOKS_SQL, (RowCallbackHandler) rs -> {
+            batch.add(new BookEntity(null, rs.getString(1), rs.getString(2), rs.getString(3), null));
+            if (batch.size() == BATCH_SIZE) {
+                bookSearchIndex.index(batch);
+                batch.clear();
+            }
+        });
+        bookSearchIndex.index(batch);
+        log.info("Indexed {} books, {} terms, {} KB in {} ms", bookSearchIndex.size(), bookSearchIndex.termCount(),
+                bookSearchIndex.sizeInBytes() / 1024, (System.nanoTime() - started) / 1_000_000);
+    }
+}
@@ -0,0 +1,54 @@
+package org.springdemo.batchweb.search;
+
+import java.text.Normalizer;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Splits text in lower case, accent folded tokens of letters and digits: "Cogolu&egrave;gnes" and "cogoluegnes"
+ * give the same token. Books and queries go through the same tokenizer.
+ */
+final class BookSearchTokenizer {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    private BookSearchTokenizer() {
+    }
+
+    /**
+     * Distinct tokens of the texts in order of appearance, {@code null} texts are ignored.
+     */
+    static Set<String> tokens(String... texts) {
+        var tokens = new LinkedHashSet<String>();
+        for (String text : texts) {
+            if (text == null) {
+                continue;
+            }
+            var folded = fold(text);
+            int start = -1;
+            for (int i = 0; i <= folded.length(); i++) {
+                boolean tokenChar = i < folded.length() && Character.isLetterOrDigit(folded.charAt(i));
+                if (tokenChar && start < 0) {
+                    start = i;
+                } else if (!tokenChar && start >= 0) {
+                    tokens.add(folded.substring(start, i));
+                    start = -1;
+                }
+            }
+        }
+        return tokens;
+    }
+
+    static String fold(String text) {
+        // most titles are plain ASCII, normalizing them would only allocate
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) > 0x7f) {
+                var decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+                return COMBINING_MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+            }
+        }
+        return text.toLowerCase(Locale.ROOT);
+    }
+}
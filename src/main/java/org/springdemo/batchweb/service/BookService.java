@@ -2,10 +2,32 @@ package org.springdemo.batchweb.service;
 
 import org.springdemo.batchweb.model.Book;
 
-import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface BookService {
 
-    Collection<Book> findAll();
+    /**
+     * Book with the given ISBN, served from the ISBN cache when present.
+     */
+    Optional<Book> findByIsbn(String isbn);
+
+    /**
+     * Up to {@code limit} books whose title or authors hold every word of the query, ignoring case and accents.
+     * Looked up in the in memory search index, the books themselves are served from the ISBN cache when present.
+     */
+    List<Book> search(String query, int limit);
+
+    /**
+     * Up to {@code limit} books with an id greater than {@code afterId}, in id order.
+     */
+    List<Book> findAfter(long afterId, int limit);
+
+    /**
+     * Passes every book, in id order, to {@code consumer} while reading them from a database cursor, the books are
+     * never held in memory all at once.
+     */
+    void forEach(Consumer<Book> consumer);
 
 }
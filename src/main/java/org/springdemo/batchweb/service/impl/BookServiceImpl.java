@@ -1,14 +1,24 @@
 package org.springdemo.batchweb.service.impl;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import jakarta.persistence.EntityManager;
+import org.springdemo.batchweb.entity.BookEntity;
 import org.springdemo.batchweb.mappers.BookMappers;
 import org.springdemo.batchweb.model.Book;
 import org.springdemo.batchweb.repository.BookRepository;
+import org.springdemo.batchweb.search.BookSearchIndex;
 import org.springdemo.batchweb.service.BookService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 @Service
 public class BookServiceImpl implements BookService {
@@ -17,15 +27,54 @@ public class BookServiceImpl implements BookService {
 
     private final BookMappers bookMappers;
 
+    private final EntityManager entityManager;
+
+    private final Cache<String, Book> bookIsbnCache;
+
+    private final BookSearchIndex bookSearchIndex;
+
     @Autowired
-    public BookServiceImpl(BookRepository bookRepository, BookMappers bookMappers) {
+    public BookServiceImpl(BookRepository bookRepository, BookMappers bookMappers, EntityManager entityManager,
+                           Cache<String, Book> bookIsbnCache, BookSearchIndex bookSearchIndex) {
         this.bookRepository = bookRepository;
         this.bookMappers = bookMappers;
+        this.entityManager = entityManager;
+        this.bookIsbnCache = bookIsbnCache;
+        this.bookSearchIndex = bookSearchIndex;
+    }
+
+    @Override
+    public Optional<Book> findByIsbn(String isbn) {
+        // misses are not cached, a book imported later is found on the next lookup
+        return Optional.ofNullable(bookIsbnCache.get(isbn,
+                key -> bookRepository.findByIsbn(key).map(bookMappers::mapEntityToModel).orElse(null)));
+    }
+
+    @Override
+    public List<Book> search(String query, int limit) {
+        var isbns = bookSearchIndex.search(query, limit);
+        // one query for every ISBN missing from the cache, books not found are not cached
+        Map<String, Book> books = bookIsbnCache.getAll(isbns, missing -> bookRepository.findByIsbnIn(missing)
+                .stream()
+                .collect(Collectors.toMap(BookEntity::getIsbn, bookMappers::mapEntityToModel)));
+        return isbns.stream().map(books::get).filter(Objects::nonNull).toList();
+    }
+
+    @Override
+    public List<Book> findAfter(long afterId, int limit) {
+        var books = bookRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(limit));
+        return books.stream().map(bookMappers::mapEntityToModel).toList();
     }
 
     @Override
-    public Collection<Book> findAll() {
-        var books = bookRepository.findAll();
-        return bookMappers.mapEntitiesToModels(books);
+    @Transactional(readOnly = true)
+    public void forEach(Consumer<Book> consumer) {
+        try (var books = bookRepository.streamAllOrderById()) {
+            books.forEach(entity -> {
+                // keep the persistence context empty so memory stays flat whatever the size of the table
+                entityManager.detach(entity);
+                consumer.accept(bookMappers.mapEntityToModel(entity));
+            });
+        }
     }
 }
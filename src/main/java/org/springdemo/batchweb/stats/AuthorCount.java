@@ -0,0 +1,7 @@
+package org.springdemo.batchweb.stats;
+
+public record AuthorCount(
+        String author,
+        long books
+) {
+}
@@ -0,0 +1,154 @@
+package org.springdemo.batchweb.stats;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Book counts per year published and per author, materialized in BOOK_STATS_YEAR and BOOK_STATS_AUTHOR so the
+ * dashboards read a few indexed rows whatever the size of the catalog.
+ * <p>
+ * The imports {@link #apply(BookStatsDelta) apply} the changes of each chunk in the chunk transaction, the counters
+ * roll back with the books. {@link #rebuild()} recomputes them from BOOK_ENTITY to reconcile counters changed by
+ * writes that bypass the imports.
+ */
+@Component
+public class BookStats {
+
+    private static final Logger log = LoggerFactory.getLogger(BookStats.class);
+
+    private static final String UPDATE_YEAR_SQL =
+            "UPDATE BOOK_STATS_YEAR SET BOOK_COUNT = BOOK_COUNT + ? WHERE YEAR_PUBLISHED = ?";
+    private static final String INSERT_YEAR_SQL =
+            "INSERT INTO BOOK_STATS_YEAR (YEAR_PUBLISHED, BOOK_COUNT) VALUES (?, ?)";
+    private static final String UPDATE_AUTHOR_SQL =
+            "UPDATE BOOK_STATS_AUTHOR SET BOOK_COUNT = BOOK_COUNT + ? WHERE AUTHOR = ?";
+    private static final String INSERT_AUTHOR_SQL =
+            "INSERT INTO BOOK_STATS_AUTHOR (AUTHOR, BOOK_COUNT) VALUES (?, ?)";
+    private static final String TOTAL_SQL = "SELECT COALESCE(SUM(BOOK_COUNT), 0) FROM BOOK_STATS_YEAR";
+    private static final String YEARS_SQL =
+            "SELECT YEAR_PUBLISHED, BOOK_COUNT FROM BOOK_STATS_YEAR WHERE BOOK_COUNT > 0 ORDER BY YEAR_PUBLISHED";
+    private static final String TOP_AUTHORS_SQL = """
+            SELECT AUTHOR, BOOK_COUNT FROM BOOK_STATS_AUTHOR WHERE BOOK_COUNT > 0
+            ORDER BY BOOK_COUNT DESC, AUTHOR FETCH FIRST ? ROWS ONLY
+            """;
+    private static final String AUTHOR_SQL = "SELECT BOOK_COUNT FROM BOOK_STATS_AUTHOR WHERE AUTHOR = ?";
+    private static final String BOOKS_SQL = "SELECT AUTHORS, YEAR_PUBLISHED FROM BOOK_ENTITY";
+    private static final String DELETE_YEARS_SQL = "DELETE FROM BOOK_STATS_YEAR";
+    private static final String DELETE_AUTHORS_SQL = "DELETE FROM BOOK_STATS_AUTHOR";
+    private static final int FETCH_SIZE = 1000;
+    private static final int BATCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final JdbcTemplate streamingJdbcTemplate;
+
+    public BookStats(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.streamingJdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.streamingJdbcTemplate.setFetchSize(FETCH_SIZE);
+    }
+
+    /**
+     * Adds the delta to the counters in the current transaction, years then authors, each in key order.
+     * <p>
+     * Existing counters are updated in one batch, the missing ones are inserted one by one. An insert that loses the
+     * race against a concurrent chunk fails alone, the database rolls back the failed statement only, and the
+     * counter the other chunk committed is updated instead.
+     */
+    public void apply(BookStatsDelta delta) {
+        if (delta.isEmpty()) {
+            return;
+        }
+        add(UPDATE_YEAR_SQL, INSERT_YEAR_SQL, delta.years());
+        add(UPDATE_AUTHOR_SQL, INSERT_AUTHOR_SQL, delta.authors());
+    }
+
+    public long totalBooks() {
+        Long total = jdbcTemplate.queryForObject(TOTAL_SQL, Long.class);
+        return total == null ? 0 : total;
+    }
+
+    public List<YearCount> years() {
+        return jdbcTemplate.query(YEARS_SQL, (rs, rowNum) -> {
+            int year = rs.getInt(1);
+            return new YearCount(year == BookStatsDelta.NO_YEAR ? null : year, rs.getLong(2));
+        });
+    }
+
+    public List<AuthorCount> topAuthors(int limit) {
+        return jdbcTemplate.query(TOP_AUTHORS_SQL, (rs, rowNum) -> new AuthorCount(rs.getString(1), rs.getLong(2)),
+                limit);
+    }
+
+    public long books(String author) {
+        var counts = jdbcTemplate.queryForList(AUTHOR_SQL, Long.class, author);
+        return counts.isEmpty() ? 0 : counts.get(0);
+    }
+
+    /**
+     * Recomputes every counter from BOOK_ENTITY in the current transaction. Chunks committed by an import running
+     * meanwhile may be counted twice or not at all, run it while no import is writing.
+     */
+    public void rebuild() {
+        long started = System.nanoTime();
+        var delta = new BookStatsDelta();
+        var books = new long[1];
+        streamingJdbcTemplate.query(BOOKS_SQL, (RowCallbackHandler) rs -> {
+            delta.add(rs.getString(1), rs.getObject(2, Integer.class));
+            books[0]++;
+        });
+        jdbcTemplate.update(DELETE_YEARS_SQL);
+        jdbcTemplate.update(DELETE_AUTHORS_SQL);
+        batchInsert(INSERT_YEAR_SQL, delta.years());
+        batchInsert(INSERT_AUTHOR_SQL, delta.authors());
+        log.info("Rebuilt book stats of {} books, {} years and {} authors in {} ms", books[0],
+                delta.years().size(), delta.authors().size(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private <K> void add(String updateSql, String insertSql, Map<K, Long> counts) {
+        if (counts.isEmpty()) {
+            return;
+        }
+        var entries = new ArrayList<>(counts.entrySet());
+        int[][] updated = jdbcTemplate.batchUpdate(updateSql, entries, BATCH_SIZE, (ps, count) -> {
+            ps.setLong(1, count.getValue());
+            ps.setObject(2, count.getKey());
+        });
+        int index = 0;
+        for (int[] batch : updated) {
+            for (int rows : batch) {
+                var count = entries.get(index++);
+                if (rows == 0) {
+                    insert(updateSql, insertSql, count);
+                }
+            }
+        }
+    }
+
+    private <K> void insert(String updateSql, String insertSql, Map.Entry<K, Long> count) {
+        try {
+            jdbcTemplate.update(insertSql, count.getKey(), count.getValue());
+        } catch (DuplicateKeyException e) {
+            // a concurrent chunk inserted the same counter first, it has committed by now and is updated
+            jdbcTemplate.update(updateSql, count.getValue(), count.getKey());
+        }
+    }
+
+    private <K> void batchInsert(String sql, Map<K, Long> counts) {
+        if (counts.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(sql, new ArrayList<>(counts.entrySet()), BATCH_SIZE, (ps, count) -> {
+            ps.setObject(1, count.getKey());
+            ps.setLong(2, count.getValue());
+        });
+    }
+}
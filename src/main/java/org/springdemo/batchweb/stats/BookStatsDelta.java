@@ -0,0 +1,73 @@
+package org.springdemo.batchweb.stats;
+
+import java.util.LinkedHashSet;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Changes to the book counts per year published and per author made by a set of writes, netted by key. Keys are
+ * kept sorted so every transaction updates the counter rows in the same order and two chunks can not deadlock on
+ * them.
+ * <p>
+ * Not thread safe.
+ */
+public class BookStatsDelta {
+
+    /** Year key of the books without a year published. */
+    public static final int NO_YEAR = -1;
+
+    private final NavigableMap<Integer, Long> years = new TreeMap<>();
+
+    private final NavigableMap<String, Long> authors = new TreeMap<>();
+
+    public void add(String authors, Integer yearPublished) {
+        count(authors, yearPublished, 1);
+    }
+
+    public void remove(String authors, Integer yearPublished) {
+        count(authors, yearPublished, -1);
+    }
+
+    public boolean isEmpty() {
+        return years.isEmpty() && authors.isEmpty();
+    }
+
+    NavigableMap<Integer, Long> years() {
+        return years;
+    }
+
+    NavigableMap<String, Long> authors() {
+        return authors;
+    }
+
+    /**
+     * Splits the AUTHORS column into the authors it lists, a book naming the same author twice counts once.
+     */
+    static Set<String> authorsOf(String authors) {
+        var names = new LinkedHashSet<String>();
+        if (authors == null) {
+            return names;
+        }
+        for (var name : authors.split(",")) {
+            var trimmed = name.strip();
+            if (!trimmed.isEmpty()) {
+                names.add(trimmed);
+            }
+        }
+        return names;
+    }
+
+    private void count(String authors, Integer yearPublished, long delta) {
+        // an update that keeps the year or an author nets to zero and leaves its counter row untouched
+        years.merge(yearPublished == null ? NO_YEAR : yearPublished, delta, BookStatsDelta::sumOrNull);
+        for (var author : authorsOf(authors)) {
+            this.authors.merge(author, delta, BookStatsDelta::sumOrNull);
+        }
+    }
+
+    private static Long sumOrNull(Long a, Long b) {
+        long sum = a + b;
+        return sum == 0 ? null : sum;
+    }
+}
@@ -0,0 +1,10 @@
+package org.springdemo.batchweb.stats;
+
+/**
+ * Books published in a year, {@code yearPublished} is null for the books without a year.
+ */
+public record YearCount(
+        Integer yearPublished,
+        long books
+) {
+}
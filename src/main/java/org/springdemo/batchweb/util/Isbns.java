@@ -0,0 +1,71 @@
+package org.springdemo.batchweb.util;
+
+/**
+ * Packs ISBNs into a {@code long} so they can key primitive collections instead of Strings. ISBN-13 map to their
+ * numeric value, ISBN-10 (check digit 0-9 or X) to a range above every ISBN-13 so both never collide.
+ */
+public final class Isbns {
+
+    /** Returned for values that are not a well formed ISBN-10 or ISBN-13. */
+    public static final long NOT_PACKABLE = -1L;
+
+    private static final long ISBN_10_OFFSET = 10_000_000_000_000L;
+
+    private Isbns() {
+    }
+
+    public static long pack(String isbn) {
+        if (isbn == null) {
+            return NOT_PACKABLE;
+        }
+        int length = isbn.length();
+        if (length == 13) {
+            return digits(isbn, 13);
+        }
+        if (length == 10) {
+            long body = digits(isbn, 9);
+            if (body == NOT_PACKABLE) {
+                return NOT_PACKABLE;
+            }
+            char check = isbn.charAt(9);
+            int checkValue;
+            if (check >= '0' && check <= '9') {
+                checkValue = check - '0';
+            } else if (check == 'X' || check == 'x') {
+                checkValue = 10;
+            } else {
+                return NOT_PACKABLE;
+            }
+            return ISBN_10_OFFSET + body * 11 + checkValue;
+        }
+        return NOT_PACKABLE;
+    }
+
+    /**
+     * ISBN a {@link #pack} result was packed from, in canonical form: ISBN-10 check digit X is upper case.
+     */
+    public static String unpack(long packed) {
+        if (packed < ISBN_10_OFFSET) {
+            return pad(Long.toString(packed), 13);
+        }
+        long value = packed - ISBN_10_OFFSET;
+        int check = (int) (value % 11);
+        return pad(Long.toString(value / 11), 9) + (check == 10 ? 'X' : (char) ('0' + check));
+    }
+
+    private static String pad(String digits, int length) {
+        return digits.length() >= length ? digits : "0".repeat(length - digits.length()) + digits;
+    }
+
+    private static long digits(String value, int count) {
+        long result = 0;
+        for (int i = 0; i < count; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return NOT_PACKABLE;
+            }
+            result = result * 10 + (c - '0');
+        }
+        return result;
+    }
+}
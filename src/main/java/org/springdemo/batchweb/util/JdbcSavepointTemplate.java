@@ -0,0 +1,55 @@
+package org.springdemo.batchweb.util;
+
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.TransactionSystemException;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+
+/**
+ * Runs JDBC work under a savepoint of the connection bound to the current transaction, a failure rolls back the
+ * work only and the transaction goes on.
+ * <p>
+ * The JPA transaction manager does not support nested transactions, the savepoint is set on the JDBC connection it
+ * binds instead. Only JDBC statements are undone, entities flushed by the work are not.
+ */
+public class JdbcSavepointTemplate {
+
+    private final DataSource dataSource;
+
+    public JdbcSavepointTemplate(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    public void execute(Runnable work) {
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        if (!DataSourceUtils.isConnectionTransactional(connection, dataSource)) {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+            throw new IllegalStateException("A savepoint needs a transaction bound to the data source");
+        }
+        Savepoint savepoint;
+        try {
+            savepoint = connection.setSavepoint();
+        } catch (SQLException e) {
+            throw new CannotCreateTransactionException("Could not create JDBC savepoint", e);
+        }
+        try {
+            work.run();
+        } catch (RuntimeException | Error e) {
+            try {
+                connection.rollback(savepoint);
+            } catch (SQLException rollbackFailure) {
+                e.addSuppressed(rollbackFailure);
+            }
+            throw e;
+        }
+        try {
+            connection.releaseSavepoint(savepoint);
+        } catch (SQLException e) {
+            throw new TransactionSystemException("Could not release JDBC savepoint", e);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package org.springdemo.batchweb.util;
+
+import org.springframework.util.Assert;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing set of {@code long} with linear probing, 8 bytes per slot and no boxing. {@link Long#MIN_VALUE} is
+ * reserved and can not be added.
+ * <p>
+ * Not thread safe.
+ */
+public class LongHashSet {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    private long[] keys;
+
+    private int size;
+
+    private int mask;
+
+    private int resizeAt;
+
+    public LongHashSet() {
+        this(16);
+    }
+
+    public LongHashSet(int expectedSize) {
+        allocate(capacityFor(Math.max(expectedSize, 4)));
+    }
+
+    /**
+     * Adds the key, false when it was already there.
+     */
+    public boolean add(long key) {
+        Assert.isTrue(key != EMPTY, "Long.MIN_VALUE is reserved");
+        int slot = slot(key);
+        if (keys[slot] == key) {
+            return false;
+        }
+        keys[slot] = key;
+        if (++size > resizeAt) {
+            resize();
+        }
+        return true;
+    }
+
+    public boolean contains(long key) {
+        return key != EMPTY && keys[slot(key)] == key;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Approximate heap used by the slot array.
+     */
+    public long sizeInBytes() {
+        return 8L * keys.length;
+    }
+
+    private int slot(long key) {
+        int slot = LongLongHashMap.mix(key) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void resize() {
+        Assert.state(keys.length < MAX_CAPACITY, "Set is full");
+        var oldKeys = keys;
+        allocate(keys.length * 2);
+        for (long key : oldKeys) {
+            if (key != EMPTY) {
+                keys[slot(key)] = key;
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+        mask = capacity - 1;
+        resizeAt = (int) (capacity * 0.75);
+    }
+
+    private static int capacityFor(int expectedSize) {
+        long capacity = Long.highestOneBit((long) (expectedSize / 0.75) + 1) << 1;
+        return (int) Math.min(capacity, MAX_CAPACITY);
+    }
+}
@@ -0,0 +1,124 @@
+package org.springdemo.batchweb.util;
+
+import org.springframework.util.Assert;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing map of {@code long} to {@code long} with linear probing, 16 bytes per slot and no boxing, for
+ * lookups over every row of the books table. {@link Long#MIN_VALUE} is reserved and can not be used as a key.
+ * <p>
+ * Not thread safe for writes, a map that is no longer modified can be read from any number of threads.
+ */
+public class LongLongHashMap {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    private long[] keys;
+
+    private long[] values;
+
+    private int size;
+
+    private int mask;
+
+    private int resizeAt;
+
+    public LongLongHashMap() {
+        this(16);
+    }
+
+    public LongLongHashMap(int expectedSize) {
+        allocate(capacityFor(Math.max(expectedSize, 4)));
+    }
+
+    public void put(long key, long value) {
+        Assert.isTrue(key != EMPTY, "Long.MIN_VALUE is reserved");
+        int slot = slot(key);
+        if (keys[slot] == EMPTY) {
+            keys[slot] = key;
+            size++;
+        }
+        values[slot] = value;
+        if (size > resizeAt) {
+            resize();
+        }
+    }
+
+    public boolean containsKey(long key) {
+        return key != EMPTY && keys[slot(key)] == key;
+    }
+
+    /**
+     * Value mapped to the key, {@code absent} when there is none.
+     */
+    public long get(long key, long absent) {
+        if (key == EMPTY) {
+            return absent;
+        }
+        int slot = slot(key);
+        return keys[slot] == key ? values[slot] : absent;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Approximate heap used by the slot arrays.
+     */
+    public long sizeInBytes() {
+        return 16L * keys.length;
+    }
+
+    /**
+     * Slot holding the key, or the empty slot where it would go.
+     */
+    private int slot(long key) {
+        int slot = mix(key) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void resize() {
+        Assert.state(keys.length < MAX_CAPACITY, "Map is full");
+        var oldKeys = keys;
+        var oldValues = values;
+        allocate(keys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = slot(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+        mask = capacity - 1;
+        resizeAt = (int) (capacity * 0.75);
+    }
+
+    private static int capacityFor(int expectedSize) {
+        long capacity = Long.highestOneBit((long) (expectedSize / 0.75) + 1) << 1;
+        return (int) Math.min(capacity, MAX_CAPACITY);
+    }
+
+    /**
+     * Murmur3 finalizer, spreads sequential ISBNs over the table.
+     */
+    static int mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+}
@@ -75,4 +75,85 @@ CREATE TABLE BATCH_JOB_EXECUTION_CONTEXT  (
 
 CREATE SEQUENCE BATCH_STEP_EXECUTION_SEQ;
 CREATE SEQUENCE BATCH_JOB_EXECUTION_SEQ;
-CREATE SEQUENCE BATCH_JOB_SEQ;
\ No newline at end of file
+CREATE SEQUENCE BATCH_JOB_SEQ;
+
+-- Application tables
+
+CREATE TABLE BOOK_ENTITY  (
+                              ID BIGINT NOT NULL PRIMARY KEY ,
+                              ISBN VARCHAR(13) NOT NULL,
+                              TITLE VARCHAR(255) NOT NULL,
+                              AUTHORS VARCHAR(255) NOT NULL,
+                              YEAR_PUBLISHED INTEGER ,
+                              CONTENT_HASH BIGINT ,
+                              constraint BOOK_ISBN_UN unique (ISBN)
+) ;
+
+-- Rows of BULK_LOAD imports between CSVREAD and the merge into BOOK_ENTITY, emptied before the load commits
+CREATE TABLE BOOK_IMPORT_STAGING  (
+                              JOB_EXECUTION_ID BIGINT NOT NULL ,
+                              ROW_NO BIGINT NOT NULL ,
+                              ISBN VARCHAR(13) NOT NULL,
+                              TITLE VARCHAR(255) NOT NULL,
+                              AUTHORS VARCHAR(255) NOT NULL,
+                              YEAR_PUBLISHED INTEGER ,
+                              constraint BOOK_IMPORT_STAGING_PK primary key (JOB_EXECUTION_ID, ROW_NO)
+) ;
+
+-- BOOK_SEQ value of every block of 50 staged rows, the id of a row is its offset below the block's value
+CREATE TABLE BOOK_IMPORT_ID_BLOCK  (
+                              JOB_EXECUTION_ID BIGINT NOT NULL ,
+                              FIRST_ROW_NO BIGINT NOT NULL ,
+                              HI BIGINT NOT NULL ,
+                              constraint BOOK_IMPORT_ID_BLOCK_PK primary key (JOB_EXECUTION_ID, FIRST_ROW_NO)
+) ;
+
+-- Latest execution of each import, export and stats rebuild, looked up by job name and correlation id when clients
+-- poll their status. Jobs of different names may use the same correlation id.
+CREATE TABLE IMPORT_CORRELATION  (
+                              JOB_NAME VARCHAR(100) NOT NULL ,
+                              CORRELATION_ID VARCHAR(250) NOT NULL ,
+                              JOB_INSTANCE_ID BIGINT NOT NULL ,
+                              JOB_EXECUTION_ID BIGINT NOT NULL ,
+                              CREATE_TIME TIMESTAMP(9) NOT NULL ,
+                              constraint IMPORT_CORRELATION_PK primary key (JOB_NAME, CORRELATION_ID)
+) ;
+
+CREATE INDEX IMPORT_CORRELATION_EXECUTION_IX ON IMPORT_CORRELATION (JOB_EXECUTION_ID) ;
+
+-- Partitions of DISTRIBUTED imports waiting for, or held by, a node. A claim is valid until LEASE_EXPIRES, the owner
+-- renews it while the partition runs. STEP_EXECUTION_ID is the worker step execution of the partition.
+CREATE TABLE IMPORT_PARTITION_QUEUE  (
+                              STEP_EXECUTION_ID BIGINT NOT NULL PRIMARY KEY ,
+                              JOB_EXECUTION_ID BIGINT NOT NULL ,
+                              CORRELATION_ID VARCHAR(250) NOT NULL ,
+                              STEP_NAME VARCHAR(100) NOT NULL ,
+                              STATUS VARCHAR(10) NOT NULL ,
+                              OWNER VARCHAR(250) ,
+                              LEASE_EXPIRES TIMESTAMP(9) ,
+                              ATTEMPTS INT NOT NULL ,
+                              CREATE_TIME TIMESTAMP(9) NOT NULL ,
+                              LAST_UPDATED TIMESTAMP(9)
+) ;
+
+CREATE INDEX IMPORT_PARTITION_QUEUE_STATUS_IX ON IMPORT_PARTITION_QUEUE (STATUS, LEASE_EXPIRES) ;
+CREATE INDEX IMPORT_PARTITION_QUEUE_JOB_IX ON IMPORT_PARTITION_QUEUE (JOB_EXECUTION_ID, STATUS) ;
+CREATE INDEX IMPORT_PARTITION_QUEUE_CORRELATION_IX ON IMPORT_PARTITION_QUEUE (CORRELATION_ID) ;
+
+-- Books per year published and per author, kept up to date by the imports in the transaction of every chunk and
+-- recomputed from BOOK_ENTITY by rebuildBookStatsJob. YEAR_PUBLISHED -1 counts the books without a year.
+CREATE TABLE BOOK_STATS_YEAR  (
+                              YEAR_PUBLISHED INTEGER NOT NULL PRIMARY KEY ,
+                              BOOK_COUNT BIGINT NOT NULL
+) ;
+
+CREATE TABLE BOOK_STATS_AUTHOR  (
+                              AUTHOR VARCHAR(255) NOT NULL PRIMARY KEY ,
+                              BOOK_COUNT BIGINT NOT NULL
+) ;
+
+CREATE INDEX BOOK_STATS_AUTHOR_COUNT_IX ON BOOK_STATS_AUTHOR (BOOK_COUNT DESC, AUTHOR) ;
+
+-- Pooled allocation: each value is the upper bound of a block of 50 ids (BookEntity.ID_ALLOCATION_SIZE), starting
+-- at 50 so the first block is 1..50.
+CREATE SEQUENCE BOOK_SEQ START WITH 50 INCREMENT BY 50;
@@ -0,0 +1,263 @@
+package org.springdemo.batchweb.controller;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springdemo.batchweb.entity.BookEntity;
+import org.springdemo.batchweb.exception.InvalidRequestException;
+import org.springdemo.batchweb.job.correlation.ImportCorrelationIndex;
+import org.springdemo.batchweb.job.stream.StreamingImportRegistry;
+import org.springdemo.batchweb.model.Book;
+import org.springdemo.batchweb.repository.BookRepository;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.springdemo.batchweb.job.ImportBooksJobConfig.IMPORT_BOOKS_JOB_NAME;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class BookControllerTests {
+
+    private static final String HEADER = "ISBN,TITLE,AUTHORS,YEAR PUBLISHED\n";
+
+    private static final List<String> ISBNS = IntStream.range(0, 5)
+            .mapToObj(i -> String.valueOf(9780000000000L + i))
+            .toList();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BookController bookController;
+
+    @Autowired
+    private StreamingImportRegistry streamingImportRegistry;
+
+    @Autowired
+    private ImportCorrelationIndex importCorrelationIndex;
+
+    @Autowired
+    private JobExplorer jobExplorer;
+
+    @Autowired
+    private Cache<String, Book> bookIsbnCache;
+
+    @BeforeEach
+    void saveBooks() {
+        bookRepository.saveAll(ISBNS.stream()
+                .map(isbn -> new BookEntity(null, isbn, "Title " + isbn, "Author", 2000))
+                .toList());
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM BOOK_ENTITY");
+        bookIsbnCache.invalidateAll();
+    }
+
+    @Test
+    void servesIsbnLookupsFromTheCache() throws Exception {
+        var isbn = ISBNS.get(0);
+        mockMvc.perform(get("/api/v1/books/isbn/{isbn}", isbn)).andExpect(status().isOk());
+        assertNotNull(bookIsbnCache.getIfPresent(isbn));
+
+        // gone from the table, still found until it is evicted
+        jdbcTemplate.update("DELETE FROM BOOK_ENTITY WHERE ISBN = ?", isbn);
+        var response = mockMvc.perform(get("/api/v1/books/isbn/{isbn}", isbn))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+
+        assertEquals("Title " + isbn, objectMapper.readValue(response.getContentAsString(), Book.class).title());
+    }
+
+    @Test
+    void answersNotFoundToAnUnknownIsbnWithoutCachingTheMiss() throws Exception {
+        var isbn = "9789999999999";
+        mockMvc.perform(get("/api/v1/books/isbn/{isbn}", isbn)).andExpect(status().isNotFound());
+        assertNull(bookIsbnCache.getIfPresent(isbn));
+
+        bookRepository.save(new BookEntity(null, isbn, "Title " + isbn, "Author", 2000));
+
+        mockMvc.perform(get("/api/v1/books/isbn/{isbn}", isbn)).andExpect(status().isOk());
+    }
+
+    @Test
+    void decodesTheCursorItEncoded() {
+        assertEquals(42L, BookController.decodeCursor(BookController.encodeCursor(42L)));
+        assertEquals(0L, BookController.decodeCursor(null));
+        assertThrows(InvalidRequestException.class, () -> BookController.decodeCursor("not a cursor"));
+        assertThrows(InvalidRequestException.class, () -> BookController.decodeCursor("YWJj"));
+    }
+
+    @Test
+    void answersBadRequestToAMalformedCursor() throws Exception {
+        mockMvc.perform(get("/api/v1/books").param("cursor", "YWJj")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v1/books").param("limit", "0")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void pagesThroughEveryBook() throws Exception {
+        var isbns = new ArrayList<String>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            var request = get("/api/v1/books").param("limit", "2");
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            var response = mockMvc.perform(request).andExpect(status().isOk()).andReturn().getResponse();
+            List<Book> page = objectMapper.readValue(response.getContentAsString(), new TypeReference<>() {
+            });
+            page.forEach(book -> isbns.add(book.isbn()));
+            cursor = response.getHeader(BookController.X_NEXT_CURSOR);
+            pages++;
+        } while (cursor != null && pages < 10);
+
+        assertEquals(3, pages);
+        assertEquals(ISBNS, isbns);
+    }
+
+    @Test
+    void returnsEveryBookWithoutPagingParameters() throws Exception {
+        var response = streamed("/api/v1/books");
+
+        List<Book> books = objectMapper.readValue(response, new TypeReference<>() {
+        });
+        assertEquals(ISBNS, books.stream().map(Book::isbn).toList());
+    }
+
+    @Test
+    void streamsEveryBookAsNewlineDelimitedJson() throws Exception {
+        var response = streamed("/api/v1/books/stream");
+
+        var lines = Arrays.asList(response.split("\n"));
+        assertEquals(ISBNS.size(), lines.size());
+        var isbns = new ArrayList<String>();
+        for (var line : lines) {
+            isbns.add(objectMapper.readValue(line, Book.class).isbn());
+        }
+        assertEquals(ISBNS, isbns);
+    }
+
+    @Test
+    void importsAStreamedUpload() throws Exception {
+        var correlationId = UUID.randomUUID().toString();
+        var body = new ByteArrayInputStream((HEADER + "9781935182955,Spring Batch in Action,Templier,2011\n"
+                + "9781617296956,Spring Microservices in Action,Carnell,2021\n").getBytes(StandardCharsets.UTF_8));
+
+        var response = bookController.importBookStream(body, null, null, correlationId);
+
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        assertEquals(BatchStatus.COMPLETED, awaitEnd(correlationId).getStatus());
+        assertEquals(ISBNS.size() + 2, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM BOOK_ENTITY", Integer.class));
+        // released by the job listener
+        assertThrows(IllegalStateException.class, () -> streamingImportRegistry.get(correlationId));
+    }
+
+    @Test
+    void failsTheImportWhenTheClientDisconnects() throws Exception {
+        var correlationId = UUID.randomUUID().toString();
+        var body = new SequenceInputStream(
+                new ByteArrayInputStream((HEADER + "9781935182955,Spring Batch in Action,Templier,2011\n")
+                        .getBytes(StandardCharsets.UTF_8)),
+                new InputStream() {
+                    @Override
+                    public int read() throws IOException {
+                        throw new IOException("Connection reset by peer");
+                    }
+                });
+
+        assertThrows(IOException.class, () -> bookController.importBookStream(body, null, null, correlationId));
+
+        assertEquals(BatchStatus.FAILED, awaitEnd(correlationId).getStatus());
+    }
+
+    @Test
+    void returnsWhenTheImportFailsDuringTheUpload() throws Exception {
+        var correlationId = UUID.randomUUID().toString();
+        // the strict import fails on the first row while the upload never ends
+        var body = new SequenceInputStream(
+                new ByteArrayInputStream((HEADER + "not,a,book\n").getBytes(StandardCharsets.UTF_8)),
+                endless("9780000000099,Endless,Somebody,2000\n".getBytes(StandardCharsets.UTF_8)));
+
+        assertTimeoutPreemptively(Duration.ofSeconds(30), () -> assertThrows(IOException.class,
+                () -> bookController.importBookStream(body, null, 0L, correlationId)));
+
+        assertEquals(BatchStatus.FAILED, awaitEnd(correlationId).getStatus());
+    }
+
+    private JobExecution awaitEnd(String correlationId) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(30).toNanos();
+        while (System.nanoTime() < deadline) {
+            var jobExecution = importCorrelationIndex.find(IMPORT_BOOKS_JOB_NAME, correlationId)
+                    .map(execution -> jobExplorer.getJobExecution(execution.getId()));
+            if (jobExecution.isPresent() && !jobExecution.get().isRunning()) {
+                return jobExecution.get();
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("Import " + correlationId + " did not end");
+    }
+
+    private static InputStream endless(byte[] line) {
+        return new InputStream() {
+
+            private long position;
+
+            @Override
+            public int read() {
+                return line[(int) (position++ % line.length)];
+            }
+        };
+    }
+
+    /**
+     * Body of a streamed response, written once the request thread has returned.
+     */
+    private String streamed(String path) throws Exception {
+        var result = mockMvc.perform(get(path)).andExpect(request().asyncStarted()).andReturn();
+        result.getAsyncResult();
+        mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+        return result.getResponse().getContentAsString();
+    }
+}
@@ -0,0 +1,200 @@
+package org.springdemo.batchweb.job;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springdemo.batchweb.job.reject.ImportRejectFiles;
+import org.springdemo.batchweb.job.writer.BookImportMode;
+import org.springdemo.batchweb.model.Book;
+import org.springdemo.batchweb.service.BookService;
+import org.springdemo.batchweb.stats.AuthorCount;
+import org.springdemo.batchweb.stats.BookStats;
+import org.springdemo.batchweb.stats.YearCount;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.launch.support.TaskExecutorJobLauncher;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springdemo.batchweb.job.ImportBooksJobConfig.IMPORT_BOOKS_CORRELATION_ID_PARAMETER;
+import static org.springdemo.batchweb.job.ImportBooksJobConfig.IMPORT_BOOKS_FILE_PATH_PARAMETER;
+import static org.springdemo.batchweb.job.ImportBooksJobConfig.IMPORT_BOOKS_JOB_NAME;
+import static org.springdemo.batchweb.job.ImportBooksJobConfig.IMPORT_BOOKS_MODE_PARAMETER;
+import static org.springdemo.batchweb.job.ImportBooksJobConfig.IMPORT_BOOKS_SKIP_LIMIT_PARAMETER;
+
+@SpringBootTest
+class ImportBooksJobTests {
+
+    private static final String HEADER = "ISBN,TITLE,AUTHORS,YEAR PUBLISHED";
+
+    @Autowired
+    private JobRepository jobRepository;
+
+    @Autowired
+    @Qualifier(IMPORT_BOOKS_JOB_NAME)
+    private Job job;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BookStats bookStats;
+
+    @Autowired
+    private ImportRejectFiles importRejectFiles;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private Cache<String, Book> bookIsbnCache;
+
+    @TempDir
+    Path tempDir;
+
+    private TaskExecutorJobLauncher jobLauncher;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // runs the job on the test thread, the application launcher hands it to a task executor
+        jobLauncher = new TaskExecutorJobLauncher();
+        jobLauncher.setJobRepository(jobRepository);
+        jobLauncher.afterPropertiesSet();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM BOOK_ENTITY");
+        jdbcTemplate.update("DELETE FROM BOOK_STATS_YEAR");
+        jdbcTemplate.update("DELETE FROM BOOK_STATS_AUTHOR");
+        bookIsbnCache.invalidateAll();
+    }
+
+    @Test
+    void upsertKeepsTheCountersOfRejectedBooks() throws Exception {
+        assertEquals(BatchStatus.COMPLETED, importFile("first.csv",
+                "9781935182955,Spring Batch in Action,Templier,2011").getStatus());
+
+        var execution = importFile("second.csv",
+                "9781935182955,%s,Gregory,2012".formatted("Spring Batch in Action ".repeat(12)),
+                "9781617296956,Spring Microservices in Action,Carnell,2012");
+
+        assertEquals(BatchStatus.COMPLETED, execution.getStatus());
+        assertEquals("Spring Batch in Action", jdbcTemplate.queryForObject(
+                "SELECT TITLE FROM BOOK_ENTITY WHERE ISBN = ?", String.class, "9781935182955"));
+        assertEquals(2, bookStats.totalBooks());
+        assertEquals(List.of(new YearCount(2011, 1), new YearCount(2012, 1)), bookStats.years());
+        assertEquals(List.of(new AuthorCount("Carnell", 1), new AuthorCount("Templier", 1)),
+                bookStats.topAuthors(10));
+        assertEquals(0, bookStats.books("Gregory"));
+    }
+
+    @Test
+    void rejectsEachRowOnceWhenAChunkOverTheLimitIsRestarted() throws Exception {
+        importFile("existing.csv",
+                "9781935182955,Spring Batch in Action,Templier,2011",
+                "9781617296956,Spring Microservices in Action,Carnell,2021");
+        var file = tempDir.resolve("restart.csv");
+        var jobParameters = jobParameters(file, UUID.randomUUID().toString(), BookImportMode.INSERT, 1);
+
+        // both existing books violate the unique ISBN, the second one is over the limit and fails the chunk
+        write(file,
+                "9780000000001,First,Somebody,2001",
+                "9781935182955,Spring Batch in Action,Templier,2011",
+                "9781617296956,Spring Microservices in Action,Carnell,2021",
+                "9780000000002,Second,Somebody,2002");
+        var failed = jobLauncher.run(job, jobParameters);
+        assertEquals(BatchStatus.FAILED, failed.getStatus());
+        assertEquals(0, writeSkips(failed));
+        assertTrue(importRejectFiles.find(failed.getJobParameters().getString(IMPORT_BOOKS_CORRELATION_ID_PARAMETER))
+                .isEmpty());
+
+        write(file,
+                "9780000000001,First,Somebody,2001",
+                "9781935182955,Spring Batch in Action,Templier,2011",
+                "9780000000002,Second,Somebody,2002");
+        var restarted = jobLauncher.run(job, jobParameters);
+
+        assertEquals(BatchStatus.COMPLETED, restarted.getStatus());
+        assertEquals(1, writeSkips(restarted));
+        var rejects = Files.readAllLines(importRejectFiles.find(
+                restarted.getJobParameters().getString(IMPORT_BOOKS_CORRELATION_ID_PARAMETER)).orElseThrow());
+        assertEquals(2, rejects.size());
+        assertEquals(4, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM BOOK_ENTITY", Integer.class));
+    }
+
+    @Test
+    void rejectsDuplicateIsbnsWithinTheSkipLimit() throws Exception {
+        var file = tempDir.resolve("duplicates.csv");
+        write(file,
+                "9781935182955,Spring Batch in Action,Templier,2011",
+                "9781935182955,Spring Batch in Action,Templier,2011");
+
+        var strict = jobLauncher.run(job, jobParameters(file, UUID.randomUUID().toString(), BookImportMode.INSERT, 0));
+        assertEquals(BatchStatus.FAILED, strict.getStatus());
+
+        var lenient = jobLauncher.run(job,
+                jobParameters(file, UUID.randomUUID().toString(), BookImportMode.UPSERT, 1));
+        assertEquals(BatchStatus.COMPLETED, lenient.getStatus());
+        var rejects = Files.readAllLines(importRejectFiles.find(
+                lenient.getJobParameters().getString(IMPORT_BOOKS_CORRELATION_ID_PARAMETER)).orElseThrow());
+        assertEquals(2, rejects.size());
+        assertTrue(rejects.get(1).contains("Duplicate ISBN 9781935182955"));
+    }
+
+    @Test
+    void evictsTheImportedIsbnsFromTheCache() throws Exception {
+        importFile("first.csv", "9781935182955,Spring Batch in Action,Templier,2011");
+        assertEquals("Templier", bookService.findByIsbn("9781935182955").orElseThrow().authors());
+        assertEquals("Templier", bookIsbnCache.getIfPresent("9781935182955").authors());
+
+        var execution = importFile("second.csv", "9781935182955,Spring Batch in Action,Gregory,2012");
+
+        assertEquals(BatchStatus.COMPLETED, execution.getStatus());
+        assertNull(bookIsbnCache.getIfPresent("9781935182955"));
+        assertEquals("Gregory", bookService.findByIsbn("9781935182955").orElseThrow().authors());
+    }
+
+    private JobExecution importFile(String name, String... lines) throws Exception {
+        var file = tempDir.resolve(name);
+        write(file, lines);
+        return jobLauncher.run(job, jobParameters(file, UUID.randomUUID().toString(), BookImportMode.UPSERT, 10));
+    }
+
+    private static void write(Path file, String... lines) throws IOException {
+        Files.writeString(file, HEADER + "\n" + String.join("\n", lines) + "\n", StandardCharsets.UTF_8);
+    }
+
+    private static JobParameters jobParameters(Path file, String correlationId, BookImportMode mode,
+                                               long skipLimit) {
+        return new JobParametersBuilder()
+                .addString(IMPORT_BOOKS_CORRELATION_ID_PARAMETER, correlationId, true)
+                .addString(IMPORT_BOOKS_FILE_PATH_PARAMETER, file.toString(), false)
+                .addString(IMPORT_BOOKS_MODE_PARAMETER, mode.name(), false)
+                .addLong(IMPORT_BOOKS_SKIP_LIMIT_PARAMETER, skipLimit, false)
+                .toJobParameters();
+    }
+
+    private static long writeSkips(JobExecution jobExecution) {
+        return jobExecution.getStepExecutions().stream().mapToLong(StepExecution::getWriteSkipCount).sum();
+    }
+}
@@ -0,0 +1,107 @@
+package org.springdemo.batchweb.job.admission;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springdemo.batchweb.controller.WebAdvisor;
+import org.springdemo.batchweb.exception.ImportQueueFullException;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionException;
+import org.springframework.batch.core.repository.JobExecutionAlreadyRunningException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ImportAdmissionQueueTests {
+
+    private final ImportAdmissionQueue queue = new ImportAdmissionQueue(new SimpleMeterRegistry(), 2, 1, 1,
+            Duration.ofSeconds(10), Duration.ofHours(1));
+
+    @AfterEach
+    void shutdown() {
+        queue.shutdown();
+    }
+
+    @Test
+    void answersTooManyRequestsWhenTheQueueIsFull() throws Exception {
+        queue.submit("first", () -> new JobExecution(1L), e -> { });
+        assertEquals(1, queue.submit("second", () -> new JobExecution(2L), e -> { }).queuePosition());
+
+        var rejected = assertThrows(ImportQueueFullException.class,
+                () -> queue.submit("third", () -> new JobExecution(3L), e -> { }));
+        assertThrows(ImportQueueFullException.class, () -> queue.checkCapacity("third"));
+
+        var response = new WebAdvisor().handleImportQueueFull(rejected);
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, response.getStatusCode());
+        assertEquals("10", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+    }
+
+    @Test
+    void launchesTheNextQueuedImportOnRelease() throws Exception {
+        var second = new JobExecution(2L);
+        var launched = new CompletableFuture<JobExecution>();
+        queue.submit("first", () -> new JobExecution(1L), e -> { });
+        assertTrue(queue.submit("second", () -> {
+            launched.complete(second);
+            return second;
+        }, e -> { }).isQueued());
+
+        queue.release("first");
+
+        assertSame(second, launched.get(5, TimeUnit.SECONDS));
+        assertEquals(OptionalInt.empty(), queue.position("second"));
+    }
+
+    @Test
+    void freesTheSlotOfAQueuedImportThatFailsToLaunch() throws Exception {
+        var failure = new CompletableFuture<Exception>();
+        queue.submit("first", () -> new JobExecution(1L), e -> { });
+        queue.submit("second", () -> {
+            throw new JobExecutionException("No such file");
+        }, failure::complete);
+
+        queue.release("first");
+
+        assertEquals("No such file", failure.get(5, TimeUnit.SECONDS).getMessage());
+        assertEquals(Optional.of("No such file"), queue.launchFailure("second"));
+        var third = new JobExecution(3L);
+        assertSame(third, queue.launchNow("third", () -> third));
+    }
+
+    @Test
+    void freesTheSlotOfAnImportThatFailsToLaunchRightAway() throws Exception {
+        assertThrows(JobExecutionException.class, () -> queue.submit("first", () -> {
+            throw new JobExecutionException("No such file");
+        }, e -> { }));
+
+        assertFalse(queue.submit("second", () -> new JobExecution(2L), e -> { }).isQueued());
+    }
+
+    @Test
+    void refusesADuplicateCorrelationId() throws Exception {
+        queue.submit("first", () -> new JobExecution(1L), e -> { });
+
+        assertThrows(JobExecutionAlreadyRunningException.class,
+                () -> queue.submit("first", () -> new JobExecution(2L), e -> { }));
+        assertThrows(JobExecutionAlreadyRunningException.class, () -> queue.checkCapacity("first"));
+        assertThrows(JobExecutionAlreadyRunningException.class,
+                () -> queue.launchNow("first", () -> new JobExecution(3L)));
+    }
+
+    @Test
+    void keepsSlotsForTheOtherJobs() {
+        assertThrows(IllegalArgumentException.class, () -> new ImportAdmissionQueue(new SimpleMeterRegistry(),
+                8, 8, 100, Duration.ofSeconds(10), Duration.ofHours(1)));
+    }
+}
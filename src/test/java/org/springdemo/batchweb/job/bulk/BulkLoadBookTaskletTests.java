@@ -0,0 +1,122 @@
+package org.springdemo.batchweb.job.bulk;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springdemo.batchweb.job.writer.BookImportMode;
+import org.springdemo.batchweb.model.Book;
+import org.springdemo.batchweb.search.BookSearchIndexBuilder;
+import org.springdemo.batchweb.stats.BookStats;
+import org.springdemo.batchweb.stats.YearCount;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.item.file.FlatFileFormatException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+class BulkLoadBookTaskletTests {
+
+    private static final String CSV = """
+            ISBN,TITLE,AUTHORS,YEAR PUBLISHED
+            9781935182955,Spring Batch in Action,"Cogolu\u00e8gnes, Templier, Gregory, Bazoud",2012
+            9781617296956,"Spring Microservices in Action, Second Edition","Carnell, S\u00e1nchez",2021
+            9780000000001,"The ""Quoted"" Title",Somebody,
+            """;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private Cache<String, Book> bookIsbnCache;
+
+    @Autowired
+    private BookSearchIndexBuilder bookSearchIndexBuilder;
+
+    @Autowired
+    private BookStats bookStats;
+
+    @TempDir
+    Path tempDir;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM BOOK_ENTITY");
+        jdbcTemplate.update("DELETE FROM BOOK_STATS_YEAR");
+        jdbcTemplate.update("DELETE FROM BOOK_STATS_AUTHOR");
+    }
+
+    @Test
+    void loadsEveryRowWithDistinctIds() throws IOException {
+        var stepExecution = load(CSV, BookImportMode.INSERT);
+
+        assertEquals(3, stepExecution.getReadCount());
+        assertEquals(3, stepExecution.getWriteCount());
+        assertEquals(List.of(
+                        Map.of("TITLE", "Spring Batch in Action", "YEAR_PUBLISHED", 2012),
+                        Map.of("TITLE", "The \"Quoted\" Title")),
+                List.of(jdbcTemplate.queryForMap(
+                                "SELECT TITLE, YEAR_PUBLISHED FROM BOOK_ENTITY WHERE ISBN = '9781935182955'"),
+                        jdbcTemplate.queryForMap(
+                                "SELECT TITLE FROM BOOK_ENTITY WHERE ISBN = '9780000000001' AND YEAR_PUBLISHED IS NULL")));
+        assertEquals(3, jdbcTemplate.queryForObject("SELECT COUNT(DISTINCT ID) FROM BOOK_ENTITY", Integer.class));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM BOOK_IMPORT_STAGING", Integer.class));
+    }
+
+    @Test
+    void upsertChangedOnlyWritesChangedRows() throws IOException {
+        load(CSV, BookImportMode.INSERT);
+
+        var stepExecution = load(CSV.replace("2021", "2022"), BookImportMode.UPSERT_CHANGED);
+
+        assertEquals(1, stepExecution.getWriteCount());
+        assertEquals(2, stepExecution.getFilterCount());
+        assertEquals(2022, jdbcTemplate.queryForObject(
+                "SELECT YEAR_PUBLISHED FROM BOOK_ENTITY WHERE ISBN = '9781617296956'", Integer.class));
+        assertEquals(List.of(new YearCount(null, 1), new YearCount(2012, 1), new YearCount(2022, 1)),
+                bookStats.years());
+        assertEquals(1, bookStats.books("S\u00e1nchez"));
+    }
+
+    @Test
+    void rejectsUnexpectedHeader() throws IOException {
+        assertThrows(FlatFileFormatException.class,
+                () -> load(CSV.replace("YEAR PUBLISHED", "YEAR"), BookImportMode.INSERT));
+    }
+
+    private StepExecution load(String content, BookImportMode mode) throws IOException {
+        var file = Files.writeString(tempDir.resolve("books.csv"), content, StandardCharsets.UTF_8);
+        var tasklet = new BulkLoadBookTasklet(jdbcTemplate, bookIsbnCache, bookSearchIndexBuilder, bookStats, file,
+                mode);
+        var stepExecution = new StepExecution("importBooksBulkLoad", new JobExecution(1L));
+        var contribution = stepExecution.createStepContribution();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            try {
+                tasklet.execute(contribution, new ChunkContext(new StepContext(stepExecution)));
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        stepExecution.apply(contribution);
+        return stepExecution;
+    }
+}
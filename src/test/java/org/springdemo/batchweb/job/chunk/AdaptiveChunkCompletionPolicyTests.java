@@ -0,0 +1,53 @@
+package org.springdemo.batchweb.job.chunk;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.scope.context.StepContext;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AdaptiveChunkCompletionPolicyTests {
+
+    private final AdaptiveChunkCompletionPolicy policy =
+            new AdaptiveChunkCompletionPolicy(100, 10, 1000, Duration.ofMillis(500));
+
+    @Test
+    void adaptsEachStepExecutionOnItsOwn() {
+        var first = stepExecution(1L);
+        var second = stepExecution(2L);
+        policy.beforeStep(first);
+        policy.beforeStep(second);
+
+        policy.afterChunkError(chunkContext(first));
+
+        assertEquals(50, policy.getChunkSize(first));
+        assertEquals(100, policy.getChunkSize(second));
+        assertEquals(75.0, policy.getChunkSize());
+    }
+
+    @Test
+    void startsEveryExecutionFromTheInitialSize() {
+        var first = stepExecution(1L);
+        policy.beforeStep(first);
+        policy.afterChunkError(chunkContext(first));
+        policy.afterStep(first);
+
+        var restart = stepExecution(2L);
+        policy.beforeStep(restart);
+
+        assertEquals(100, policy.getChunkSize(restart));
+        assertEquals(100.0, policy.getChunkSize());
+    }
+
+    private static StepExecution stepExecution(long id) {
+        return new StepExecution("importBooksStart", new JobExecution(id), id);
+    }
+
+    private static ChunkContext chunkContext(StepExecution stepExecution) {
+        return new ChunkContext(new StepContext(stepExecution));
+    }
+}
@@ -0,0 +1,106 @@
+package org.springdemo.batchweb.job.correlation;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springdemo.batchweb.config.CacheConfig.IMPORT_CORRELATION_CACHE_NAME;
+import static org.springdemo.batchweb.job.ExportBooksJobConfig.EXPORT_BOOKS_JOB_NAME;
+import static org.springdemo.batchweb.job.ImportBooksJobConfig.IMPORT_BOOKS_CORRELATION_ID_PARAMETER;
+import static org.springdemo.batchweb.job.ImportBooksJobConfig.IMPORT_BOOKS_JOB_NAME;
+
+@SpringBootTest
+class ImportCorrelationIndexTests {
+
+    @Autowired
+    private ImportCorrelationIndex index;
+
+    @Autowired
+    private JobRepository jobRepository;
+
+    @Autowired
+    @Qualifier(IMPORT_CORRELATION_CACHE_NAME)
+    private Cache<String, JobExecution> cache;
+
+    @Test
+    void findsTheExecutionAfterARestart() throws Exception {
+        var correlationId = UUID.randomUUID().toString();
+        var execution = finish(launch(IMPORT_BOOKS_JOB_NAME, correlationId), BatchStatus.COMPLETED);
+        index.register(correlationId, execution);
+
+        // a restarted node starts with an empty cache
+        cache.invalidateAll();
+        var found = index.find(IMPORT_BOOKS_JOB_NAME, correlationId).orElseThrow();
+
+        assertEquals(execution.getId(), found.getId());
+        assertEquals(BatchStatus.COMPLETED, found.getStatus());
+        assertSame(found, index.find(IMPORT_BOOKS_JOB_NAME, correlationId).orElseThrow());
+    }
+
+    @Test
+    void servesRegisteredExecutionsFromTheCache() throws Exception {
+        var correlationId = UUID.randomUUID().toString();
+        var execution = launch(IMPORT_BOOKS_JOB_NAME, correlationId);
+
+        index.register(correlationId, execution);
+
+        assertSame(execution, index.find(IMPORT_BOOKS_JOB_NAME, correlationId).orElseThrow());
+        assertTrue(index.find(IMPORT_BOOKS_JOB_NAME, UUID.randomUUID().toString()).isEmpty());
+    }
+
+    @Test
+    void reRegisteringReplacesThePreviousExecution() throws Exception {
+        var correlationId = UUID.randomUUID().toString();
+        var failed = launch(IMPORT_BOOKS_JOB_NAME, correlationId);
+        index.register(correlationId, failed);
+        finish(failed, BatchStatus.FAILED);
+
+        var restarted = launch(IMPORT_BOOKS_JOB_NAME, correlationId);
+        index.register(correlationId, restarted);
+        cache.invalidateAll();
+
+        var found = index.find(IMPORT_BOOKS_JOB_NAME, correlationId).orElseThrow();
+        assertEquals(restarted.getId(), found.getId());
+        assertEquals(failed.getJobId(), found.getJobId());
+    }
+
+    @Test
+    void keepsJobsSharingACorrelationIdApart() throws Exception {
+        var correlationId = UUID.randomUUID().toString();
+        var importExecution = launch(IMPORT_BOOKS_JOB_NAME, correlationId);
+        var exportExecution = launch(EXPORT_BOOKS_JOB_NAME, correlationId);
+        index.register(correlationId, importExecution);
+        index.register(correlationId, exportExecution);
+        cache.invalidateAll();
+
+        assertEquals(importExecution.getId(),
+                index.find(IMPORT_BOOKS_JOB_NAME, correlationId).orElseThrow().getId());
+        assertEquals(exportExecution.getId(),
+                index.find(EXPORT_BOOKS_JOB_NAME, correlationId).orElseThrow().getId());
+    }
+
+    private JobExecution launch(String jobName, String correlationId) throws Exception {
+        return jobRepository.createJobExecution(jobName, new JobParametersBuilder()
+                .addString(IMPORT_BOOKS_CORRELATION_ID_PARAMETER, correlationId, true)
+                .toJobParameters());
+    }
+
+    private JobExecution finish(JobExecution execution, BatchStatus status) {
+        execution.setStatus(status);
+        execution.setEndTime(LocalDateTime.now());
+        jobRepository.update(execution);
+        return execution;
+    }
+}
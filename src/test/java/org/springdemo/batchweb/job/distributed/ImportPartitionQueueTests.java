@@ -0,0 +1,82 @@
+package org.springdemo.batchweb.job.distributed;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class ImportPartitionQueueTests {
+
+    private static final long JOB_EXECUTION_ID = 1_000_000L;
+    private static final Duration LEASE = Duration.ofMinutes(1);
+    private static final Duration EXPIRED_LEASE = Duration.ofMillis(-1);
+
+    @Autowired
+    private ImportPartitionQueue queue;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM IMPORT_PARTITION_QUEUE");
+    }
+
+    @Test
+    void claimsEachPartitionOnce() {
+        enqueue(11L, 12L);
+
+        var first = queue.claim("node-a", LEASE, 3).orElseThrow();
+        var second = queue.claim("node-b", LEASE, 3).orElseThrow();
+
+        assertEquals(11L, first.stepExecutionId());
+        assertEquals(12L, second.stepExecutionId());
+        assertEquals(1, first.attempt());
+        assertTrue(queue.claim("node-c", LEASE, 3).isEmpty());
+        assertEquals(2, queue.pending(JOB_EXECUTION_ID));
+    }
+
+    @Test
+    void reclaimsPartitionsWhoseLeaseExpired() {
+        enqueue(21L);
+        queue.claim("node-a", EXPIRED_LEASE, 3).orElseThrow();
+
+        var reclaimed = queue.claim("node-b", LEASE, 3).orElseThrow();
+
+        assertEquals(2, reclaimed.attempt());
+        assertEquals(List.of(21L), queue.renew("node-a", List.of(21L), LEASE));
+        assertFalse(queue.complete(21L, "node-a", ImportPartitionStatus.COMPLETED));
+        assertTrue(queue.complete(21L, "node-b", ImportPartitionStatus.COMPLETED));
+        assertEquals(ImportPartitionStatus.COMPLETED, queue.status(21L));
+        assertEquals(0, queue.pending(JOB_EXECUTION_ID));
+    }
+
+    @Test
+    void failsPartitionsAfterTheLastAttempt() {
+        enqueue(31L);
+        queue.claim("node-a", EXPIRED_LEASE, 1).orElseThrow();
+
+        assertTrue(queue.claim("node-b", LEASE, 1).isEmpty());
+        assertEquals(ImportPartitionStatus.FAILED, queue.status(31L));
+        assertEquals(0, queue.pending(JOB_EXECUTION_ID));
+    }
+
+    private void enqueue(Long... stepExecutionIds) {
+        var jobExecution = new JobExecution(JOB_EXECUTION_ID);
+        queue.enqueue("queue-test", Arrays.stream(stepExecutionIds)
+                .map(id -> new StepExecution("importBooksWorker:partition" + id, jobExecution, id))
+                .toList());
+    }
+}
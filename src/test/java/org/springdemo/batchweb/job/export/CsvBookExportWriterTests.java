@@ -0,0 +1,83 @@
+package org.springdemo.batchweb.job.export;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springdemo.batchweb.job.reader.Compression;
+import org.springdemo.batchweb.model.Book;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CsvBookExportWriterTests {
+
+    private static final Book FIRST = new Book(1L, "9781935182955", "Spring Batch in Action",
+            "Cagalu\u00e9gnes, Templier, Gregory, Bazoud", 2012);
+    private static final Book SECOND = new Book(2L, "9780000000001", "The \"Quoted\" Title", "Somebody", null);
+
+    private static final String CSV = """
+            ISBN,TITLE,AUTHORS,YEAR PUBLISHED
+            9781935182955,Spring Batch in Action,"Cagalu\u00e9gnes, Templier, Gregory, Bazoud",2012
+            9780000000001,"The ""Quoted"" Title",Somebody,
+            """;
+
+    @TempDir
+    Path tempDir;
+
+    @ParameterizedTest
+    @EnumSource(Compression.class)
+    void writesOneFramePerChunk(Compression compression) throws IOException {
+        var path = tempDir.resolve("books.csv" + compression.extension());
+        var writer = writer(path, compression);
+        var executionContext = new ExecutionContext();
+        writer.open(executionContext);
+        writer.write(Chunk.of(FIRST));
+        writer.update(executionContext);
+        writer.write(Chunk.of(SECOND));
+        writer.update(executionContext);
+        writer.close();
+
+        assertEquals(compression, Compression.detect(path));
+        assertEquals(CSV, read(path));
+    }
+
+    @Test
+    void restartDropsTheChunkRolledBack() throws IOException {
+        var path = tempDir.resolve("books.csv.zst");
+        var writer = writer(path, Compression.ZSTD);
+        var executionContext = new ExecutionContext();
+        writer.open(executionContext);
+        writer.write(Chunk.of(FIRST));
+        writer.update(executionContext);
+        // the step fails before the second chunk commits
+        writer.write(Chunk.of(SECOND));
+        writer.close();
+
+        var restarted = writer(path, Compression.ZSTD);
+        restarted.open(executionContext);
+        restarted.write(Chunk.of(SECOND));
+        restarted.update(executionContext);
+        restarted.close();
+
+        assertEquals(CSV, read(path));
+    }
+
+    private static CsvBookExportWriter writer(Path path, Compression compression) {
+        var writer = new CsvBookExportWriter(path, compression);
+        writer.setName("test");
+        return writer;
+    }
+
+    private static String read(Path path) throws IOException {
+        try (var in = Compression.decompressing(Files.newInputStream(path))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
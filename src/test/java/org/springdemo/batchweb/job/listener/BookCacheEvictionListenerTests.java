@@ -0,0 +1,62 @@
+package org.springdemo.batchweb.job.listener;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springdemo.batchweb.config.CacheConfig;
+import org.springdemo.batchweb.entity.BookEntity;
+import org.springdemo.batchweb.model.Book;
+import org.springframework.batch.item.Chunk;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class BookCacheEvictionListenerTests {
+
+    private static final String ISBN = "9781935182955";
+
+    private static final Book STALE = new Book(1L, ISBN, "Spring Batch in Action", "Templier", 2011);
+
+    private final Cache<String, Book> bookIsbnCache =
+            new CacheConfig().bookIsbnCache(new SimpleMeterRegistry(), 10, Duration.ofMinutes(10));
+
+    private final BookCacheEvictionListener listener = new BookCacheEvictionListener(bookIsbnCache);
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void evictsTheWrittenIsbnsAgainAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        bookIsbnCache.put(ISBN, STALE);
+        bookIsbnCache.put("9781617296956", STALE);
+
+        listener.afterWrite(new Chunk<>(new BookEntity(1L, ISBN, "Spring Batch in Action", "Gregory", 2012)));
+        assertNull(bookIsbnCache.getIfPresent(ISBN));
+
+        // a lookup between the write and the commit still reads the previous row
+        bookIsbnCache.put(ISBN, STALE);
+        TransactionSynchronizationUtils.triggerAfterCommit();
+
+        assertNull(bookIsbnCache.getIfPresent(ISBN));
+        assertEquals(STALE, bookIsbnCache.getIfPresent("9781617296956"));
+    }
+
+    @Test
+    void evictsRightAwayOutsideOfATransaction() {
+        bookIsbnCache.put(ISBN, STALE);
+
+        listener.afterWrite(new Chunk<>(new BookEntity(1L, ISBN, "Spring Batch in Action", "Gregory", 2012)));
+
+        assertNull(bookIsbnCache.getIfPresent(ISBN));
+    }
+}
@@ -0,0 +1,99 @@
+package org.springdemo.batchweb.job.partition;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springdemo.batchweb.job.reader.MappedBookItemReader;
+import org.springdemo.batchweb.model.Book;
+import org.springframework.batch.item.ExecutionContext;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springdemo.batchweb.job.partition.BookFilePartitioner.END_OFFSET_KEY;
+import static org.springdemo.batchweb.job.partition.BookFilePartitioner.START_OFFSET_KEY;
+
+class BookFilePartitionerTests {
+
+    private static final String HEADER = "ISBN,TITLE,AUTHORS,YEAR PUBLISHED\n";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void splitsAfterTheHeaderOnLineStarts() throws IOException {
+        var csv = HEADER + "9781935182955,Spring Batch in Action,Templier,2011\n".repeat(100);
+        var file = write(csv);
+
+        var ranges = ranges(new BookFilePartitioner(file, true).partition(4));
+
+        assertEquals(4, ranges.size());
+        assertEquals(HEADER.length(), ranges.get(0)[0]);
+        assertEquals(csv.length(), ranges.get(3)[1]);
+        for (int i = 0; i < ranges.size(); i++) {
+            assertEquals('\n', csv.charAt((int) ranges.get(i)[0] - 1));
+            if (i > 0) {
+                assertEquals(ranges.get(i - 1)[1], ranges.get(i)[0]);
+            }
+        }
+        assertEquals(100, readAll(file, ranges).size());
+    }
+
+    @Test
+    void keepsAQuotedMultiLineRecordInOneRange() throws IOException {
+        var title = "Line of a \"\"long\"\" title\n".repeat(40);
+        var csv = HEADER
+                + "9781935182955,Spring Batch in Action,Templier,2011\n"
+                + "9781617296956,\"" + title + "\",Carnell,2021\n"
+                + "9780000000001,Short,Somebody,2000\n";
+        var file = write(csv);
+
+        var ranges = ranges(new BookFilePartitioner(file, true).partition(2));
+
+        assertEquals(List.of(
+                new Book(null, "9781935182955", "Spring Batch in Action", "Templier", 2011),
+                new Book(null, "9781617296956", title.replace("\"\"", "\""), "Carnell", 2021),
+                new Book(null, "9780000000001", "Short", "Somebody", 2000)), readAll(file, ranges));
+        assertEquals(csv.indexOf("9780000000001"), ranges.get(1)[0]);
+    }
+
+    @Test
+    void dropsRangesLeftEmptyByALongRecord() throws IOException {
+        var csv = HEADER + "9781617296956,\"" + "Title\n".repeat(100) + "\",Carnell,2021\n";
+        var file = write(csv);
+
+        var ranges = ranges(new BookFilePartitioner(file, true).partition(8));
+
+        assertEquals(1, ranges.size());
+        assertEquals(HEADER.length(), ranges.get(0)[0]);
+        assertEquals(csv.length(), ranges.get(0)[1]);
+    }
+
+    private Path write(String csv) throws IOException {
+        return Files.writeString(tempDir.resolve("books.csv"), csv, StandardCharsets.UTF_8);
+    }
+
+    private static List<long[]> ranges(Map<String, ExecutionContext> partitions) {
+        return partitions.values().stream()
+                .map(context -> new long[]{context.getLong(START_OFFSET_KEY), context.getLong(END_OFFSET_KEY)})
+                .toList();
+    }
+
+    private static List<Book> readAll(Path file, List<long[]> ranges) {
+        var books = new ArrayList<Book>();
+        for (var range : ranges) {
+            var reader = new MappedBookItemReader(file, range[0], range[1], false);
+            reader.open(new ExecutionContext());
+            for (var book = reader.read(); book != null; book = reader.read()) {
+                books.add(book);
+            }
+            reader.close();
+        }
+        return books;
+    }
+}
@@ -0,0 +1,81 @@
+package org.springdemo.batchweb.job.partition;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.file.builder.FlatFileItemReaderBuilder;
+import org.springframework.batch.item.file.mapping.PassThroughLineMapper;
+import org.springframework.batch.item.file.separator.DefaultRecordSeparatorPolicy;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FileRangeResourceTests {
+
+    private static final String HEADER = "ISBN,TITLE,AUTHORS,YEAR PUBLISHED\n";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void readsOnlyTheRange() throws IOException {
+        var file = Files.writeString(tempDir.resolve("books.csv"), "0123456789", StandardCharsets.UTF_8);
+        var resource = new FileRangeResource(file, 2, 7);
+
+        assertEquals(5, resource.contentLength());
+        try (var in = resource.getInputStream()) {
+            assertEquals(1, in.skip(1));
+            assertEquals("3456", new String(in.readAllBytes(), StandardCharsets.US_ASCII));
+            assertEquals(-1, in.read());
+        }
+    }
+
+    @Test
+    void readsTheQuotedMultiLineRecordsOfEachPartition() throws IOException {
+        var csv = HEADER
+                + "9781935182955,Spring Batch in Action,Templier,2011\n"
+                + "9781617296956,\"" + "Line of a long title\n".repeat(40) + "\",Carnell,2021\n"
+                + "9780000000001,Short,Somebody,2000\n";
+        var file = Files.writeString(tempDir.resolve("books.csv"), csv, StandardCharsets.UTF_8);
+
+        var records = new ArrayList<String>();
+        for (var context : new BookFilePartitioner(file, true).partition(2).values()) {
+            var resource = new FileRangeResource(file, context.getLong(BookFilePartitioner.START_OFFSET_KEY),
+                    context.getLong(BookFilePartitioner.END_OFFSET_KEY));
+            records.addAll(readAll(resource));
+        }
+
+        assertEquals(Arrays.stream(csv.substring(HEADER.length()).split("\n(?=9)"))
+                .map(String::strip)
+                .toList(), records.stream().map(String::strip).toList());
+    }
+
+    private static List<String> readAll(FileRangeResource resource) {
+        var reader = new FlatFileItemReaderBuilder<String>()
+                .name("fileRangeResourceTests")
+                .recordSeparatorPolicy(new DefaultRecordSeparatorPolicy())
+                .resource(resource)
+                .strict(true)
+                .lineMapper(new PassThroughLineMapper())
+                .build();
+        var records = new ArrayList<String>();
+        reader.open(new ExecutionContext());
+        try {
+            for (var record = reader.read(); record != null; record = reader.read()) {
+                records.add(record);
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        } finally {
+            reader.close();
+        }
+        return records;
+    }
+}
@@ -0,0 +1,55 @@
+package org.springdemo.batchweb.job.processor;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DuplicateIsbnDetectorTests {
+
+    @Test
+    void reportsOnlyTheFirstOccurrence() {
+        var detector = new DuplicateIsbnDetector();
+
+        assertTrue(detector.firstOccurrence("9781935182955"));
+        assertTrue(detector.firstOccurrence("193518295X"));
+        assertTrue(detector.firstOccurrence("978-1935182955"));
+        assertFalse(detector.firstOccurrence("9781935182955"));
+        assertFalse(detector.firstOccurrence("193518295X"));
+        assertFalse(detector.firstOccurrence("978-1935182955"));
+        assertEquals(3, detector.size());
+    }
+
+    @Test
+    void countsEachIsbnOnceAcrossPartitions() throws Exception {
+        var detector = new DuplicateIsbnDetector();
+        int partitions = 4;
+        int rows = 100_000;
+        var tasks = new ArrayList<Callable<Integer>>();
+        for (int p = 0; p < partitions; p++) {
+            tasks.add(() -> {
+                int first = 0;
+                for (long isbn = 9780000000000L; isbn < 9780000000000L + rows; isbn++) {
+                    if (detector.firstOccurrence(Long.toString(isbn))) {
+                        first++;
+                    }
+                }
+                return first;
+            });
+        }
+        try (var executor = Executors.newFixedThreadPool(partitions)) {
+            int first = 0;
+            for (Future<Integer> result : executor.invokeAll(tasks)) {
+                first += result.get();
+            }
+            assertEquals(rows, first);
+        }
+        assertEquals(rows, detector.size());
+    }
+}
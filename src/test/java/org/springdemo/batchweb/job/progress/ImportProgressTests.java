@@ -0,0 +1,63 @@
+package org.springdemo.batchweb.job.progress;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ImportProgressTests {
+
+    private long now = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void estimatesTheTimeLeftFromTheSmoothedRate() {
+        var progress = new ImportProgress("rate", 10_000, 1000, () -> now);
+        progress.started();
+
+        advance(500);
+        progress.update(1, 100, 100, 0);
+        assertEquals(0, progress.getRowsPerSecond());
+        assertNull(progress.getEtaSeconds());
+
+        advance(500);
+        progress.update(1, 200, 200, 0);
+        assertEquals(200, progress.getRowsPerSecond());
+        assertEquals(4, progress.getEtaSeconds());
+        assertEquals(20.0, progress.getPercentComplete());
+
+        advance(1000);
+        progress.update(2, 400, 390, 10);
+        assertEquals(300, progress.getRowsPerSecond());
+        assertEquals(2, progress.getEtaSeconds());
+        assertEquals(60.0, progress.getPercentComplete());
+        assertEquals(590, progress.getWriteCount());
+        assertEquals(10, progress.getFilterCount());
+
+        advance(1000);
+        progress.finished("COMPLETED");
+        assertEquals(0, progress.getRowsPerSecond());
+        assertEquals(0, progress.getEtaSeconds());
+        assertEquals(3, progress.getElapsedSeconds());
+    }
+
+    @Test
+    void hasNoEstimateWithoutTotal() {
+        var progress = new ImportProgress("stream", ImportProgress.UNKNOWN, ImportProgress.UNKNOWN, () -> now);
+        progress.started();
+
+        advance(2000);
+        progress.update(1, 500, 500, 0);
+        assertEquals(250, progress.getRowsPerSecond());
+        assertNull(progress.getEtaSeconds());
+        assertNull(progress.getPercentComplete());
+
+        progress.finished("COMPLETED");
+        assertEquals(100.0, progress.getPercentComplete());
+    }
+
+    private void advance(long millis) {
+        now += TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+}
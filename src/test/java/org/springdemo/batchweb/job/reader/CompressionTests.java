@@ -0,0 +1,74 @@
+package org.springdemo.batchweb.job.reader;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CompressionTests {
+
+    private static final byte[] CSV = IntStream.range(0, 1000)
+            .mapToObj(i -> "%d,Title %d,Author,2000\n".formatted(9780000000000L + i, i))
+            .collect(Collectors.joining("", "ISBN,TITLE,AUTHORS,YEAR PUBLISHED\n", ""))
+            .getBytes(StandardCharsets.UTF_8);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void roundTripsGzip() throws IOException {
+        assertRoundTrip(Compression.GZIP);
+    }
+
+    @Test
+    void roundTripsZstd() throws IOException {
+        assertRoundTrip(Compression.ZSTD);
+    }
+
+    @Test
+    void detectsTheFormatByItsMagicBytes() throws IOException {
+        var plain = Files.write(tempDir.resolve("books.gz"), CSV);
+        var gzip = Files.write(tempDir.resolve("books.csv"), compress(Compression.GZIP));
+        var zstd = Files.write(tempDir.resolve("books.txt"), compress(Compression.ZSTD));
+
+        assertEquals(Compression.NONE, Compression.detect(plain));
+        assertEquals(Compression.GZIP, Compression.detect(gzip));
+        assertEquals(Compression.ZSTD, Compression.detect(zstd));
+        assertEquals(Compression.NONE, Compression.detect(new byte[]{(byte) 0x1F}));
+    }
+
+    @Test
+    void decompressesWhateverTheStreamCarries() throws IOException {
+        for (var compression : Compression.values()) {
+            try (var in = Compression.decompressing(new ByteArrayInputStream(compress(compression)))) {
+                assertArrayEquals(CSV, in.readAllBytes(), compression.name());
+            }
+        }
+    }
+
+    private static void assertRoundTrip(Compression compression) throws IOException {
+        var compressed = compress(compression);
+
+        try (var in = compression.decompress(new ByteArrayInputStream(compressed))) {
+            assertArrayEquals(CSV, in.readAllBytes());
+        }
+    }
+
+    static byte[] compress(Compression compression) throws IOException {
+        var out = new ByteArrayOutputStream();
+        try (var compressing = compression.compress(out)) {
+            compressing.write(CSV);
+        }
+        return out.toByteArray();
+    }
+}
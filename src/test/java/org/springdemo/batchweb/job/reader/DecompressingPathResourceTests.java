@@ -0,0 +1,82 @@
+package org.springdemo.batchweb.job.reader;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.file.FlatFileItemReader;
+import org.springframework.batch.item.file.builder.FlatFileItemReaderBuilder;
+import org.springframework.batch.item.file.mapping.PassThroughLineMapper;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DecompressingPathResourceTests {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void exposesOnlyTheDecompressedContent() throws IOException {
+        var path = Files.write(tempDir.resolve("books.csv.zst"), CompressionTests.compress(Compression.ZSTD));
+        var resource = new DecompressingPathResource(path, Compression.ZSTD);
+        var csv = Compression.ZSTD.decompress(Files.newInputStream(path)).readAllBytes();
+
+        assertFalse(resource.isFile());
+        assertThrows(FileNotFoundException.class, resource::getFile);
+        assertEquals(csv.length, resource.contentLength());
+        try (var in = resource.getInputStream()) {
+            assertArrayEquals(csv, in.readAllBytes());
+        }
+        try (var in = Channels.newInputStream(resource.readableChannel())) {
+            assertArrayEquals(csv, in.readAllBytes());
+        }
+    }
+
+    @Test
+    void restartsAfterTheRecordsAlreadyRead() throws Exception {
+        var path = Files.write(tempDir.resolve("books.csv.gz"), CompressionTests.compress(Compression.GZIP));
+        var executionContext = new ExecutionContext();
+        var reader = reader(path);
+        reader.open(executionContext);
+        var first = List.of(reader.read(), reader.read());
+        reader.update(executionContext);
+        reader.close();
+
+        var remaining = readAll(reader(path), executionContext);
+
+        assertEquals(998, remaining.size());
+        var all = readAll(reader(path), new ExecutionContext());
+        assertEquals(first, all.subList(0, 2));
+        assertEquals(all.subList(2, all.size()), remaining);
+    }
+
+    private static FlatFileItemReader<String> reader(Path path) {
+        return new FlatFileItemReaderBuilder<String>()
+                .name("decompressingPathResourceTests")
+                .linesToSkip(1)
+                .resource(new DecompressingPathResource(path, Compression.GZIP))
+                .lineMapper(new PassThroughLineMapper())
+                .build();
+    }
+
+    private static List<String> readAll(FlatFileItemReader<String> reader, ExecutionContext executionContext)
+            throws Exception {
+        var lines = new ArrayList<String>();
+        reader.open(executionContext);
+        for (var line = reader.read(); line != null; line = reader.read()) {
+            lines.add(line);
+        }
+        reader.close();
+        return lines;
+    }
+}
@@ -0,0 +1,126 @@
+package org.springdemo.batchweb.job.reader;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springdemo.batchweb.model.Book;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.file.FlatFileParseException;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MappedBookItemReaderTests {
+
+    private static final String CSV = """
+            ISBN,TITLE,AUTHORS,YEAR PUBLISHED
+            9781935182955,Spring Batch in Action,"Cagalu\u00e9gnes, Templier, Gregory, Bazoud",2012
+            9781617296956,"Spring Microservices in Action, Second Edition","Carnell, S\u00e1nchez",2021\r
+            9780000000001,"The ""Quoted"" Title",Somebody,
+            """;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void readsQuotedAndUnicodeFields() throws IOException {
+        var books = readAll(reader(CSV, MappedBookItemReader.DEFAULT_WINDOW_SIZE), new ExecutionContext());
+
+        assertEquals(List.of(
+                new Book(null, "9781935182955", "Spring Batch in Action",
+                        "Cagalu\u00e9gnes, Templier, Gregory, Bazoud", 2012),
+                new Book(null, "9781617296956", "Spring Microservices in Action, Second Edition",
+                        "Carnell, S\u00e1nchez", 2021),
+                new Book(null, "9780000000001", "The \"Quoted\" Title", "Somebody", null)), books);
+    }
+
+    @Test
+    void remapsRecordsCrossingTheWindow() throws IOException {
+        var small = readAll(reader(CSV, 96), new ExecutionContext());
+
+        assertEquals(readAll(reader(CSV, MappedBookItemReader.DEFAULT_WINDOW_SIZE), new ExecutionContext()), small);
+    }
+
+    @Test
+    void restartsFromTheSavedPosition() throws IOException {
+        var reader = reader(CSV, MappedBookItemReader.DEFAULT_WINDOW_SIZE);
+        var executionContext = new ExecutionContext();
+        reader.open(executionContext);
+        reader.read();
+        reader.update(executionContext);
+        reader.close();
+
+        var remaining = readAll(reader(CSV, MappedBookItemReader.DEFAULT_WINDOW_SIZE), executionContext);
+
+        assertEquals(2, remaining.size());
+        assertEquals("9781617296956", remaining.get(0).isbn());
+    }
+
+    @Test
+    void rejectsInvalidYear() throws IOException {
+        var reader = reader("ISBN,TITLE,AUTHORS,YEAR PUBLISHED\n9781935182955,Title,Author,20x2\n",
+                MappedBookItemReader.DEFAULT_WINDOW_SIZE);
+        reader.open(new ExecutionContext());
+
+        var exception = assertThrows(FlatFileParseException.class, reader::read);
+        assertEquals(2, exception.getLineNumber());
+        reader.close();
+    }
+
+    @Test
+    void rejectsTextAfterAClosingQuote() throws IOException {
+        var reader = reader("""
+                ISBN,TITLE,AUTHORS,YEAR PUBLISHED
+                9781935182955,"Spring Batch"in Action,Templier,2011
+                9781617296956,"Spring Microservices in Action"\t ,Carnell,2021
+                """, 64);
+        reader.open(new ExecutionContext());
+
+        var exception = assertThrows(FlatFileParseException.class, reader::read);
+        assertEquals(2, exception.getLineNumber());
+        assertEquals(new Book(null, "9781617296956", "Spring Microservices in Action", "Carnell", 2021),
+                reader.read());
+        assertNull(reader.read());
+        reader.close();
+    }
+
+    @Test
+    void countsACrLfCutByTheWindowAsOneLine() throws IOException {
+        // with 34 bytes windows the \r of the header and of the first record end a window, their \n starts the next
+        var reader = reader("ISBN,TITLE,AUTHORS,YEAR PUBLISHED\r\n"
+                + "9781935182955,Titles,Authors,2011\r\n"
+                + "9780000000001,Title,Author,20x2\r\n", 34);
+        reader.open(new ExecutionContext());
+
+        assertEquals(new Book(null, "9781935182955", "Titles", "Authors", 2011), reader.read());
+        var exception = assertThrows(FlatFileParseException.class, reader::read);
+        assertEquals(3, exception.getLineNumber());
+        assertNull(reader.read());
+        reader.close();
+    }
+
+    private MappedBookItemReader reader(String content, int windowSize) throws IOException {
+        var file = Files.writeString(tempDir.resolve("books.csv"), content, StandardCharsets.UTF_8);
+        var reader = new MappedBookItemReader(file, 0, -1, true, windowSize);
+        reader.setName("test");
+        return reader;
+    }
+
+    private static List<Book> readAll(MappedBookItemReader reader, ExecutionContext executionContext) {
+        reader.open(executionContext);
+        var books = new ArrayList<Book>();
+        for (Book book = reader.read(); book != null; book = reader.read()) {
+            books.add(book);
+        }
+        assertNull(reader.read());
+        reader.close();
+        return books;
+    }
+}
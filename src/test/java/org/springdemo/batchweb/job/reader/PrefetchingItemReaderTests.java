@@ -0,0 +1,122 @@
+package org.springdemo.batchweb.job.reader;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springdemo.batchweb.model.Book;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.file.FlatFileParseException;
+import org.springframework.batch.item.file.builder.FlatFileItemReaderBuilder;
+import org.springframework.core.io.PathResource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PrefetchingItemReaderTests {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void restartsAfterTheItemsHandedToTheStep() throws Exception {
+        var file = csv(50);
+        var executionContext = new ExecutionContext();
+        var reader = reader(file);
+        reader.open(executionContext);
+        for (int i = 0; i < 20; i++) {
+            reader.read();
+        }
+        reader.update(executionContext);
+        reader.close();
+
+        // the offset of the next record handed to the step, not the one of the producer running ahead
+        assertEquals(Files.readString(file).indexOf("9780000000020"), executionContext.getLong(
+                "test." + PrefetchingItemReader.DELEGATE_KEY_PREFIX + "delegate." + MappedBookItemReader.POSITION_KEY));
+        var remaining = readAll(reader(file), executionContext);
+
+        assertEquals(30, remaining.size());
+        assertEquals("9780000000020", remaining.get(0).isbn());
+    }
+
+    @Test
+    void countsTheItemsHandedToTheStepWhenTheDelegateKeepsNoState() throws Exception {
+        var file = csv(50);
+        var executionContext = new ExecutionContext();
+        var reader = statelessReader(file);
+        reader.open(executionContext);
+        for (int i = 0; i < 20; i++) {
+            reader.read();
+        }
+        reader.update(executionContext);
+        reader.close();
+
+        var remaining = readAll(statelessReader(file), executionContext);
+
+        assertEquals(30, remaining.size());
+        assertEquals("9780000000020", remaining.get(0).isbn());
+    }
+
+    @Test
+    void handsParseErrorsOverInOrder() throws Exception {
+        var file = Files.writeString(tempDir.resolve("books.csv"), """
+                ISBN,TITLE,AUTHORS,YEAR PUBLISHED
+                9780000000001,Title,Author,2001
+                9780000000002,Title,Author,20x2
+                9780000000003,Title,Author,2003
+                """);
+        var reader = reader(file);
+        reader.open(new ExecutionContext());
+
+        assertEquals("9780000000001", reader.read().isbn());
+        assertThrows(FlatFileParseException.class, reader::read);
+        assertEquals("9780000000003", reader.read().isbn());
+        reader.close();
+    }
+
+    private PrefetchingItemReader<Book> reader(Path file) {
+        var delegate = new MappedBookItemReader(file, 0, -1, true);
+        delegate.setName("delegate");
+        var reader = new PrefetchingItemReader<>(delegate, 4, Thread::new);
+        reader.setName("test");
+        return reader;
+    }
+
+    private PrefetchingItemReader<Book> statelessReader(Path file) {
+        var delegate = new FlatFileItemReaderBuilder<Book>()
+                .name("delegate")
+                .saveState(false)
+                .linesToSkip(1)
+                .resource(new PathResource(file))
+                .lineMapper((line, lineNumber) ->
+                        new Book(null, line.substring(0, line.indexOf(',')), null, null, null))
+                .build();
+        var reader = new PrefetchingItemReader<>(delegate, 4, Thread::new);
+        reader.setName("test");
+        return reader;
+    }
+
+    private Path csv(int rows) throws IOException {
+        var lines = new ArrayList<String>();
+        lines.add("ISBN,TITLE,AUTHORS,YEAR PUBLISHED");
+        for (int i = 0; i < rows; i++) {
+            lines.add("%d,Title %d,Author,2000".formatted(9780000000000L + i, i));
+        }
+        return Files.write(tempDir.resolve("books.csv"), lines);
+    }
+
+    private static List<Book> readAll(PrefetchingItemReader<Book> reader, ExecutionContext executionContext)
+            throws Exception {
+        reader.open(executionContext);
+        var books = new ArrayList<Book>();
+        for (Book book = reader.read(); book != null; book = reader.read()) {
+            books.add(book);
+        }
+        reader.close();
+        return books;
+    }
+}
@@ -0,0 +1,149 @@
+package org.springdemo.batchweb.job.reject;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springdemo.batchweb.entity.BookEntity;
+import org.springdemo.batchweb.job.writer.BookWriterMode;
+import org.springdemo.batchweb.job.writer.JdbcBookItemWriter;
+import org.springdemo.batchweb.repository.BookIdAllocator;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.step.skip.SkipLimitExceededException;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+class BisectingBookItemWriterTests {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BookIdAllocator bookIdAllocator;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @TempDir
+    Path tempDir;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM BOOK_ENTITY");
+    }
+
+    private final StepExecution stepExecution = new StepExecution("test", new JobExecution(1L));
+
+    /**
+     * Contribution of the last chunk written, a new one for each chunk like the step does.
+     */
+    private StepContribution contribution;
+
+    @Test
+    void rejectsOnlyTheConflictingBooks() throws IOException {
+        var rejectFile = new ImportRejectFile(tempDir.resolve("rejects.csv"));
+        var rejectHandler = new ImportRejectHandler(rejectFile, 10);
+        var writer = writer(rejectHandler);
+        write(rejectHandler, writer, List.of(book(0)));
+
+        var chunk = write(rejectHandler, writer,
+                List.of(book(1), book(0), book(2), book(3), book(4), book(2), book(5), book(6)));
+        rejectFile.close();
+
+        assertEquals(6, chunk.size());
+        assertEquals(7, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM BOOK_ENTITY", Integer.class));
+        assertEquals(2, contribution.getWriteSkipCount());
+        var lines = Files.readAllLines(rejectFile.getPath());
+        assertEquals(ImportRejectFile.HEADER, lines.get(0));
+        assertEquals(3, lines.size());
+    }
+
+    @Test
+    void failsOnceTheSkipLimitIsReached() {
+        var rejectHandler = new ImportRejectHandler(new ImportRejectFile(tempDir.resolve("rejects.csv")), 1);
+        var writer = writer(rejectHandler);
+
+        assertThrows(SkipLimitExceededException.class,
+                () -> write(rejectHandler, writer, List.of(book(1), book(1), book(2), book(2))));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM BOOK_ENTITY", Integer.class));
+    }
+
+    @Test
+    void writesNothingForAChunkRolledBackOnTheLimit() throws IOException {
+        var rejectFile = new ImportRejectFile(tempDir.resolve("rejects.csv"));
+        var rejectHandler = new ImportRejectHandler(rejectFile, 1);
+        var writer = writer(rejectHandler);
+
+        assertThrows(SkipLimitExceededException.class,
+                () -> write(rejectHandler, writer, List.of(book(1), book(1), book(2), book(2))));
+
+        assertFalse(Files.exists(rejectFile.getPath()));
+        // the reservation of the first reject was given back, the retried chunk may reject it again
+        write(rejectHandler, writer, List.of(book(1), book(1), book(2)));
+        rejectFile.close();
+        assertEquals(2, Files.readAllLines(rejectFile.getPath()).size());
+        assertEquals(1, contribution.getWriteSkipCount());
+    }
+
+    @Test
+    void countsTheRejectsOfPreviousExecutions() {
+        var rejectHandler = new ImportRejectHandler(new ImportRejectFile(tempDir.resolve("rejects.csv"), 1), 1);
+        var writer = writer(rejectHandler);
+
+        assertThrows(SkipLimitExceededException.class, () -> write(rejectHandler, writer, List.of(book(1), book(1))));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM BOOK_ENTITY", Integer.class));
+    }
+
+    private BisectingBookItemWriter writer(ImportRejectHandler rejectHandler) {
+        return new BisectingBookItemWriter(
+                new JdbcBookItemWriter(jdbcTemplate, bookIdAllocator, BookWriterMode.JDBC_BATCH, 100),
+                rejectHandler, dataSource);
+    }
+
+    /**
+     * Writes the chunk in its own transaction through the handler, the way the import step does.
+     */
+    private Chunk<BookEntity> write(ImportRejectHandler rejectHandler, BisectingBookItemWriter writer,
+                                    List<BookEntity> books) {
+        var chunk = new Chunk<>(new ArrayList<>(books));
+        contribution = stepExecution.createStepContribution();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            try {
+                rejectHandler.execute((stepContribution, chunkContext) -> {
+                    writer.write(chunk);
+                    return RepeatStatus.FINISHED;
+                }, contribution, null);
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        return chunk;
+    }
+
+    private static BookEntity book(int i) {
+        return new BookEntity(null, String.valueOf(9780000000000L + i), "Title " + i, "Author " + i, 2000 + i);
+    }
+}
@@ -0,0 +1,90 @@
+package org.springdemo.batchweb.job.stream;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class StreamingImportPipeTests {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    @Test
+    void transfersEveryByte() throws Exception {
+        var content = new byte[1024 * 1024];
+        new Random(42).nextBytes(content);
+        var pipe = new StreamingImportPipe(4);
+
+        var upload = CompletableFuture.runAsync(() -> transfer(content, pipe.sink()));
+        var read = assertTimeoutPreemptively(TIMEOUT, () -> pipe.source().readAllBytes());
+
+        upload.get();
+        assertArrayEquals(content, read);
+    }
+
+    @Test
+    void failsTheReaderWhenTheUploadIsAborted() throws Exception {
+        var pipe = new StreamingImportPipe(4);
+        pipe.sink().write("ISBN,TITLE,AUTHORS,YEAR PUBLISHED\n".getBytes(StandardCharsets.UTF_8));
+
+        pipe.abort(new IOException("Client disconnected"));
+
+        var failure = assertTimeoutPreemptively(TIMEOUT,
+                () -> assertThrows(IOException.class, () -> pipe.source().readAllBytes()));
+        assertEquals("Client disconnected", failure.getCause().getMessage());
+    }
+
+    @Test
+    void failsTheUploadWhenTheReaderCloses() throws Exception {
+        var pipe = new StreamingImportPipe(1);
+        // more blocks than the pipe holds, the upload blocks until the reader gives up
+        var upload = CompletableFuture.runAsync(() -> transfer(new byte[64 * 1024], pipe.sink()));
+
+        pipe.source().close();
+
+        var failure = assertTimeoutPreemptively(TIMEOUT, () -> assertThrows(ExecutionException.class, upload::get));
+        assertInstanceOf(IOException.class, failure.getCause().getCause());
+    }
+
+    @Test
+    void failsTheUploadOnceTheRegistryReleasesThePipe() throws Exception {
+        var registry = new StreamingImportRegistry(1);
+        var pipe = registry.open("stream-1");
+        var upload = CompletableFuture.runAsync(() -> transfer(new byte[64 * 1024], pipe.sink()));
+
+        registry.close("stream-1");
+
+        assertTimeoutPreemptively(TIMEOUT, () -> assertThrows(ExecutionException.class, upload::get));
+        assertThrows(IllegalStateException.class, () -> registry.get("stream-1"));
+        registry.open("stream-1");
+    }
+
+    /**
+     * Writes the content in small blocks the way a servlet input stream is copied, then closes the sink.
+     */
+    private static void transfer(byte[] content, OutputStream sink) {
+        try {
+            var in = new ByteArrayInputStream(content);
+            var buffer = new byte[1024];
+            for (int read = in.read(buffer); read >= 0; read = in.read(buffer)) {
+                sink.write(buffer, 0, read);
+            }
+            sink.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
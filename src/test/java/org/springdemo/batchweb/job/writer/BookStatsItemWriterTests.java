@@ -0,0 +1,100 @@
+package org.springdemo.batchweb.job.writer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springdemo.batchweb.entity.BookEntity;
+import org.springdemo.batchweb.repository.BookIdAllocator;
+import org.springdemo.batchweb.stats.AuthorCount;
+import org.springdemo.batchweb.stats.BookStats;
+import org.springdemo.batchweb.stats.YearCount;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+class BookStatsItemWriterTests {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BookIdAllocator bookIdAllocator;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private BookStats bookStats;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM BOOK_ENTITY");
+        jdbcTemplate.update("DELETE FROM BOOK_STATS_YEAR");
+        jdbcTemplate.update("DELETE FROM BOOK_STATS_AUTHOR");
+    }
+
+    @Test
+    void countsInsertedBooks() {
+        var writer = new BookStatsItemWriter(
+                new JdbcBookItemWriter(jdbcTemplate, bookIdAllocator, BookWriterMode.JDBC_BATCH, 100),
+                bookStats, jdbcTemplate, false);
+
+        write(writer,
+                new BookEntity(null, "9781935182955", "Spring Batch in Action", "Templier, Gregory", 2011),
+                new BookEntity(null, "9781617296956", "Spring Microservices in Action", "Carnell", 2011),
+                new BookEntity(null, "9780000000001", "Untitled", "Gregory, Gregory", null));
+
+        assertEquals(3, bookStats.totalBooks());
+        assertEquals(List.of(new YearCount(null, 1), new YearCount(2011, 2)), bookStats.years());
+        assertEquals(List.of(new AuthorCount("Gregory", 2), new AuthorCount("Carnell", 1)),
+                bookStats.topAuthors(2));
+    }
+
+    @Test
+    void upsertMovesBooksBetweenCounters() {
+        var writer = new BookStatsItemWriter(new JdbcBookMergeItemWriter(jdbcTemplate, bookIdAllocator, false),
+                bookStats, jdbcTemplate, true);
+        write(writer, new BookEntity(null, "9781935182955", "Spring Batch in Action", "Templier", 2011));
+
+        write(writer,
+                new BookEntity(null, "9781935182955", "Spring Batch in Action", "Templier, Gregory", 2012),
+                new BookEntity(null, "9781617296956", "Spring Microservices in Action", "Carnell", 2012));
+
+        assertEquals(2, bookStats.totalBooks());
+        assertEquals(List.of(new YearCount(2012, 2)), bookStats.years());
+        assertEquals(1, bookStats.books("Templier"));
+        assertEquals(1, bookStats.books("Gregory"));
+    }
+
+    @Test
+    void rebuildReconcilesTheCounters() {
+        var writer = new BookStatsItemWriter(
+                new JdbcBookItemWriter(jdbcTemplate, bookIdAllocator, BookWriterMode.JDBC_BATCH, 100),
+                bookStats, jdbcTemplate, false);
+        write(writer, new BookEntity(null, "9781935182955", "Spring Batch in Action", "Templier", 2011));
+        jdbcTemplate.update("UPDATE BOOK_ENTITY SET AUTHORS = 'Gregory', YEAR_PUBLISHED = 2012");
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> bookStats.rebuild());
+
+        assertEquals(List.of(new YearCount(2012, 1)), bookStats.years());
+        assertEquals(List.of(new AuthorCount("Gregory", 1)), bookStats.topAuthors(10));
+    }
+
+    private void write(ItemWriter<BookEntity> writer, BookEntity... books) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            try {
+                writer.write(new Chunk<>(books));
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+}
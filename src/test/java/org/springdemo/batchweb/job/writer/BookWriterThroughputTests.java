@@ -0,0 +1,96 @@
+package org.springdemo.batchweb.job.writer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springdemo.batchweb.entity.BookEntity;
+import org.springdemo.batchweb.repository.BookIdAllocator;
+import org.springdemo.batchweb.repository.BookRepository;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Writes the same generated rows through every {@link BookWriterMode} and logs the throughput of each,
+ * so the JDBC writers can be compared against the original {@code saveAll} path.
+ */
+@SpringBootTest
+class BookWriterThroughputTests {
+
+    private static final Logger log = LoggerFactory.getLogger(BookWriterThroughputTests.class);
+
+    private static final int ROWS = 20_000;
+    private static final int CHUNK_SIZE = 100;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BookIdAllocator bookIdAllocator;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM BOOK_ENTITY");
+    }
+
+    @Test
+    void jpaWriter() {
+        measure(BookWriterMode.JPA, chunk -> bookRepository.saveAll(chunk.getItems()));
+    }
+
+    @Test
+    void jdbcBatchWriter() {
+        measure(BookWriterMode.JDBC_BATCH,
+                new JdbcBookItemWriter(jdbcTemplate, bookIdAllocator, BookWriterMode.JDBC_BATCH, CHUNK_SIZE));
+    }
+
+    @Test
+    void jdbcMultiRowWriter() {
+        measure(BookWriterMode.JDBC_MULTI_ROW,
+                new JdbcBookItemWriter(jdbcTemplate, bookIdAllocator, BookWriterMode.JDBC_MULTI_ROW, CHUNK_SIZE));
+    }
+
+    private void measure(BookWriterMode mode, ItemWriter<BookEntity> writer) {
+        var transactionTemplate = new TransactionTemplate(transactionManager);
+        long started = System.nanoTime();
+        for (int from = 0; from < ROWS; from += CHUNK_SIZE) {
+            var chunk = new Chunk<>(books(from, CHUNK_SIZE));
+            transactionTemplate.executeWithoutResult(status -> {
+                try {
+                    writer.write(chunk);
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        }
+        long elapsedNanos = System.nanoTime() - started;
+        log.info("{}: {} rows in {} ms, {} rows/s", mode, ROWS, elapsedNanos / 1_000_000,
+                ROWS * 1_000_000_000L / Math.max(elapsedNanos, 1));
+        assertEquals(ROWS, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM BOOK_ENTITY", Integer.class));
+    }
+
+    private static List<BookEntity> books(int from, int count) {
+        var books = new ArrayList<BookEntity>(count);
+        for (int i = from; i < from + count; i++) {
+            books.add(new BookEntity(null, String.valueOf(9780000000000L + i), "Title " + i,
+                    "Author " + (i % 1000), 1900 + i % 125));
+        }
+        return books;
+    }
+}
@@ -0,0 +1,81 @@
+package org.springdemo.batchweb.job.writer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springdemo.batchweb.entity.BookEntity;
+import org.springdemo.batchweb.repository.BookIdAllocator;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+class JdbcBookMergeItemWriterTests {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BookIdAllocator bookIdAllocator;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM BOOK_ENTITY");
+    }
+
+    @Test
+    void upsertUpdatesExistingIsbnsAndInsertsNewOnes() {
+        var writer = new JdbcBookMergeItemWriter(jdbcTemplate, bookIdAllocator, false);
+        write(writer, new BookEntity(null, "9781935182955", "Spring Batch in Action", "Templier", 2011));
+        long id = jdbcTemplate.queryForObject("SELECT ID FROM BOOK_ENTITY WHERE ISBN = '9781935182955'", Long.class);
+
+        write(writer,
+                new BookEntity(null, "9781935182955", "Spring Batch in Action", "Templier, Gregory", 2012),
+                new BookEntity(null, "9781617296956", "Spring Microservices in Action", "Carnell", null));
+
+        assertEquals(List.of(
+                        Map.of("ID", id, "AUTHORS", "Templier, Gregory", "YEAR_PUBLISHED", 2012),
+                        Map.of("ISBN", "9781617296956")),
+                List.of(jdbcTemplate.queryForMap(
+                                "SELECT ID, AUTHORS, YEAR_PUBLISHED FROM BOOK_ENTITY WHERE ISBN = '9781935182955'"),
+                        jdbcTemplate.queryForMap("SELECT ISBN FROM BOOK_ENTITY WHERE ISBN = '9781617296956'")));
+    }
+
+    @Test
+    void changedOnlyLeavesIdenticalRowsAlone() {
+        var writer = new JdbcBookMergeItemWriter(jdbcTemplate, bookIdAllocator, true);
+        write(writer,
+                new BookEntity(null, "9781935182955", "Spring Batch in Action", "Templier", 2011),
+                new BookEntity(null, "9781617296956", "Spring Microservices in Action", "Carnell", null));
+
+        var updated = new TransactionTemplate(transactionManager).execute(status -> jdbcTemplate.batchUpdate(
+                writer.sql,
+                List.of(new Object[]{0L, "9781935182955", "Spring Batch in Action", "Templier", 2011, null},
+                        new Object[]{0L, "9781617296956", "Spring Microservices in Action", "Carnell", 2021, null})));
+
+        assertEquals(List.of(0, 1), List.of(updated[0], updated[1]));
+        assertEquals(2021, jdbcTemplate.queryForObject(
+                "SELECT YEAR_PUBLISHED FROM BOOK_ENTITY WHERE ISBN = '9781617296956'", Integer.class));
+    }
+
+    private void write(ItemWriter<BookEntity> writer, BookEntity... books) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            try {
+                writer.write(new Chunk<>(books));
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+}
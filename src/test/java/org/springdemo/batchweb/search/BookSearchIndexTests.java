@@ -0,0 +1,63 @@
+package org.springdemo.batchweb.search;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springdemo.batchweb.entity.BookEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BookSearchIndexTests {
+
+    private final BookSearchIndex index = new BookSearchIndex(new SimpleMeterRegistry());
+
+    @Test
+    void findsBooksHoldingEveryWordIgnoringCaseAndAccents() {
+        index.index(List.of(
+                new BookEntity(null, "9781935182955", "Spring Batch in Action",
+                        "Cogolu\u00e8gnes, Templier, Gregory, Bazoud", 2012),
+                new BookEntity(null, "9781617296956", "Spring Microservices in Action, Second Edition",
+                        "Carnell, S\u00e1nchez", 2021),
+                new BookEntity(null, "080442957X", "Some Other Title", "Somebody", null)));
+
+        assertEquals(List.of("9781935182955", "9781617296956"), index.search("spring ACTION", 10));
+        assertEquals(List.of("9781617296956"), index.search("Sanchez", 10));
+        assertEquals(List.of("9781935182955"), index.search("cogoluegnes batch", 10));
+        assertEquals(List.of("080442957X"), index.search("other", 10));
+        assertEquals(List.of("9781935182955"), index.search("spring", 1));
+        assertEquals(List.of(), index.search("spring other", 10));
+        assertEquals(List.of(), index.search("", 10));
+    }
+
+    @Test
+    void reindexingABookReplacesItsWords() {
+        index.index(List.of(new BookEntity(null, "9781935182955", "Spring Batch", "Somebody", null)));
+        index.index(List.of(new BookEntity(null, "9781935182955", "Spring Integration", "Somebody", null)));
+
+        assertEquals(List.of(), index.search("batch", 10));
+        assertEquals(List.of("9781935182955"), index.search("integration", 10));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void compactionKeepsLiveBooksSearchable() {
+        var books = new ArrayList<BookEntity>();
+        for (int i = 0; i < 5000; i++) {
+            books.add(new BookEntity(null, String.valueOf(9780000000000L + i), "Title " + i, "Author", null));
+        }
+        index.index(books);
+        var renamed = books.subList(0, 2000).stream()
+                .map(book -> new BookEntity(null, book.getIsbn(), "Renamed " + book.getTitle(), "Author", null))
+                .toList();
+        index.index(renamed);
+
+        assertEquals(5000, index.size());
+        assertEquals(List.of("9780000000007"), index.search("renamed 7", 10));
+        assertEquals(List.of("9780000004999"), index.search("title 4999", 10));
+        assertEquals(5000, index.search("author", 10_000).size());
+        assertTrue(index.sizeInBytes() > 0);
+    }
+}
@@ -0,0 +1,33 @@
+package org.springdemo.batchweb.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IsbnsTests {
+
+    @Test
+    void packsIsbn13AndIsbn10ApartFromEachOther() {
+        assertEquals(9781935182955L, Isbns.pack("9781935182955"));
+        assertNotEquals(Isbns.pack("193518295X"), Isbns.pack("1935182951"));
+        assertTrue(Isbns.pack("0000000000") > Isbns.pack("9999999999999"));
+    }
+
+    @Test
+    void unpacksToTheCanonicalIsbn() {
+        assertEquals("9781935182955", Isbns.unpack(Isbns.pack("9781935182955")));
+        assertEquals("0000000000017", Isbns.unpack(Isbns.pack("0000000000017")));
+        assertEquals("193518295X", Isbns.unpack(Isbns.pack("193518295x")));
+        assertEquals("0935182951", Isbns.unpack(Isbns.pack("0935182951")));
+    }
+
+    @Test
+    void doesNotPackMalformedIsbns() {
+        assertEquals(Isbns.NOT_PACKABLE, Isbns.pack("978-1935182955"));
+        assertEquals(Isbns.NOT_PACKABLE, Isbns.pack("193518295Y"));
+        assertEquals(Isbns.NOT_PACKABLE, Isbns.pack("97819351829"));
+        assertEquals(Isbns.NOT_PACKABLE, Isbns.pack(null));
+    }
+}
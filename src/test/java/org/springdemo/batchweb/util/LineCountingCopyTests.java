@@ -0,0 +1,43 @@
+package org.springdemo.batchweb.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LineCountingCopyTests {
+
+    @Test
+    void countsTheLastLineWithoutTerminator() throws IOException {
+        assertEquals(3, copy("ISBN,TITLE\n1,A\r\n2,B").lines());
+        assertEquals(3, copy("ISBN,TITLE\n1,A\r\n2,B\n").lines());
+        assertEquals(0, copy("").lines());
+    }
+
+    @Test
+    void keepsLineBreaksOfQuotedFieldsInTheirLine() throws IOException {
+        assertEquals(3, copy("ISBN,TITLE\n1,\"First\nline\"\n2,\"Say \"\"hi\"\"\nagain\"\n").lines());
+    }
+
+    @Test
+    void copiesEveryByte() throws IOException {
+        var content = "9781935182955,Cogolu\u00e8gnes\n".repeat(10_000).getBytes(StandardCharsets.UTF_8);
+        var out = new ByteArrayOutputStream();
+
+        var result = LineCountingCopy.copy(new ByteArrayInputStream(content), out);
+
+        assertEquals(content.length, result.bytes());
+        assertEquals(10_000, result.lines());
+        assertArrayEquals(content, out.toByteArray());
+    }
+
+    private static LineCountingCopy.Result copy(String content) throws IOException {
+        return LineCountingCopy.copy(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)),
+                new ByteArrayOutputStream());
+    }
+}
@@ -0,0 +1,34 @@
+package org.springdemo.batchweb.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LongLongHashMapTests {
+
+    @Test
+    void growsPastTheExpectedSize() {
+        var map = new LongLongHashMap(4);
+        for (long isbn = 9780000000000L; isbn < 9780000100000L; isbn++) {
+            map.put(isbn, isbn * 31);
+        }
+
+        assertEquals(100_000, map.size());
+        assertEquals(9780000054321L * 31, map.get(9780000054321L, -1));
+        assertEquals(-1, map.get(9780000100000L, -1));
+        assertFalse(map.containsKey(Long.MIN_VALUE));
+    }
+
+    @Test
+    void overwritesExistingKeys() {
+        var map = new LongLongHashMap();
+        map.put(0, 1);
+        map.put(0, 2);
+
+        assertEquals(1, map.size());
+        assertTrue(map.containsKey(0));
+        assertEquals(2, map.get(0, -1));
+    }
+}